@@ -19,13 +19,10 @@
  */
 package com.microsoft.azuretools.azureexplorer.editors;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.SocketTimeoutException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -44,7 +41,7 @@ import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
@@ -76,13 +73,13 @@ import org.eclipse.ui.part.EditorPart;
 
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
-import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azureexplorer.Activator;
 import com.microsoft.azuretools.azureexplorer.forms.UploadBlobFileForm;
 import com.microsoft.azuretools.azureexplorer.helpers.UIHelperImpl;
 import com.microsoft.azuretools.core.utils.PluginUtil;
 import com.microsoft.azuretools.telemetry.TelemetryProperties;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.PrefetchingPager;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
@@ -102,6 +99,10 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 	private static final String UPLOAD_BLOB = "Upload Blob";
 	private static final String DELETE_SELECTED_BLOB = "Delete Selected Blob";
 
+    private static final int PAGE_SIZE = 500;
+    // start loading the next page when the table asks for a row this close to the end of the list
+    private static final int LOAD_MORE_ROWS = 100;
+
     private Text queryTextField;
     private Button queryButton;
     private Button refreshButton;
@@ -120,6 +121,8 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
     private java.util.List<BlobItem> blobItems = new ArrayList<BlobItem>();
+    private PrefetchingPager<BlobItem> blobItemPager;
+    private boolean loadingPage;
     private FileEditorVirtualNode<EditorPart> fileEditorVirtualNode;
 
     @Override
@@ -340,7 +343,7 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 
 
     private Table createTable(Composite parent) {
-        blobListTable = new Table(parent, SWT.BORDER | SWT.FULL_SELECTION);
+        blobListTable = new Table(parent, SWT.BORDER | SWT.FULL_SELECTION | SWT.VIRTUAL);
 
         blobListTable.setHeaderVisible(true);
         blobListTable.setLinesVisible(true);
@@ -402,6 +405,13 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
     public void fillGrid() {
         setUIState(true);
 
+        if (blobItemPager != null) {
+            blobItemPager.close();
+            blobItemPager = null;
+        }
+
+        final String prefix = queryTextField.getText();
+
         DefaultLoader.getIdeHelper().runInBackground(null, "Loading blobs...", false, true, "Loading blobs...", new Runnable() {
             @Override
             public void run() {
@@ -410,24 +420,20 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                         directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                     }
 
-                    blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
+                    final PrefetchingPager<BlobItem> pager = StorageClientSDKManager.getManager().getBlobItemPager(
+                            connectionString, directoryQueue.peekLast(), prefix, false, PAGE_SIZE);
+                    final java.util.List<BlobItem> firstPage = pager.nextPage();
 
                     DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
                         @Override
                         public void run() {
-                            if (!queryTextField.getText().isEmpty()) {
-                                for (int i = blobItems.size() - 1; i >= 0; i--) {
-                                    BlobItem blobItem = blobItems.get(i);
-
-                                    if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                                        blobItems.remove(i);
-                                    }
-                                }
-                            }
+                            blobItemPager = pager;
+                            loadingPage = false;
+                            blobItems = new ArrayList<BlobItem>(firstPage);
 
                             pathLabel.setText(directoryQueue.peekLast().getPath());
                             tableViewer.setInput(blobItems);
-                            tableViewer.refresh();
+                            tableViewer.setItemCount(blobItems.size());
                             setUIState(false);
 //
 //                            blobListTable.clearSelection();
@@ -440,6 +446,46 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
         });
     }
 
+    private void loadNextPage() {
+        final PrefetchingPager<BlobItem> pager = blobItemPager;
+
+        if (pager == null || loadingPage || !pager.hasNextPage()) {
+            return;
+        }
+
+        loadingPage = true;
+
+        // the pager has usually fetched this page already, so it is appended without a progress dialog
+        DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final java.util.List<BlobItem> page = pager.nextPage();
+
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (pager == blobItemPager && !blobListTable.isDisposed()) {
+                                blobItems.addAll(page);
+                                tableViewer.setItemCount(blobItems.size());
+                                loadingPage = false;
+                            }
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadingPage = false;
+                        }
+                    });
+
+                    DefaultLoader.getUIHelper().showException("Error querying blob list.", ex, "Error querying blobs", false, true);
+                }
+            }
+        });
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -567,59 +613,63 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                             }
                         }
 
-                        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                            private long runningCount = 0;
-
+                        final CallableSingleArg<Void, Long> processBlock = new CallableSingleArg<Void, Long>() {
                             @Override
-                            public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                                super.write(bytes, i, i1);
-
-                                runningCount += i1;
-
-                                double progress = (double) runningCount / fileSelection.getSize();
+                            public Void call(Long downloadedBytes) throws Exception {
+                                double progress = fileSelection.getSize() == 0 ? 1 : (double) downloadedBytes / fileSelection.getSize();
                                 monitor.worked((int) (100 * progress));
                                 monitor.subTask(String.format("%s%% downloaded", (int) (progress * 100)));
+                                return null;
                             }
                         };
 
-                        try {
 //                            Future<?> future = DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
 //                                @Override
 //                                public void run() {
-                            try {
-                                StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
-
-                                if (open && targetFile.exists()) {
-                                    try {
-                                        final Process p;
-                                        Runtime runtime = Runtime.getRuntime();
-                                        p = runtime.exec(
-                                                new String[]{"open", "-R", targetFile.getName()},
-                                                null,
-                                                targetFile.getParentFile());
-
-                                        InputStream errorStream = p.getErrorStream();
-                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                        if (p.waitFor() != 0) {
-                                            throw new Exception(errResponse);
-                                        }
-                                    } catch (Exception e) {
-                                        monitor.setTaskName("Error opening file");
-                                        monitor.subTask(e.getMessage());
+                        try {
+                            StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, targetFile, processBlock);
+
+                            if (open && targetFile.exists()) {
+                                try {
+                                    final Process p;
+                                    Runtime runtime = Runtime.getRuntime();
+                                    p = runtime.exec(
+                                            new String[]{"open", "-R", targetFile.getName()},
+                                            null,
+                                            targetFile.getParentFile());
+
+                                    InputStream errorStream = p.getErrorStream();
+                                    String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                    if (p.waitFor() != 0) {
+                                        throw new Exception(errResponse);
                                     }
-//                                            Desktop.getDesktop().open(targetFile);
+                                } catch (Exception e) {
+                                    monitor.setTaskName("Error opening file");
+                                    monitor.subTask(e.getMessage());
                                 }
-                            } catch (AzureCmdException e) {
-                                Throwable connectionFault = e.getCause().getCause();
+//                                            Desktop.getDesktop().open(targetFile);
+                            }
+                        } catch (AzureCmdException e) {
+                            // checksum and short-read failures carry no cause, so walk the chain null-safely
+                            Throwable connectionFault = e;
+                            while (connectionFault.getCause() != null) {
+                                connectionFault = connectionFault.getCause();
+                            }
+                            String faultMessage = (connectionFault instanceof SocketTimeoutException) ? "Connection timed out"
+                                    : connectionFault.getMessage() != null ? connectionFault.getMessage() : e.getMessage();
 
-                                monitor.setTaskName("Error downloading Blob");
-                                monitor.subTask((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
+                            // a cancelled download is interrupted, which is not an error to report
+                            if (monitor.isCanceled() || connectionFault instanceof InterruptedException
+                                    || connectionFault instanceof InterruptedIOException) {
                                 return Status.CANCEL_STATUS;
-                            } 
-                        } finally {
-                            bufferedOutputStream.close();
-                        }
+                            }
+
+                            monitor.setTaskName("Error downloading Blob");
+                            monitor.subTask(faultMessage);
+                            DefaultLoader.getUIHelper().showException("Error downloading Blob: " + faultMessage, e, "Error downloading Blob", false, true);
+                            return Status.CANCEL_STATUS;
+                        } 
                     } catch (IOException e) {
                         DefaultLoader.getUIHelper().showException("Error downloading Blob", e, "Error downloading Blob", false, true);
                         return Status.CANCEL_STATUS;
@@ -665,7 +715,6 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                 monitor.beginTask("Uploading blob...", IProgressMonitor.UNKNOWN);
                 try {
                     final BlobDirectory blobDirectory = directoryQueue.peekLast();
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
                     monitor.subTask("0% uploaded");
                     try {
                         final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
@@ -684,17 +733,10 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                                     connectionString,
                                     blobContainer,
                                     path,
-                                    bufferedInputStream,
-                                    callable,
-                                    1024 * 1024,
-                                    selectedFile.length());
+                                    selectedFile,
+                                    callable);
                         } catch (AzureCmdException e) {
                             e.printStackTrace();
-                        } finally {
-                            try {
-                                bufferedInputStream.close();
-                            } catch (IOException ignored) {
-                            }
                         }
 //                        while (!future.isDone()) {
 //                            Thread.sleep(500);
@@ -702,7 +744,6 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 
                         if (monitor.isCanceled()) {
 //                                future.cancel(true);
-                            bufferedInputStream.close();
 
                             for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
                                 if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
@@ -717,11 +758,24 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                             directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
                             for (String pathDir : path.split("/")) {
-                                for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.getLast())) {
-                                    if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
-                                        directoryQueue.addLast((BlobDirectory) blobItem);
+                                // only the items starting with the directory name are listed, not the whole parent
+                                PrefetchingPager<BlobItem> pager = StorageClientSDKManager.getManager().getBlobItemPager(
+                                        connectionString, directoryQueue.getLast(), pathDir, false, PAGE_SIZE);
+                                BlobDirectory found = null;
+
+                                while (found == null && pager.hasNextPage()) {
+                                    for (BlobItem blobItem : pager.nextPage()) {
+                                        if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
+                                            found = (BlobDirectory) blobItem;
+                                        }
                                     }
                                 }
+
+                                pager.close();
+
+                                if (found != null) {
+                                    directoryQueue.addLast(found);
+                                }
                             }
                         } catch (AzureCmdException e) {
                             DefaultLoader.getUIHelper().showException("Error showing new blob", e, "Error showing new blob", false, true);
@@ -766,7 +820,8 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
     public void setFocus() {
     }
 
-    private class BlobListContentProvider implements IStructuredContentProvider {
+    // the table is virtual: rows are only materialised when they are scrolled into view
+    private class BlobListContentProvider implements ILazyContentProvider {
         @Override
         public void dispose() {
         }
@@ -776,16 +831,27 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
         }
 
         @Override
-        public Object[] getElements(Object o) {
-            return blobItems.toArray();
+        public void updateElement(int index) {
+            if (index < blobItems.size()) {
+                tableViewer.replace(blobItems.get(index), index);
+            }
+
+            if (index >= blobItems.size() - LOAD_MORE_ROWS) {
+                loadNextPage();
+            }
         }
     }
 
     private class BlobListLabelProvider implements ITableLabelProvider {
+        private Image folderImage;
+
         @Override
         public Image getColumnImage(Object o, int i) {
             if (i == 0 && o instanceof BlobDirectory) {
-                return Activator.getImageDescriptor("icons/storagefolder.png").createImage();
+                if (folderImage == null) {
+                    folderImage = Activator.getImageDescriptor("icons/storagefolder.png").createImage();
+                }
+                return folderImage;
             }
             return null;
         }
@@ -827,6 +893,10 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 
         @Override
         public void dispose() {
+            if (folderImage != null) {
+                folderImage.dispose();
+                folderImage = null;
+            }
         }
 
         @Override
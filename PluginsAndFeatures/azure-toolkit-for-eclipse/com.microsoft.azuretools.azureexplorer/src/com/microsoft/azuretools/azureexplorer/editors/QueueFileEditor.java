@@ -19,10 +19,15 @@
  */
 package com.microsoft.azuretools.azureexplorer.editors;
 
+import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -42,6 +47,8 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Table;
 import org.eclipse.swt.widgets.TableColumn;
@@ -57,6 +64,7 @@ import com.microsoft.azuretools.azureexplorer.forms.QueueMessageForm;
 import com.microsoft.azuretools.azureexplorer.forms.ViewMessageForm;
 import com.microsoft.azuretools.azureexplorer.helpers.UIHelperImpl;
 import com.microsoft.azuretools.core.utils.PluginUtil;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
@@ -70,13 +78,22 @@ public class QueueFileEditor extends EditorPart {
 	private static final String REFRESH = "Refresh";
 	private static final String ADD = "Add";
 	private static final String CLEAR_QUEUE = "Clear queue";
+	private static final String ADD_FROM_FILE = "Add from file";
+	private static final String DEQUEUE_ALL = "Dequeue all";
+
+    // the longest time to live the service accepts for a message
+    private static final int MAX_TIME_TO_LIVE_SECONDS = 60 * 60 * 24 * 7;
 
     private ClientStorageAccount storageAccount;
+    private String connectionString;
     private Queue queue;
     private Button dequeueMessageButton;
     private Button refreshButton;
     private Button addMessageButton;
     private Button clearQueueButton;
+    private Button addFromFileButton;
+    private Button dequeueAllButton;
+    private Label messageCountLabel;
     private Table queueTable;
     private TableViewer tableViewer;
     private List<QueueMessage> queueMessages;
@@ -93,12 +110,13 @@ public class QueueFileEditor extends EditorPart {
 
     @Override
     public void init(IEditorSite site, IEditorInput input) throws PartInitException {
-/*        setSite(site);
+        setSite(site);
         setInput(input);
-        storageAccount = ((StorageEditorInput) input).getStorageAccount();
+//        storageAccount = ((StorageEditorInput) input).getStorageAccount();
+        connectionString = ((StorageEditorInput) input).getConnectionString();
         queue = (Queue) ((StorageEditorInput) input).getItem();
-        setPartName(queue.getName() + " [Queue]");*/
-    	fileEditorVirtualNode = createVirtualNode("");
+        setPartName(queue.getName() + " [Queue]");
+    	fileEditorVirtualNode = createVirtualNode(queue.getName());
     }
 
     @Override
@@ -162,9 +180,8 @@ public class QueueFileEditor extends EditorPart {
                 if (optionDialog) {
                     DefaultLoader.getIdeHelper().runInBackground(null, "Clearing queue messages", false, true, "Clearing queue messages", new Runnable() {
                         public void run() {
-                            /*try {
-
-                                StorageClientSDKManager.getManager().clearQueue(storageAccount, queue);
+                            try {
+                                StorageClientSDKManager.getManager().clearQueue(connectionString, queue);
 
                                 DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
                                     @Override
@@ -174,7 +191,7 @@ public class QueueFileEditor extends EditorPart {
                                 });
                             } catch (AzureCmdException e) {
                                 DefaultLoader.getUIHelper().showException("Error clearing queue messages", e, "Service Explorer", false, true);
-                            }*/
+                            }
                         }
                     });
                 }	
@@ -187,6 +204,26 @@ public class QueueFileEditor extends EditorPart {
 				viewMessageText();				
 			}
 		});
+
+    	node.addAction(ADD_FROM_FILE, new NodeActionListener() {
+			@Override
+			protected void actionPerformed(NodeActionEvent e) throws AzureCmdException {
+				FileDialog dialog = new FileDialog(PluginUtil.getParentShell(), SWT.OPEN);
+				dialog.setText("Add one message per line");
+				String path = dialog.open();
+
+				if (path != null) {
+					addMessagesFromFile(new File(path));
+				}
+			}
+		});
+
+    	node.addAction(DEQUEUE_ALL, new NodeActionListener() {
+			@Override
+			protected void actionPerformed(NodeActionEvent e) throws AzureCmdException {
+				dequeueAllMessages();
+			}
+		});
     	
     	return node;
     }
@@ -226,6 +263,16 @@ public class QueueFileEditor extends EditorPart {
         clearQueueButton.setImage(Activator.getImageDescriptor("icons/clearqueue.png").createImage());
         clearQueueButton.setToolTipText("Clear queue");
 
+        addFromFileButton = new Button(buttonsContainer, SWT.PUSH);
+        addFromFileButton.setText("Add From File");
+        addFromFileButton.setToolTipText("Add one message per line of a text file");
+
+        dequeueAllButton = new Button(buttonsContainer, SWT.PUSH);
+        dequeueAllButton.setText("Dequeue All");
+        dequeueAllButton.setToolTipText("Dequeue every message in the queue");
+
+        messageCountLabel = new Label(buttonsContainer, SWT.NONE);
+
         refreshButton.addSelectionListener(new SelectionAdapter() {
             @Override
             public void widgetSelected(SelectionEvent e) {
@@ -250,6 +297,18 @@ public class QueueFileEditor extends EditorPart {
             	fileEditorVirtualNode.doAction(CLEAR_QUEUE);
             }
         });
+        addFromFileButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+            	fileEditorVirtualNode.doAction(ADD_FROM_FILE);
+            }
+        });
+        dequeueAllButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+            	fileEditorVirtualNode.doAction(DEQUEUE_ALL);
+            }
+        });
     }
 
     private void createTable(Composite parent) {
@@ -314,21 +373,28 @@ public class QueueFileEditor extends EditorPart {
     public void fillGrid() {
         DefaultLoader.getIdeHelper().runInBackground(null, "Loading queue messages", false, true, "Loading queue messages", new Runnable() {
             public void run() {
-                /*try {
-                    queueMessages = StorageClientSDKManager.getManager().getQueueMessages(storageAccount, queue);
+                try {
+                    queueMessages = StorageClientSDKManager.getManager().getQueueMessages(connectionString, queue);
+                    final long messageCount = StorageClientSDKManager.getManager().getApproximateMessageCount(connectionString, queue);
 
                     DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
                         @Override
                         public void run() {
+                            if (queueTable.isDisposed()) {
+                                return;
+                            }
+                            messageCountLabel.setText(String.format("About %d messages", messageCount));
+                            messageCountLabel.getParent().layout();
                             clearQueueButton.setEnabled(queueMessages.size() != 0);
                             dequeueMessageButton.setEnabled(queueMessages.size() != 0);
+                            dequeueAllButton.setEnabled(queueMessages.size() != 0);
                             tableViewer.setInput(queueMessages);
                         }
                     });
 
                 } catch (AzureCmdException e) {
                     DefaultLoader.getUIHelper().showException("Error getting queue messages", e, "Service Explorer", false, true);
-                }*/
+                }
             }
         });
     }
@@ -340,8 +406,8 @@ public class QueueFileEditor extends EditorPart {
                 new String[] {"Yes", "No"}, null)) {
             DefaultLoader.getIdeHelper().runInBackground(null, "Dequeuing message", false, true, "Dequeuing message", new Runnable() {
                 public void run() {
-                    /*try {
-                        StorageClientSDKManager.getManager().dequeueFirstQueueMessage(storageAccount, queue);
+                    try {
+                        StorageClientSDKManager.getManager().dequeueFirstQueueMessage(connectionString, queue);
 
                         DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
                             @Override
@@ -351,12 +417,102 @@ public class QueueFileEditor extends EditorPart {
                         });
                     } catch (AzureCmdException e) {
                         DefaultLoader.getUIHelper().showException("Error dequeuing messages", e, "Service Explorer", false, true);
-                    }*/
+                    }
                 }
             });
         }
     }
 
+    private void dequeueAllMessages() {
+        if (!DefaultLoader.getUIHelper().showConfirmation(
+                "Are you sure you want to dequeue all the messages in the queue?",
+                "Service Explorer",
+                new String[] {"Yes", "No"}, null)) {
+            return;
+        }
+
+        Job job = new Job("Dequeuing messages") {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                try {
+                    long messageCount = StorageClientSDKManager.getManager().getApproximateMessageCount(connectionString, queue);
+                    monitor.beginTask("Dequeuing messages", messageCount > 0 ? (int) Math.min(messageCount, Integer.MAX_VALUE) : IProgressMonitor.UNKNOWN);
+
+                    StorageClientSDKManager.getManager().drainQueueMessages(connectionString, queue, Integer.MAX_VALUE,
+                            new CallableSingleArg<Void, Integer>() {
+                                @Override
+                                public Void call(Integer dequeued) throws Exception {
+                                    // stops the remaining requests when the user cancels
+                                    if (monitor.isCanceled()) {
+                                        throw new OperationCanceledException();
+                                    }
+                                    monitor.worked(1);
+                                    monitor.subTask(String.format("%d messages dequeued", dequeued));
+
+                                    return null;
+                                }
+                            });
+                    return Status.OK_STATUS;
+                } catch (AzureCmdException e) {
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    DefaultLoader.getUIHelper().showException("Error dequeuing messages", e, "Service Explorer", false, true);
+                    return Status.CANCEL_STATUS;
+                } finally {
+                    monitor.done();
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            fillGrid();
+                        }
+                    });
+                }
+            }
+        };
+        job.schedule();
+    }
+
+    private void addMessagesFromFile(final File file) {
+        Job job = new Job("Adding messages") {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                monitor.beginTask("Adding messages", IProgressMonitor.UNKNOWN);
+                try {
+                    StorageClientSDKManager.getManager().createQueueMessages(connectionString, queue, file, MAX_TIME_TO_LIVE_SECONDS,
+                            new CallableSingleArg<Void, Integer>() {
+                                @Override
+                                public Void call(Integer added) throws Exception {
+                                    // stops the remaining requests when the user cancels
+                                    if (monitor.isCanceled()) {
+                                        throw new OperationCanceledException();
+                                    }
+                                    monitor.subTask(String.format("%d messages added", added));
+
+                                    return null;
+                                }
+                            });
+                    return Status.OK_STATUS;
+                } catch (AzureCmdException e) {
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    DefaultLoader.getUIHelper().showException("Error adding messages", e, "Service Explorer", false, true);
+                    return Status.CANCEL_STATUS;
+                } finally {
+                    monitor.done();
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            fillGrid();
+                        }
+                    });
+                }
+            }
+        };
+        job.schedule();
+    }
+
     private void viewMessageText() {
         QueueMessage message = (QueueMessage) ((IStructuredSelection) tableViewer.getSelection()).getFirstElement();
         ViewMessageForm viewMessageForm = new ViewMessageForm(PluginUtil.getParentShell(), message.getContent());
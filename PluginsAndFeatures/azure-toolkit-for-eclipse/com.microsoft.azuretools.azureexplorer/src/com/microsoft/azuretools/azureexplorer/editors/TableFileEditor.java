@@ -22,16 +22,19 @@ package com.microsoft.azuretools.azureexplorer.editors;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.ILabelProviderListener;
-import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.ITableLabelProvider;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.Viewer;
@@ -45,6 +48,7 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IEditorInput;
@@ -58,9 +62,11 @@ import com.microsoft.azuretools.azureexplorer.Activator;
 import com.microsoft.azuretools.azureexplorer.forms.TableEntityForm;
 import com.microsoft.azuretools.core.utils.PluginUtil;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.PrefetchingPager;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Table;
+import com.microsoft.tooling.msservices.model.storage.TableBatchResult;
 import com.microsoft.tooling.msservices.model.storage.TableEntity;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
@@ -74,7 +80,12 @@ public class TableFileEditor extends EditorPart {
 	private static final String DELETE = "Delete";
 	private static final String REFRESH = "Refresh";
 
+    private static final int PAGE_SIZE = 500;
+    // start loading the next page when the table asks for a row within this many rows of the end of the list
+    private static final int LOAD_MORE_ROWS = 100;
+
     private ClientStorageAccount storageAccount;
+    private String connectionString;
     private Table table;
     private Button refreshButton;
 //    private Button newEntityButton;
@@ -83,8 +94,12 @@ public class TableFileEditor extends EditorPart {
     private Button queryButton;
 //    private Button queryDesignerButton;
     private org.eclipse.swt.widgets.Table entitiesTable;
+    private Label entityCountLabel;
     private TableViewer tableViewer;
     private List<TableEntity> tableEntities;
+    private PrefetchingPager<TableEntity> tableEntityPager;
+    private boolean loadingPage;
+    private long entityCount = -1;
     private Map<String, List<String>> columnData;
     private List<String> data;
     
@@ -103,6 +118,7 @@ public class TableFileEditor extends EditorPart {
         setSite(site);
         setInput(input);
 //        storageAccount = ((StorageEditorInput) input).getStorageAccount();
+        connectionString = ((StorageEditorInput) input).getConnectionString();
         table = (Table) ((StorageEditorInput) input).getItem();
         setPartName(table.getName() + " [Table]");
         fileEditorVirtualNode = createVirtualNode(table.getName());
@@ -147,7 +163,7 @@ public class TableFileEditor extends EditorPart {
     }
 
     private void createToolbar(Composite parent) {
-        GridLayout gridLayout = new GridLayout(2, false);
+        GridLayout gridLayout = new GridLayout(3, false);
         GridData gridData = new GridData();
         gridData.horizontalAlignment = SWT.FILL;
         gridData.grabExcessHorizontalSpace = true;
@@ -185,6 +201,9 @@ public class TableFileEditor extends EditorPart {
 
 //        queryDesignerButton = new Button(buttonsContainer, SWT.PUSH);
 //        queryDesignerButton.setImage(Activator.getImageDescriptor("icons/query_builder.png").createImage());
+
+        entityCountLabel = new Label(container, SWT.RIGHT);
+        entityCountLabel.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, false, false));
         SelectionListener queryActionListener = new SelectionAdapter() {
             @Override
             public void widgetSelected(SelectionEvent e) {
@@ -253,19 +272,133 @@ public class TableFileEditor extends EditorPart {
     public void fillGrid() {
         final String queryText = queryTextField.getText();
 
+        if (tableEntityPager != null) {
+            tableEntityPager.close();
+            tableEntityPager = null;
+        }
+
         DefaultLoader.getIdeHelper().runInBackground(null, "Loading entities", false, true, "Loading entities", new Runnable() {
             public void run() {
-                /*try {
-                    tableEntities = StorageClientSDKManager.getManager().getTableEntities(storageAccount, table, queryText);
+                try {
+                    final PrefetchingPager<TableEntity> pager = StorageClientSDKManager.getManager().getTableEntityPager(
+                            connectionString, table, queryText, PAGE_SIZE);
+                    final List<TableEntity> firstPage = pager.nextPage();
+
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            tableEntityPager = pager;
+                            loadingPage = false;
+                            tableEntities = new ArrayList<TableEntity>(firstPage);
+
+                            refreshGrid();
+
+                            if (pager.hasNextPage()) {
+                                countEntities(pager, queryText);
+                            } else {
+                                setEntityCount(firstPage.size());
+                            }
+                        }
+                    });
+                } catch (AzureCmdException e) {
+                    DefaultLoader.getUIHelper().showException("Error querying entities", e, "Service Explorer", false, true);
+                }
+            }
+        });
+    }
+
+    private void countEntities(final PrefetchingPager<TableEntity> pager, final String queryText) {
+        entityCount = -1;
+        entityCountLabel.setText("Counting entities...");
+        entityCountLabel.getParent().layout();
+
+        // only the keys are counted, the entities themselves are loaded page by page as the user scrolls
+        DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                long count = -1;
+                try {
+                    count = StorageClientSDKManager.getManager().countTableEntities(connectionString, table, queryText);
+                } catch (AzureCmdException ignored) {
+                    // the count is informational, the entities are still listed without it
+                }
 
-                    refreshGrid();
+                final long result = count;
+                DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pager == tableEntityPager && !entityCountLabel.isDisposed()) {
+                            setEntityCount(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void setEntityCount(long count) {
+        entityCount = count;
+        entityCountLabel.setText(count < 0 ? "" : String.format("%d entities", count));
+        entityCountLabel.getParent().layout();
+    }
+
+    private void loadNextPage() {
+        final PrefetchingPager<TableEntity> pager = tableEntityPager;
+
+        if (pager == null || loadingPage || !pager.hasNextPage()) {
+            return;
+        }
+
+        loadingPage = true;
+
+        // the pager has usually fetched this page already, so it is appended without a progress dialog
+        DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final List<TableEntity> page = pager.nextPage();
+
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (pager == tableEntityPager && !entitiesTable.isDisposed()) {
+                                tableEntities.addAll(page);
+
+                                // only rebuild the columns when the new entities bring properties not shown yet
+                                if (hasNewColumns(page)) {
+                                    refreshGrid();
+                                } else {
+                                    tableViewer.setItemCount(tableEntities.size());
+                                }
+
+                                loadingPage = false;
+                            }
+                        }
+                    });
                 } catch (AzureCmdException e) {
+                    DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadingPage = false;
+                        }
+                    });
+
                     DefaultLoader.getUIHelper().showException("Error querying entities", e, "Service Explorer", false, true);
-                }*/
+                }
             }
         });
     }
 
+    private boolean hasNewColumns(@NotNull List<TableEntity> entities) {
+        for (TableEntity tableEntity : entities) {
+            if (!data.containsAll(tableEntity.getProperties().keySet())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private void refreshGrid() {
         DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
             @Override
@@ -316,6 +449,7 @@ public class TableFileEditor extends EditorPart {
                 entitiesTable.setRedraw(true);
 
                 tableViewer.setInput(tableEntities);
+                tableViewer.setItemCount(tableEntities.size());
             }
         });
     }
@@ -327,27 +461,44 @@ public class TableFileEditor extends EditorPart {
             @Override
             protected IStatus run(IProgressMonitor monitor) {
                 monitor.beginTask("Deleting entities", IProgressMonitor.UNKNOWN);
-//                try {
+                try {
                     if (selectedEntities != null) {
-                        for (int i = 0; i < selectedEntities.length; i++) {
-                            monitor.worked(i * 100 / selectedEntities.length);
+                        final TableBatchResult result = StorageClientSDKManager.getManager().deleteTableEntities(
+                                connectionString, Arrays.asList(selectedEntities));
 
-//                            StorageClientSDKManager.getManager().deleteTableEntity(storageAccount, selectedEntities[i]);
-                        }
                         DefaultLoader.getIdeHelper().invokeLater(new Runnable() {
                             @Override
                             public void run() {
-                                tableEntities.removeAll(Arrays.asList(selectedEntities));
-
+                                Set<TableEntity> deleted = Collections.newSetFromMap(new IdentityHashMap<TableEntity, Boolean>());
+                                deleted.addAll(result.getSucceeded());
+
+                                List<TableEntity> remaining = new ArrayList<TableEntity>(tableEntities.size());
+                                for (TableEntity tableEntity : tableEntities) {
+                                    if (!deleted.contains(tableEntity)) {
+                                        remaining.add(tableEntity);
+                                    }
+                                }
+
+                                tableEntities = remaining;
+                                if (entityCount >= 0) {
+                                    setEntityCount(entityCount - result.getSucceeded().size());
+                                }
+                                deleteButton.setEnabled(false);
                                 refreshGrid();
                             }
                         });
+
+                        if (!result.isSuccessful()) {
+                            DefaultLoader.getUIHelper().showException(String.format("%d of %d entities could not be deleted",
+                                    result.getFailed().size(), selectedEntities.length),
+                                    result.getFailed().values().iterator().next(), "Service Explorer", false, true);
+                        }
                     }
                     return Status.OK_STATUS;
-//                } catch (AzureCmdException ex) {
-//                    DefaultLoader.getUIHelper().showException("Error deleting entities", ex, "Service Explorer", false, true);
-//                    return Status.CANCEL_STATUS;
-//                }
+                } catch (AzureCmdException ex) {
+                    DefaultLoader.getUIHelper().showException("Error deleting entities", ex, "Service Explorer", false, true);
+                    return Status.CANCEL_STATUS;
+                }
             }
         };
         job.schedule();
@@ -358,34 +509,14 @@ public class TableFileEditor extends EditorPart {
             return null;
         }
 
-        int partitionIdIndex = -1;
-        int rowIdIndex = -1;
-
-//        for (int i = 0; i < entitiesTable.getColumnCount(); i++) {
-//            String columnName = entitiesTable.getColumnName(i);
-//
-//            if (columnName.equals(PARTITION_KEY)) {
-//                partitionIdIndex = i;
-//            }
-//
-//            if (columnName.equals(ROW_KEY)) {
-//                rowIdIndex = i;
-//            }
-//        }
-
         ArrayList<TableEntity> selectedEntities = new ArrayList<TableEntity>();
 
-//        for (int i : entitiesTable.getSelectedRows()) {
-//            for (TableEntity tableEntity : tableEntities) {
-//                String partitionValue = entitiesTable.getValueAt(i, partitionIdIndex).toString();
-//                String rowIdValue = entitiesTable.getValueAt(i, rowIdIndex).toString();
-//
-//                if (tableEntity.getPartitionKey().equals(partitionValue)
-//                        && tableEntity.getRowKey().equals(rowIdValue)) {
-//                    selectedEntities.add(tableEntity);
-//                }
-//            }
-//        }
+        // the virtual table shows one row per entity, in list order
+        for (int i : entitiesTable.getSelectionIndices()) {
+            if (i < tableEntities.size()) {
+                selectedEntities.add(tableEntities.get(i));
+            }
+        }
 
         return selectedEntities.toArray(new TableEntity[selectedEntities.size()]);
     }
@@ -416,7 +547,7 @@ public class TableFileEditor extends EditorPart {
     }
 
     private void createTable(Composite parent) {
-        entitiesTable = new org.eclipse.swt.widgets.Table(parent, SWT.MULTI | SWT.BORDER | SWT.FULL_SELECTION);
+        entitiesTable = new org.eclipse.swt.widgets.Table(parent, SWT.MULTI | SWT.BORDER | SWT.FULL_SELECTION | SWT.VIRTUAL);
 
         entitiesTable.setHeaderVisible(true);
         entitiesTable.setLinesVisible(true);
@@ -426,6 +557,12 @@ public class TableFileEditor extends EditorPart {
         gridData.grabExcessVerticalSpace = true;
         gridData.grabExcessHorizontalSpace = true;
         entitiesTable.setLayoutData(gridData);
+        entitiesTable.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent e) {
+                deleteButton.setEnabled(entitiesTable.getSelectionCount() > 0);
+            }
+        });
 
         tableViewer = new TableViewer(entitiesTable);
         tableViewer.setUseHashlookup(true);
@@ -440,7 +577,17 @@ public class TableFileEditor extends EditorPart {
 
     }
 
-    private class TableContentProvider implements IStructuredContentProvider {
+    @Override
+    public void dispose() {
+        if (tableEntityPager != null) {
+            tableEntityPager.close();
+            tableEntityPager = null;
+        }
+
+        super.dispose();
+    }
+
+    private class TableContentProvider implements ILazyContentProvider {
         public void dispose() {
 
         }
@@ -449,8 +596,14 @@ public class TableFileEditor extends EditorPart {
 
         }
 
-        public Object[] getElements(Object o) {
-            return tableEntities.toArray();
+        public void updateElement(int index) {
+            if (index < tableEntities.size()) {
+                tableViewer.replace(tableEntities.get(index), index);
+            }
+
+            if (index >= tableEntities.size() - LOAD_MORE_ROWS) {
+                loadNextPage();
+            }
         }
     }
 
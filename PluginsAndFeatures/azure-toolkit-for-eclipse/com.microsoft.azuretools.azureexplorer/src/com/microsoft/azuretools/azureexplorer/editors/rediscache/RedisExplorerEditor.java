@@ -27,11 +27,13 @@ import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
 import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
 import com.microsoft.azuretools.azureexplorer.Activator;
 import com.microsoft.azuretools.core.components.AzureListenerWrapper;
+import com.microsoft.azuretools.core.mvp.model.rediscache.RedisKeyMetadata;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.rediscache.RedisExplorerMvpView;
 import com.microsoft.tooling.msservices.serviceexplorer.azure.rediscache.RedisExplorerPresenter;
 
+import java.util.ArrayList;
 import java.util.Collections;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -75,6 +77,14 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     // Local variables
     private String currentCursor;
     private String lastChosenKey;
+    // Keys shown in lstKey, by index, since the list items also carry the key metadata.
+    private final java.util.List<String> listedKeys = new ArrayList<>();
+    private String valueKey;
+    private RedisKeyType valueType;
+    private String valueCursor;
+    private boolean loadingValue;
+    // Changes whenever another value is shown, so pages loaded for an earlier one are dropped.
+    private long valueGeneration;
 
     // Constants
     private static final String[] LIST_TITLE = new String[] { "Index", "Item" };
@@ -85,6 +95,8 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     private static final String DEFAULT_SCAN_PATTERN = "*";
     private static final String ACTION_GET = "GET";
     private static final String ACTION_SCAN = "SCAN";
+    private static final String KEY_WITH_METADATA_FORMAT = "%s  (%s)";
+    private static final int LOAD_MORE_ROWS = 100;
 
     private static final int NO_MARGIN = 0;
     private static final int PROGRESS_MARGIN_TOP = 2;
@@ -220,6 +232,14 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
         tblInnerValue.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 1, 1));
         tblInnerValue.setHeaderVisible(true);
         tblInnerValue.setLinesVisible(true);
+        if (tblInnerValue.getVerticalBar() != null) {
+            tblInnerValue.getVerticalBar().addListener(SWT.Selection, event -> {
+                int visibleRows = tblInnerValue.getClientArea().height / Math.max(1, tblInnerValue.getItemHeight());
+                if (tblInnerValue.getTopIndex() + visibleRows >= tblInnerValue.getItemCount() - LOAD_MORE_ROWS) {
+                    loadMoreValue();
+                }
+            });
+        }
 
         cmpoStringValue = new Composite(cmpoValue, SWT.NONE);
         cmpoStringValue.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true, 2, 1));
@@ -266,7 +286,7 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
         lstKey.addListener(SWT.Selection, new AzureListenerWrapper(INSIGHT_NAME, "lstKey", null) {
             @Override
             protected void handleEventFunc(Event event) {
-                String selectedKey = lstKey.getItem(lstKey.getSelectionIndex());
+                String selectedKey = listedKeys.get(lstKey.getSelectionIndex());
                 if (selectedKey.equals(lastChosenKey)) {
                     return;
                 }
@@ -327,10 +347,13 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     @Override
     public void showScanResult(RedisScanResult result) {
         lstKey.removeAll();
+        listedKeys.clear();
         java.util.List<String> keys = result.getKeys();
         Collections.sort(keys);
         for (String key : keys) {
-            lstKey.add(key);
+            RedisKeyMetadata metadata = result.getKeyMetadata(key);
+            lstKey.add(metadata == null ? key : String.format(KEY_WITH_METADATA_FORMAT, key, metadata.getSummary()));
+            listedKeys.add(key);
         }
         currentCursor = result.getNextCursor();
         setWidgetEnableStatus(true);
@@ -340,7 +363,9 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     @Override
     public void updateKeyList() {
         lstKey.removeAll();
+        listedKeys.clear();
         lstKey.add(txtKeyPattern.getText());
+        listedKeys.add(txtKeyPattern.getText());
         lstKey.select(0);
     }
 
@@ -348,7 +373,12 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     public void showContent(RedisValueData val) {
         RedisKeyType type = val.getKeyType();
         lblTypeValue.setText(type.toString());
-        lblKeyValue.setText(lstKey.getItem(lstKey.getSelectionIndex()));
+        lblKeyValue.setText(listedKeys.get(lstKey.getSelectionIndex()));
+        valueKey = listedKeys.get(lstKey.getSelectionIndex());
+        valueGeneration++;
+        valueType = type;
+        valueCursor = val.hasMore() ? val.getNextCursor() : null;
+        loadingValue = false;
         if (type.equals(RedisKeyType.STRING)) {
             if (val.getRowData().size() > 0 && val.getRowData().get(0).length > 0) {
                 txtStringValue.setText(val.getRowData().get(0)[0]);
@@ -401,21 +431,40 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
         setWidgetEnableStatus(true);
     }
 
+    @Override
+    public void appendContent(long generation, RedisValueData val) {
+        if (tblInnerValue.isDisposed() || generation != valueGeneration) {
+            // The page belongs to a value that is no longer shown, even if it has the same key.
+            return;
+        }
+        loadingValue = false;
+        tblInnerValue.setRedraw(false);
+        for (String[] data : val.getRowData()) {
+            TableItem item = new TableItem(tblInnerValue, SWT.NONE);
+            item.setText(data);
+        }
+        tblInnerValue.setRedraw(true);
+        valueCursor = val.hasMore() ? val.getNextCursor() : null;
+    }
+
     @Override
     public void onErrorWithException(String message, Exception ex) {
         RedisExplorerMvpView.super.onErrorWithException(message, ex);
+        loadingValue = false;
         setWidgetEnableStatus(true);
     }
 
     @Override
     public void onError(String message) {
         RedisExplorerMvpView.super.onError(message);
+        loadingValue = false;
         setWidgetEnableStatus(true);
     }
 
     @Override
     public void getKeyFail() {
         lstKey.removeAll();
+        listedKeys.clear();
         setWidgetEnableStatus(true);
         clearValueArea();
     }
@@ -477,6 +526,15 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
         super.dispose();
     }
 
+    private void loadMoreValue() {
+        if (loadingValue || valueKey == null || valueCursor == null || !cmpoInnerValue.isVisible()) {
+            return;
+        }
+        loadingValue = true;
+        redisExplorerPresenter.onLoadMoreValue(cbDatabase.getSelectionIndex(), valueKey, valueType, valueCursor,
+                valueGeneration);
+    }
+
     private void onDataBaseSelect() {
         redisExplorerPresenter.onDbSelect(cbDatabase.getSelectionIndex());
     }
@@ -500,6 +558,8 @@ public class RedisExplorerEditor extends EditorPart implements RedisExplorerMvpV
     }
 
     private void clearValueArea() {
+        valueKey = null;
+        valueGeneration++;
         lblKeyValue.setText("");
         lblTypeValue.setText("");
         cmpoInnerValue.setVisible(false);
@@ -26,17 +26,16 @@ import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import com.google.common.base.Joiner;
-import com.google.common.reflect.TypeToken;
-import com.google.gson.Gson;
 import com.jcraft.jsch.ChannelSftp;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
@@ -46,13 +45,11 @@ import com.microsoft.azure.hdinsight.common.StreamUtil;
 import com.microsoft.azure.hdinsight.sdk.cluster.EmulatorClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.IHDIStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountTypeEnum;
+import com.microsoft.azure.hdinsight.spark.common.SparkBatchLogTailer;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
-import com.microsoft.azure.hdinsight.spark.common.SparkJobLog;
-import com.microsoft.azure.hdinsight.spark.common.SparkSubmitResponse;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
@@ -66,17 +63,18 @@ import com.microsoft.azuretools.hdinsight.Activator;
 import com.microsoft.azuretools.hdinsight.common2.HDInsightUtil;
 import com.microsoft.azuretools.core.utils.Messages;
 
+import rx.Observable;
+
 public class SparkSubmitHelper {
 	private static SparkSubmitHelper ourInstance = new SparkSubmitHelper();
 
-	private static final int MAX_INTERVAL_TIME = 5000;
-	private static final int MIN_INTERVAL_TIME = 1000;
-	private static final int INC_TIME = 100;
+	private static final int KILL_CHECK_INTERVAL_TIME = 1000;
+	private static final int MAX_FAILED_REASON_LENGTH = 50;
 
 	private static final String APPLICATION_ID_PATTERN = "Application report for ([^ ]*) \\(state: ACCEPTED\\)";
 	public static final String HELP_LINK = "http://go.microsoft.com/fwlink/?LinkID=722349&clcid=0x409";
 
-	private SparkJobLog sparkJobLog;
+	private List<String> sparkJobLogLines;
 
 	public static SparkSubmitHelper getInstance() {
 		return ourInstance;
@@ -88,7 +86,7 @@ public class SparkSubmitHelper {
 	private String JobLogFolderName = "SparkJobLog";
 
 	public String writeLogToLocalFile(/* @NotNull Project project */) throws IOException {
-		if (sparkJobLog == null) {
+		if (sparkJobLogLines == null) {
 			return null;
 		}
 
@@ -110,7 +108,7 @@ public class SparkSubmitHelper {
 
 			logFileWrite = new FileWriter(fullFileName);
 			bufferedWriter = new BufferedWriter(logFileWrite);
-			for (String str : sparkJobLog.getLog()) {
+			for (String str : sparkJobLogLines) {
 				bufferedWriter.write(str);
 				bufferedWriter.newLine();
 			}
@@ -131,72 +129,39 @@ public class SparkSubmitHelper {
 	public void printRunningLogStreamingly(/* Project project, */ int id, IClusterDetail clusterDetail,
 			Map<String, String> postEventProperty) throws IOException {
 		try {
-			boolean isFailedJob = false;
-			boolean isKilledJob = false;
+			SparkBatchLogTailer tailer = new SparkBatchLogTailer(SparkBatchSubmission.getInstance(),
+					getLivyConnectionURL(clusterDetail), id);
+			List<String> logLines = new ArrayList<>();
+			sparkJobLogLines = logLines;
 
-			int from_index = 0;
-			int pre_index;
-			int times = 0;
 			HDInsightUtil.getSparkSubmissionToolWindowView()
 					.setInfo("======================Begin printing out spark job log.=======================");
-			while (true) {
-				pre_index = from_index;
-				if (HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
-					isKilledJob = true;
-					break;
-				}
-
-				from_index = printoutJobLog(/* project, */id, from_index, clusterDetail);
-				HttpResponse statusHttpResponse = SparkBatchSubmission.getInstance()
-						.getBatchSparkJobStatus(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-
-				SparkSubmitResponse status = new Gson().fromJson(statusHttpResponse.getMessage(),
-						new TypeToken<SparkSubmitResponse>() {
-						}.getType());
-
-				// only the lines of the log are same between two http requests,
-				// we try to get the job status
-				if (from_index == pre_index) {
-					String finalStatus = status.getState().toLowerCase();
-					if (finalStatus.equals("error") || finalStatus.equals("success") || finalStatus.equals("dead")) {
-						if (finalStatus.equals("error") || finalStatus.equals("dead")) {
-							isFailedJob = true;
-						}
-
-						if (!HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
-							printoutJobLog(id, from_index, clusterDetail);
-							HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(
-									"======================Finish printing out spark job log.=======================");
-						} else {
-							isKilledJob = true;
-						}
-						break;
-					}
-				}
-
-				Thread.sleep(getIntervalTime(times));
-				times++;
-			}
-
-			if (isKilledJob) {
+			tailer.tail()
+					.takeUntil(Observable.interval(KILL_CHECK_INTERVAL_TIME, TimeUnit.MILLISECONDS)
+							.filter(ignore -> HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager()
+									.isJobKilled()))
+					.toBlocking()
+					.forEach(line -> {
+						logLines.add(line);
+						printoutJobLogLine(line);
+					});
+
+			if (HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isJobKilled()) {
 				postEventProperty.put("IsKilled", "true");
 				AppInsightsClient.create(Messages.SparkSubmissionButtonClickEvent,
 						Activator.getDefault().getBundle().getVersion().toString(), postEventProperty);
 				return;
 			}
 
-			if (isFailedJob) {
+			HDInsightUtil.getSparkSubmissionToolWindowView()
+					.setInfo("======================Finish printing out spark job log.=======================");
+
+			if (SparkBatchLogTailer.isFailedState(tailer.getState())) {
 				postEventProperty.put("IsRunningSucceed", "false");
-                HttpResponse httpResponse = SparkBatchSubmission.getInstance()
-                        .getBatchJobFullLog(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-                SparkSubmitResponse submitStatus = new Gson().fromJson(httpResponse.getMessage(),
-                        new TypeToken<SparkSubmitResponse>() {
-                        }.getType());
-                if (submitStatus != null && submitStatus.getLog() != null && submitStatus.getLog().size() > 0) {
-                    List<String> logs = submitStatus.getLog();
-                    postEventProperty.put("SubmitFailedReason", logs.get(logs.size() - 1).substring(0, 50));
-                }
-				
+				if (logLines.size() > 0) {
+					postEventProperty.put("SubmitFailedReason", truncate(logLines.get(logLines.size() - 1)));
+				}
+
 				HDInsightUtil.getSparkSubmissionToolWindowView().setError("Error : Your submitted job run failed");
 			} else {
 				postEventProperty.put("IsRunningSucceed", "true");
@@ -211,7 +176,7 @@ public class SparkSubmitHelper {
 				HDInsightUtil.getSparkSubmissionToolWindowView()
 						.setError("Error : Failed to getting running log. Exception : " + e.toString());
 
-				postEventProperty.put("SubmitFailedReason", e.toString().substring(0, 50));
+				postEventProperty.put("SubmitFailedReason", truncate(e.toString()));
 			} else {
 				postEventProperty.put("IsKilled", "true");
 			}
@@ -224,35 +189,31 @@ public class SparkSubmitHelper {
 			String defaultContainerName, String uploadFolderPath) throws Exception {
 		final File file = new File(localFile);
 		if (storageAccount.getAccountType() == StorageAccountTypeEnum.BLOB) {
-			try (FileInputStream fileInputStream = new FileInputStream(file)) {
-				try (BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-					final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-						@Override
-						public Void call(Long uploadedBytes) throws Exception {
-							double progress = ((double) uploadedBytes) / file.length();
-							return null;
-						}
-					};
+			final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+				@Override
+				public Void call(Long uploadedBytes) throws Exception {
+					double progress = ((double) uploadedBytes) / file.length();
+					return null;
+				}
+			};
 
-					HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-					BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount,
-							defaultContainerName);
-					String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-					String uploadedPath = String.format("wasb://%s@%s/%s", defaultContainerName,
-							blobStorageAccount.getFullStorageBlobName(), path);
+			HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+			BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount,
+					defaultContainerName);
+			String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
+			String uploadedPath = String.format("wasb://%s@%s/%s", defaultContainerName,
+					blobStorageAccount.getFullStorageBlobName(), path);
 
-					HDInsightUtil.showInfoOnSubmissionMessageWindow(
-							String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...",
-									localFile, uploadedPath));
+			HDInsightUtil.showInfoOnSubmissionMessageWindow(
+					String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...",
+							localFile, uploadedPath));
 
-					StorageClientSDKManager.getManager().uploadBlobFileContent(blobStorageAccount.getConnectionString(),
-							defaultContainer, path, bufferedInputStream, callable, 1024 * 1024, file.length());
+			StorageClientSDKManager.getManager().uploadBlobFileContent(blobStorageAccount.getConnectionString(),
+					defaultContainer, path, file, callable);
 
-					HDInsightUtil.showInfoOnSubmissionMessageWindow(
-							String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
-					return uploadedPath;
-				}
-			}
+			HDInsightUtil.showInfoOnSubmissionMessageWindow(
+					String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
+			return uploadedPath;
 		} else if (storageAccount.getAccountType() == StorageAccountTypeEnum.ADLS) {
 			String uploadPath = String.format("adl://%s.azuredatalakestore.net/%s/%s", storageAccount.getName(),
 					storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
@@ -267,16 +228,9 @@ public class SparkSubmitHelper {
 		}
 	}
 
-	private int printoutJobLog(/* Project project, */ int id, int from_index, IClusterDetail clusterDetail)
-			throws IOException {
-		HttpResponse httpResponse = SparkBatchSubmission.getInstance()
-				.getBatchJobFullLog(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-		sparkJobLog = new Gson().fromJson(httpResponse.getMessage(), new TypeToken<SparkJobLog>() {
-		}.getType());
-
+	private void printoutJobLogLine(/* Project project, */ String line) {
 		if (!HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().isApplicationGenerated()) {
-			String sparkLogs = Joiner.on("").join(sparkJobLog.getLog());
-			String applicationId = getApplicationIdFromYarnLog(sparkLogs);
+			String applicationId = getApplicationIdFromYarnLog(line);
 			if (applicationId != null) {
 				HDInsightUtil.getSparkSubmissionToolWindowView().setBrowserButtonState(true);
 				HDInsightUtil.getSparkSubmissionToolWindowView().getJobStatusManager().setApplicationIdGenerated();
@@ -284,18 +238,13 @@ public class SparkSubmitHelper {
 			}
 		}
 
-		int counter = 0;
-		if (sparkJobLog.getLog().size() > 0) {
-			for (String line : sparkJobLog.getLog()) {
-				if (counter >= from_index && !StringHelper.isNullOrWhiteSpace(line)) {
-					HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(line, true);
-				}
-
-				counter++;
-			}
+		if (!StringHelper.isNullOrWhiteSpace(line)) {
+			HDInsightUtil.getSparkSubmissionToolWindowView().setInfo(line, true);
 		}
+	}
 
-		return sparkJobLog.getTotal();
+	private static String truncate(String message) {
+		return message.length() > MAX_FAILED_REASON_LENGTH ? message.substring(0, MAX_FAILED_REASON_LENGTH) : message;
 	}
 
 	private BlobContainer getSparkClusterDefaultContainer(ClientStorageAccount storageAccount,
@@ -311,11 +260,6 @@ public class SparkSubmitHelper {
 		return null;
 	}
 
-	private int getIntervalTime(int times) {
-		int interval = MIN_INTERVAL_TIME + times * INC_TIME;
-		return interval > MAX_INTERVAL_TIME ? MAX_INTERVAL_TIME : interval;
-	}
-
 	private String getApplicationIdFromYarnLog(String yarnLog) {
 		Pattern r = Pattern.compile(APPLICATION_ID_PATTERN);
 		Matcher m = r.matcher(yarnLog);
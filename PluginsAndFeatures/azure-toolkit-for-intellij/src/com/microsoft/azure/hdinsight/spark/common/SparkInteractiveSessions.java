@@ -22,6 +22,7 @@
 package com.microsoft.azure.hdinsight.spark.common;
 
 import com.microsoft.azure.hdinsight.common.StreamUtil;
+import com.microsoft.azure.hdinsight.sdk.common.HttpClientPools;
 import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -33,7 +34,6 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 
 import java.io.IOException;
 
@@ -74,7 +74,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse getAllSessions(String connectUrl) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpGet httpGet = new HttpGet(connectUrl);
         httpGet.addHeader("Content-Type", "application/json");
         try (CloseableHttpResponse response = httpclient.execute(httpGet)) {
@@ -91,7 +91,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse createNewSession(String connectUrl, String kind) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpPost httpPost = new HttpPost(connectUrl);
         httpPost.addHeader("Content-Type", "application/json");
         String jsonString = "{\"kind\" : \"" + kind + "\"}";
@@ -110,7 +110,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse getSessionState(String connectUrl, int sessionId) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpGet httpGet = new HttpGet(connectUrl + "/" + sessionId);
         httpGet.addHeader("Content-Type", "application/json");
 
@@ -126,7 +126,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse getSessionFullLog(String connectUrl, int sessionId) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpGet httpGet = new HttpGet(connectUrl + "/" + sessionId + "/log?from=0&size=" + Integer.MAX_VALUE);
         httpGet.addHeader("Content-Type", "application/json");
 
@@ -144,7 +144,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse getAllStatementInSession(String connectUrl, int sessionId) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpGet httpGet = new HttpGet(connectUrl + "/" + sessionId + "/statements");
         httpGet.addHeader("Content-Type", "application/json");
 
@@ -161,7 +161,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse executeInSession(String connectUrl, int sessionId, String code) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpPost httpPost = new HttpPost(connectUrl + "/" + sessionId + "/statements");
         httpPost.addHeader("Content-Type", "application/json");
         String jsonString = "{\"code\" : \"" + code + "\"}";
@@ -183,7 +183,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse getExecutionState(String connectUrl, int sessionId, String statementId) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpGet httpGet = new HttpGet(connectUrl + "/" + sessionId + "/statements/" + statementId);
         httpGet.addHeader("Content-Type", "application/json");
 
@@ -201,7 +201,7 @@ public class SparkInteractiveSessions {
      * @throws IOException
      */
     public HttpResponse killSession(String connectUrl, int sessionId) throws IOException {
-        CloseableHttpClient httpclient = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
+        CloseableHttpClient httpclient = getHttpClient(connectUrl);
         HttpDelete httpDelete = new HttpDelete(connectUrl + "/" + sessionId);
         httpDelete.addHeader("Content-Type", "application/json");
 
@@ -209,4 +209,8 @@ public class SparkInteractiveSessions {
             return StreamUtil.getResultFromHttpResponse(response);
         }
     }
+
+    private CloseableHttpClient getHttpClient(String connectUrl) {
+        return HttpClientPools.getInstance().getClient(connectUrl, credentialsProvider.getCredentials(AuthScope.ANY));
+    }
 }
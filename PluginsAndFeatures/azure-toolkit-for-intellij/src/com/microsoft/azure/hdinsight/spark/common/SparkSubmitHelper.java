@@ -21,9 +21,6 @@
  */
 package com.microsoft.azure.hdinsight.spark.common;
 
-import com.google.common.base.Joiner;
-import com.google.common.reflect.TypeToken;
-import com.google.gson.Gson;
 import com.intellij.openapi.project.Project;
 import com.jcraft.jsch.*;
 import com.microsoft.azure.hdinsight.common.HDInsightUtil;
@@ -31,7 +28,6 @@ import com.microsoft.azure.hdinsight.common.StreamUtil;
 import com.microsoft.azure.hdinsight.sdk.cluster.EmulatorClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
-import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.IHDIStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountTypeEnum;
@@ -45,23 +41,23 @@ import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
+import rx.Observable;
 
 import java.io.*;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class SparkSubmitHelper {
     private static SparkSubmitHelper ourInstance = new SparkSubmitHelper();
 
-    private static final int MAX_INTERVAL_TIME = 5000;
-    private static final int MIN_INTERVAL_TIME = 1000;
-    private static final int INC_TIME = 100;
+    private static final int KILL_CHECK_INTERVAL_TIME = 1000;
 
     private static final String applicationIdPattern = "Application report for ([^ ]*) \\(state: ACCEPTED\\)";
 
-    private SparkJobLog sparkJobLog;
+    private List<String> sparkJobLogLines;
 
     public static SparkSubmitHelper getInstance() {
         return ourInstance;
@@ -72,7 +68,7 @@ public class SparkSubmitHelper {
 
     private String JobLogFolderName = "SparkJobLog";
     public String writeLogToLocalFile(@NotNull Project project) throws IOException{
-        if (sparkJobLog == null) {
+        if (sparkJobLogLines == null) {
             return null;
         }
 
@@ -92,7 +88,7 @@ public class SparkSubmitHelper {
 
             logFileWrite = new FileWriter(fullFileName);
             bufferedWriter = new BufferedWriter(logFileWrite);
-            for (String str : sparkJobLog.getLog()) {
+            for (String str : sparkJobLogLines) {
                 bufferedWriter.write(str);
                 bufferedWriter.newLine();
             }
@@ -112,65 +108,33 @@ public class SparkSubmitHelper {
 
     public void printRunningLogStreamingly(Project project, int id, IClusterDetail clusterDetail, Map<String, String> postEventProperty) throws IOException {
         try {
-            boolean isFailedJob = false;
-            boolean isKilledJob = false;
+            SparkBatchLogTailer tailer = new SparkBatchLogTailer(
+                    SparkBatchSubmission.getInstance(), getLivyConnectionURL(clusterDetail), id);
+            List<String> logLines = new ArrayList<>();
+            sparkJobLogLines = logLines;
 
-            int from_index = 0;
-            int pre_index;
-            int times = 0;
             HDInsightUtil.getSparkSubmissionToolWindowManager(project).setInfo("======================Begin printing out spark job log.=======================");
-            while (true) {
-                pre_index = from_index;
-                if (HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().isJobKilled()) {
-                    isKilledJob = true;
-                    break;
-                }
-
-                from_index = printoutJobLog(project, id, from_index, clusterDetail);
-                HttpResponse statusHttpResponse = SparkBatchSubmission.getInstance().getBatchSparkJobStatus(getLivyConnectionURL(clusterDetail), id);
-
-                SparkSubmitResponse status = new Gson().fromJson(statusHttpResponse.getMessage(), new TypeToken<SparkSubmitResponse>() {
-                }.getType());
-
-                // only the lines of the log are same between two http requests, we try to get the job status
-                if (from_index == pre_index) {
-                    String finalStatus = status.getState().toLowerCase();
-                    if (finalStatus.equals("error") || finalStatus.equals("success") || finalStatus.equals("dead")) {
-                        if (finalStatus.equals("error") || finalStatus.equals("dead")) {
-                            isFailedJob = true;
-                        }
-
-                        if (!HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().isJobKilled()) {
-                            printoutJobLog(project, id, from_index, clusterDetail);
-                            HDInsightUtil.getSparkSubmissionToolWindowManager(project).setInfo("======================Finish printing out spark job log.=======================");
-                        } else {
-                            isKilledJob = true;
-                        }
-                        break;
-                    }
-                }
-
-                Thread.sleep(getIntervalTime(times));
-                times++;
-            }
-
-
-            if (isKilledJob) {
+            tailer.tail()
+                    .takeUntil(Observable.interval(KILL_CHECK_INTERVAL_TIME, TimeUnit.MILLISECONDS)
+                            .filter(ignore -> HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().isJobKilled()))
+                    .toBlocking()
+                    .forEach(line -> {
+                        logLines.add(line);
+                        printoutJobLogLine(project, line);
+                    });
+
+            if (HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().isJobKilled()) {
                 postEventProperty.put("IsKilled", "true");
                 AppInsightsClient.create(HDInsightBundle.message("SparkSubmissionButtonClickEvent"), null, postEventProperty);
                 return;
             }
 
-            if (isFailedJob) {
+            HDInsightUtil.getSparkSubmissionToolWindowManager(project).setInfo("======================Finish printing out spark job log.=======================");
+
+            if (SparkBatchLogTailer.isFailedState(tailer.getState())) {
                 postEventProperty.put("IsRunningSucceed", "false");
-                HttpResponse httpResponse = SparkBatchSubmission.getInstance()
-                        .getBatchJobFullLog(clusterDetail.getConnectionUrl() + "/livy/batches", id);
-                SparkSubmitResponse submitStatus = new Gson().fromJson(httpResponse.getMessage(),
-                        new TypeToken<SparkSubmitResponse>() {
-                        }.getType());
-                if (submitStatus != null && submitStatus.getLog() != null && submitStatus.getLog().size() > 0) {
-                    List<String> logs = submitStatus.getLog();
-                    String log = logs.get(logs.size() - 1);
+                if (logLines.size() > 0) {
+                    String log = logLines.get(logLines.size() - 1);
                     postEventProperty.put("SubmitFailedReason", HDInsightUtil.normalizeTelemetryMessage(log));
                 }
 
@@ -238,37 +202,31 @@ public class SparkSubmitHelper {
             throws Exception {
         final File file = new File(localFile);
         if(storageAccount.getAccountType() == StorageAccountTypeEnum.BLOB) {
-            try (FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                        @Override
-                        public Void call(Long uploadedBytes) throws Exception {
-                            double progress = ((double) uploadedBytes) / file.length();
-                            return null;
-                        }
-                    };
-
-                    HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount, defaultContainerName);
-                    String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    String uploadedPath = String.format("wasb://%s@%s/%s", defaultContainerName, blobStorageAccount.getFullStorageBlobName(), path);
-
-                    HDInsightUtil.showInfoOnSubmissionMessageWindow(project,
-                            String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...", localFile, uploadedPath));
-
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                            blobStorageAccount.getConnectionString(),
-                            defaultContainer,
-                            path,
-                            bufferedInputStream,
-                            callable,
-                            1024 * 1024,
-                            file.length());
-
-                    HDInsightUtil.showInfoOnSubmissionMessageWindow(project, String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
-                    return uploadedPath;
+            final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+                @Override
+                public Void call(Long uploadedBytes) throws Exception {
+                    double progress = ((double) uploadedBytes) / file.length();
+                    return null;
                 }
-            }
+            };
+
+            HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            BlobContainer defaultContainer = getSparkClusterDefaultContainer(blobStorageAccount, defaultContainerName);
+            String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
+            String uploadedPath = String.format("wasb://%s@%s/%s", defaultContainerName, blobStorageAccount.getFullStorageBlobName(), path);
+
+            HDInsightUtil.showInfoOnSubmissionMessageWindow(project,
+                    String.format("Info : Begin uploading file %s to Azure Blob Storage Account %s ...", localFile, uploadedPath));
+
+            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                    blobStorageAccount.getConnectionString(),
+                    defaultContainer,
+                    path,
+                    file,
+                    callable);
+
+            HDInsightUtil.showInfoOnSubmissionMessageWindow(project, String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
+            return uploadedPath;
         } else if(storageAccount.getAccountType() == StorageAccountTypeEnum.ADLS) {
             String uploadPath = String.format("adl://%s.azuredatalakestore.net%s%s", storageAccount.getName(), storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
             HDInsightUtil.showInfoOnSubmissionMessageWindow(project,
@@ -282,14 +240,9 @@ public class SparkSubmitHelper {
         }
     }
 
-    private int printoutJobLog(Project project, int id, int from_index, IClusterDetail clusterDetail) throws IOException {
-        HttpResponse httpResponse = SparkBatchSubmission.getInstance().getBatchJobFullLog( getLivyConnectionURL(clusterDetail), id);
-        sparkJobLog = new Gson().fromJson(httpResponse.getMessage(), new TypeToken<SparkJobLog>() {
-        }.getType());
-
+    private void printoutJobLogLine(Project project, String line) {
         if (!HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().isApplicationGenerated()) {
-            String sparkLogs = Joiner.on("").join(sparkJobLog.getLog());
-            String applicationId = getApplicationIdFromYarnLog(sparkLogs);
+            String applicationId = getApplicationIdFromYarnLog(line);
             if (applicationId != null) {
                 HDInsightUtil.getSparkSubmissionToolWindowManager(project).setBrowserButtonState(true);
                 HDInsightUtil.getSparkSubmissionToolWindowManager(project).getJobStatusManager().setApplicationIdGenerated();
@@ -297,18 +250,9 @@ public class SparkSubmitHelper {
             }
         }
 
-        int counter = 0;
-        if (sparkJobLog.getLog().size() > 0) {
-            for (String line : sparkJobLog.getLog()) {
-                if (counter >= from_index && !StringHelper.isNullOrWhiteSpace(line)) {
-                    HDInsightUtil.getSparkSubmissionToolWindowManager(project).setInfo(line, true);
-                }
-
-                counter++;
-            }
+        if (!StringHelper.isNullOrWhiteSpace(line)) {
+            HDInsightUtil.getSparkSubmissionToolWindowManager(project).setInfo(line, true);
         }
-
-        return sparkJobLog.getTotal();
     }
 
     private BlobContainer getSparkClusterDefaultContainer(ClientStorageAccount storageAccount, String dealtContainerName) throws AzureCmdException {
@@ -322,11 +266,6 @@ public class SparkSubmitHelper {
         return null;
     }
 
-    private int getIntervalTime(int times) {
-        int interval = MIN_INTERVAL_TIME + times * INC_TIME;
-        return interval > MAX_INTERVAL_TIME ? MAX_INTERVAL_TIME : interval;
-    }
-
     private String getApplicationIdFromYarnLog(String yarnLog) {
         Pattern r = Pattern.compile(applicationIdPattern);
         Matcher m = r.matcher(yarnLog);
@@ -24,7 +24,9 @@ package com.microsoft.intellij.helpers.rediscache;
 
 import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
 
+import com.intellij.ui.ListCellRendererWrapper;
 import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
+import com.microsoft.azuretools.core.mvp.model.rediscache.RedisKeyMetadata;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.intellij.helpers.base.BaseEditor;
@@ -44,6 +46,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.AdjustmentEvent;
 import java.util.List;
 import java.util.Collections;
 
@@ -55,6 +58,13 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
 
     private String currentCursor;
     private String lastChosenKey;
+    private RedisScanResult lastScanResult;
+    private String valueKey;
+    private RedisKeyType valueType;
+    private String valueCursor;
+    private boolean loadingValue;
+    // Changes whenever another value is shown, so pages loaded for an earlier one are dropped.
+    private long valueGeneration;
 
     private final RedisExplorerPresenter<RedisCacheExplorer> redisExplorerPresenter;
 
@@ -72,6 +82,8 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
     private static final String DEFAULT_SCAN_PATTERN = "*";
     private static final String ACTION_GET = "GET";
     private static final String ACTION_SCAN = "SCAN";
+    private static final String KEY_WITH_METADATA_FORMAT = "%s  (%s)";
+    private static final int LOAD_MORE_ROWS = 100;
 
     private JPanel pnlMain;
     private JComboBox cbDatabase;
@@ -118,6 +130,22 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
 
         progressBar.setIndeterminate(true);
 
+        pnlInnerValue.getVerticalScrollBar().addAdjustmentListener((AdjustmentEvent event) -> {
+            BoundedRangeModel range = pnlInnerValue.getVerticalScrollBar().getModel();
+            if (range.getValue() + range.getExtent()
+                    >= range.getMaximum() - LOAD_MORE_ROWS * tblInnerValue.getRowHeight()) {
+                loadMoreValue();
+            }
+        });
+
+        lstKey.setCellRenderer(new ListCellRendererWrapper<String>() {
+            @Override
+            public void customize(JList list, String key, int index, boolean selected, boolean hasFocus) {
+                RedisKeyMetadata metadata = lastScanResult == null ? null : lastScanResult.getKeyMetadata(key);
+                setText(metadata == null ? key : String.format(KEY_WITH_METADATA_FORMAT, key, metadata.getSummary()));
+            }
+        });
+
         cbDatabase.addActionListener(new AzureActionListenerWrapper(INSIGHT_NAME, "cbDatabase", null) {
             @Override
             public void actionPerformedFunc(ActionEvent event) {
@@ -213,6 +241,7 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
         for (String key : keys) {
             listModel.addElement(key);
         }
+        lastScanResult = result;
         lstKey.setModel(listModel);
         currentCursor = result.getNextCursor();
         setWidgetEnableStatus(true);
@@ -224,6 +253,11 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
         RedisKeyType type = val.getKeyType();
         lblTypeValue.setText(type.toString());
         lblKeyValue.setText((String) lstKey.getSelectedValue());
+        valueKey = (String) lstKey.getSelectedValue();
+        valueGeneration++;
+        valueType = type;
+        valueCursor = val.hasMore() ? val.getNextCursor() : null;
+        loadingValue = false;
         if (type.equals(RedisKeyType.STRING)) {
             if (val.getRowData().size() > 0 && val.getRowData().get(0).length > 0) {
                 txtStringValue.setText(val.getRowData().get(0)[0]);
@@ -274,12 +308,43 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
         clearValueArea();
     }
 
+    @Override
+    public void appendContent(long generation, RedisValueData val) {
+        if (generation != valueGeneration) {
+            // The page belongs to a value that is no longer shown, even if it has the same key.
+            return;
+        }
+        loadingValue = false;
+        DefaultTableModel tableModel = (DefaultTableModel) tblInnerValue.getModel();
+        for (String[] row : val.getRowData()) {
+            tableModel.addRow(row);
+        }
+        valueCursor = val.hasMore() ? val.getNextCursor() : null;
+    }
+
     @Override
     public void onErrorWithException(String message, Exception ex) {
         JOptionPane.showMessageDialog(null, ex.getMessage(), message, JOptionPane.ERROR_MESSAGE, null);
+        loadingValue = false;
         setWidgetEnableStatus(true);
     }
 
+    @Override
+    public void onError(String message) {
+        RedisExplorerMvpView.super.onError(message);
+        loadingValue = false;
+        setWidgetEnableStatus(true);
+    }
+
+    private void loadMoreValue() {
+        if (loadingValue || valueKey == null || valueCursor == null || !pnlInnerValue.isVisible()) {
+            return;
+        }
+        loadingValue = true;
+        redisExplorerPresenter.onLoadMoreValue(cbDatabase.getSelectedIndex(), valueKey, valueType, valueCursor,
+                valueGeneration);
+    }
+
     private void onDataBaseSelect() {
         redisExplorerPresenter.onDbSelect(cbDatabase.getSelectedIndex());
     }
@@ -296,6 +361,8 @@ public class RedisCacheExplorer extends BaseEditor implements RedisExplorerMvpVi
     }
 
     private void clearValueArea() {
+        valueKey = null;
+        valueGeneration++;
         lblKeyValue.setText("");
         lblTypeValue.setText("");
         pnlInnerValue.setVisible(false);
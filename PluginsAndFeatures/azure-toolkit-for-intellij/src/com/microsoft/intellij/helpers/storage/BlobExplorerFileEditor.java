@@ -43,6 +43,7 @@ import com.microsoft.intellij.helpers.UIHelperImpl;
 import com.microsoft.intellij.util.PluginUtil;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.PrefetchingPager;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
@@ -57,7 +58,7 @@ import org.apache.commons.io.IOUtils;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableModel;
 import javax.swing.table.TableRowSorter;
@@ -72,7 +73,11 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.microsoft.intellij.ui.messages.AzureBundle.message;
 
@@ -84,6 +89,10 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     static final String UPLOAD = "Upload";
     static final String QUERY = "Query";
 
+    private static final int PAGE_SIZE = 500;
+    // start loading the next page when the user scrolls within this many rows of the end of the list
+    private static final int LOAD_MORE_ROWS = 100;
+
     private JPanel mainPanel;
     private JTextField queryTextField;
     private JTable blobListTable;
@@ -102,7 +111,9 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     private Project project;
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
-    private List<BlobItem> blobItems;
+    private BlobItemTableModel blobItemTableModel;
+    private PrefetchingPager<BlobItem> blobItemPager;
+    private boolean loadingPage;
 
     private ISubscriptionSelectionListener subscriptionListener;
     private FileEditorVirtualNode fileEditorVirtualNode;
@@ -111,25 +122,9 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         this.project = project;
         blobListTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        DefaultTableModel model = new DefaultTableModel() {
-            @Override
-            public boolean isCellEditable(int i, int i1) {
-                return false;
-            }
-
-            public Class getColumnClass(int column) {
-                return (column == 0) ? Icon.class : String.class;
-            }
-        };
+        blobItemTableModel = new BlobItemTableModel();
 
-        model.addColumn("");
-        model.addColumn("Name");
-        model.addColumn("Size");
-        model.addColumn("Last Modified (UTC)");
-        model.addColumn("Content Type");
-        model.addColumn("URL");
-
-        blobListTable.setModel(model);
+        blobListTable.setModel(blobItemTableModel);
         blobListTable.getColumnModel().getColumn(0).setMinWidth(20);
         blobListTable.getColumnModel().getColumn(0).setMaxWidth(20);
         blobListTable.getColumnModel().getColumn(1).setPreferredWidth(100);
@@ -157,7 +152,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             }
         });
 
-        TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(model);
+        TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(blobItemTableModel);
 
         sorter.setComparator(2, new Comparator<String>() {
             @Override
@@ -249,6 +244,21 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             }
         });
 
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+
+        if (scrollPane != null) {
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    BoundedRangeModel range = ((JScrollBar) adjustmentEvent.getSource()).getModel();
+
+                    if (range.getValue() + range.getExtent() >= range.getMaximum() - LOAD_MORE_ROWS * blobListTable.getRowHeight()) {
+                        loadNextPage();
+                    }
+                }
+            });
+        }
+
         blobListTable.addKeyListener(new KeyListener() {
             @Override
             public void keyTyped(KeyEvent keyEvent) {
@@ -310,6 +320,11 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     public void fillGrid() {
         setUIState(true);
 
+        if (blobItemPager != null) {
+            blobItemPager.close();
+            blobItemPager = null;
+        }
+
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading blobs...", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
@@ -320,52 +335,18 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                     }
 
-                    blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
-
-                    if (!queryTextField.getText().isEmpty()) {
-                        for (int i = blobItems.size() - 1; i >= 0; i--) {
-                            BlobItem blobItem = blobItems.get(i);
-
-                            if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                                blobItems.remove(i);
-                            }
-                        }
-                    }
+                    final PrefetchingPager<BlobItem> pager = StorageClientSDKManager.getManager().getBlobItemPager(
+                            connectionString, directoryQueue.peekLast(), queryTextField.getText(), false, PAGE_SIZE);
+                    final List<BlobItem> firstPage = pager.nextPage();
 
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
                         public void run() {
+                            blobItemPager = pager;
+                            loadingPage = false;
 
                             pathLabel.setText(directoryQueue.peekLast().getPath());
-                            DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
-
-                            while (model.getRowCount() > 0) {
-                                model.removeRow(0);
-                            }
-
-                            for (BlobItem blobItem : blobItems) {
-                                if (blobItem instanceof BlobDirectory) {
-                                    model.addRow(new Object[]{
-                                            UIHelperImpl.loadIcon("storagefolder.png"),
-                                            blobItem.getName(),
-                                            "",
-                                            "",
-                                            "",
-                                            blobItem.getUri()
-                                    });
-                                } else {
-                                    BlobFile blobFile = (BlobFile) blobItem;
-
-                                    model.addRow(new String[]{
-                                            "",
-                                            blobFile.getName(),
-                                            UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                            new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
-                                            blobFile.getContentType(),
-                                            blobFile.getUri()
-                                    });
-                                }
-                            }
+                            blobItemTableModel.setItems(firstPage);
 
                             setUIState(false);
 
@@ -380,6 +361,46 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         });
     }
 
+    private void loadNextPage() {
+        final PrefetchingPager<BlobItem> pager = blobItemPager;
+
+        if (pager == null || loadingPage || !pager.hasNextPage()) {
+            return;
+        }
+
+        loadingPage = true;
+
+        // the pager has usually fetched this page already, so it is appended without a progress dialog
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final List<BlobItem> page = pager.nextPage();
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (pager == blobItemPager) {
+                                blobItemTableModel.addItems(page);
+                                loadingPage = false;
+                            }
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadingPage = false;
+                        }
+                    });
+
+                    String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
+                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
+                }
+            }
+        });
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -404,28 +425,22 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     }
 
     private BlobDirectory getFolderSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
-
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobDirectory && item.getName().equals(name)) {
-                    return (BlobDirectory) item;
-                }
-            }
-        }
+        BlobItem item = getItemSelection();
 
-        return null;
+        return item instanceof BlobDirectory ? (BlobDirectory) item : null;
     }
 
     private BlobFile getFileSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
+        BlobItem item = getItemSelection();
 
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobFile && item.getName().equals(name)) {
-                    return (BlobFile) item;
-                }
-            }
+        return item instanceof BlobFile ? (BlobFile) item : null;
+    }
+
+    private BlobItem getItemSelection() {
+        int selectedRow = blobListTable.getSelectedRow();
+
+        if (selectedRow >= 0) {
+            return blobItemTableModel.getItem(blobListTable.convertRowIndexToModel(selectedRow));
         }
 
         return null;
@@ -524,7 +539,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         try {
                             StorageClientSDKManager.getManager().deleteBlobFile(connectionString, blobItem);
 
-                            if (blobItems.size() <= 1) {
+                            if (blobItemTableModel.getRowCount() <= 1) {
                                 directoryQueue.clear();
                                 directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
@@ -595,68 +610,85 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                             }
                         }
 
-                        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                            private long runningCount = 0;
-
+                        final CallableSingleArg<Void, Long> processBlock = new CallableSingleArg<Void, Long>() {
                             @Override
-                            public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                                super.write(bytes, i, i1);
-
-                                runningCount += i1;
-
-                                double progress = (double) runningCount / fileSelection.getSize();
+                            public Void call(Long downloadedBytes) throws Exception {
+                                double progress = fileSelection.getSize() == 0 ? 1 : (double) downloadedBytes / fileSelection.getSize();
                                 progressIndicator.setFraction(progress);
                                 progressIndicator.setText2(String.format("%s%% downloaded", (int) (progress * 100)));
+                                return null;
                             }
                         };
 
-                        try {
-                            Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    try {
-                                        StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
+                        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, targetFile, processBlock);
 
-                                        if (open && targetFile.exists()) {
-                                            Desktop.getDesktop().open(targetFile);
-                                        }
-                                    } catch (AzureCmdException e) {
-                                        Throwable connectionFault = e.getCause().getCause();
-
-                                        progressIndicator.setText("Error downloading Blob");
-                                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
-                                    } catch (IOException ex) {
-                                        try {
-                                            final Process p;
-                                            Runtime runtime = Runtime.getRuntime();
-                                            p = runtime.exec(
-                                                    new String[]{"open", "-R", targetFile.getName()},
-                                                    null,
-                                                    targetFile.getParentFile());
-
-                                            InputStream errorStream = p.getErrorStream();
-                                            String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                            if (p.waitFor() != 0) {
-                                                throw new Exception(errResponse);
-                                            }
-                                        } catch (Exception e) {
-                                            progressIndicator.setText("Error openning file");
-                                            progressIndicator.setText2(ex.getMessage());
+                                    if (open && targetFile.exists()) {
+                                        Desktop.getDesktop().open(targetFile);
+                                    }
+                                } catch (AzureCmdException e) {
+                                    // checksum and short-read failures carry no cause, so walk the chain null-safely
+                                    Throwable connectionFault = e;
+                                    while (connectionFault.getCause() != null) {
+                                        connectionFault = connectionFault.getCause();
+                                    }
+                                    String faultMessage = (connectionFault instanceof SocketTimeoutException) ? "Connection timed out"
+                                            : connectionFault.getMessage() != null ? connectionFault.getMessage() : e.getMessage();
+
+                                    // a cancelled download is interrupted, which is not an error to report
+                                    if (progressIndicator.isCanceled() || connectionFault instanceof InterruptedException
+                                            || connectionFault instanceof InterruptedIOException) {
+                                        return;
+                                    }
+
+                                    progressIndicator.setText("Error downloading Blob");
+                                    progressIndicator.setText2(faultMessage);
+                                    PluginUtil.displayErrorDialogInAWTAndLog(message("errTtl"), "An error occurred while attempting to download Blob.\n" + faultMessage, e);
+                                } catch (IOException ex) {
+                                    try {
+                                        final Process p;
+                                        Runtime runtime = Runtime.getRuntime();
+                                        p = runtime.exec(
+                                                new String[]{"open", "-R", targetFile.getName()},
+                                                null,
+                                                targetFile.getParentFile());
+
+                                        InputStream errorStream = p.getErrorStream();
+                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                        if (p.waitFor() != 0) {
+                                            throw new Exception(errResponse);
                                         }
+                                    } catch (Exception e) {
+                                        progressIndicator.setText("Error openning file");
+                                        progressIndicator.setText2(ex.getMessage());
                                     }
                                 }
-                            });
+                            }
+                        });
 
-                            while (!future.isDone()) {
-                                progressIndicator.checkCanceled();
+                        while (!future.isDone()) {
+                            // interrupting the download keeps the ranges written so far for the next attempt
+                            if (progressIndicator.isCanceled()) {
+                                future.cancel(true);
+                            }
 
-                                if (progressIndicator.isCanceled()) {
-                                    future.cancel(true);
-                                }
+                            progressIndicator.checkCanceled();
+
+                            try {
+                                future.get(100, TimeUnit.MILLISECONDS);
+                            } catch (TimeoutException ignored) {
+                                // still downloading
+                            } catch (InterruptedException e) {
+                                future.cancel(true);
+                                Thread.currentThread().interrupt();
+                                return;
+                            } catch (ExecutionException | CancellationException ignored) {
+                                // the pooled task reports its own failures
                             }
-                        } finally {
-                            bufferedOutputStream.close();
                         }
                     } catch (IOException e) {
                         PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to download Blob.", e);
@@ -694,108 +726,109 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Uploading blob...", true) {
             @Override
             public void run(@NotNull final ProgressIndicator progressIndicator) {
-                try {
-                    final BlobDirectory blobDirectory = directoryQueue.peekLast();
-
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
-
-                    progressIndicator.setIndeterminate(false);
-                    progressIndicator.setText("Uploading blob...");
-                    progressIndicator.setText2("0% uploaded");
+                final BlobDirectory blobDirectory = directoryQueue.peekLast();
 
-                    try {
-                        final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                            @Override
-                            public Void call(Long uploadedBytes) throws Exception {
-                                double progress = ((double) uploadedBytes) / selectedFile.length();
+                progressIndicator.setIndeterminate(false);
+                progressIndicator.setText("Uploading blob...");
+                progressIndicator.setText2("0% uploaded");
 
-                                progressIndicator.setFraction(progress);
-                                progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
+                try {
+                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+                        @Override
+                        public Void call(Long uploadedBytes) throws Exception {
+                            double progress = ((double) uploadedBytes) / selectedFile.length();
 
-                                return null;
-                            }
-                        };
+                            progressIndicator.setFraction(progress);
+                            progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
 
-                        Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
-                            @Override
-                            public Void call() throws AzureCmdException {
-                                try {
-                                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                                            connectionString,
-                                            blobContainer,
-                                            path,
-                                            bufferedInputStream,
-                                            callable,
-                                            1024 * 1024,
-                                            selectedFile.length());
-                                } finally {
-                                    try {
-                                        bufferedInputStream.close();
-                                    } catch (IOException ignored) {
-                                    }
-                                }
+                            return null;
+                        }
+                    };
 
-                                return null;
-                            }
-                        });
+                    Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
+                        @Override
+                        public Void call() throws AzureCmdException {
+                            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                                    connectionString,
+                                    blobContainer,
+                                    path,
+                                    selectedFile,
+                                    callable);
+
+                            return null;
+                        }
+                    });
 
-                        while (!future.isDone()) {
-                            Thread.sleep(500);
-                            progressIndicator.checkCanceled();
+                    while (!future.isDone()) {
+                        try {
+                            future.get(100, TimeUnit.MILLISECONDS);
+                        } catch (TimeoutException ignored) {
+                            // still uploading
+                        }
+                        progressIndicator.checkCanceled();
 
-                            if (progressIndicator.isCanceled()) {
-                                future.cancel(true);
-                                bufferedInputStream.close();
+                        if (progressIndicator.isCanceled()) {
+                            future.cancel(true);
 
-                                for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
-                                    if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
-                                        StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
-                                    }
+                            for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
+                                if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
+                                    StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
                                 }
                             }
                         }
+                    }
 
-                        try {
-                            directoryQueue.clear();
-                            directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
+                    try {
+                        directoryQueue.clear();
+                        directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
-                            for (String pathDir : path.split("/")) {
-                                for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.getLast())) {
+                        for (String pathDir : path.split("/")) {
+                            // only the items starting with the directory name are listed, not the whole parent
+                            PrefetchingPager<BlobItem> pager = StorageClientSDKManager.getManager().getBlobItemPager(
+                                    connectionString, directoryQueue.getLast(), pathDir, false, PAGE_SIZE);
+                            BlobDirectory found = null;
+
+                            while (found == null && pager.hasNextPage()) {
+                                for (BlobItem blobItem : pager.nextPage()) {
                                     if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
-                                        directoryQueue.addLast((BlobDirectory) blobItem);
+                                        found = (BlobDirectory) blobItem;
                                     }
                                 }
                             }
-                        } catch (AzureCmdException e) {
-                            String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
-                            PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
-                        }
 
-                        ApplicationManager.getApplication().invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                fillGrid();
+                            pager.close();
+
+                            if (found != null) {
+                                directoryQueue.addLast(found);
                             }
-                        });
-                    } catch (Exception e) {
-                        Throwable connectionFault = e.getCause();
-                        Throwable realFault = null;
+                        }
+                    } catch (AzureCmdException e) {
+                        String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                        PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                    }
 
-                        if (connectionFault != null) {
-                            realFault = connectionFault.getCause();
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            fillGrid();
                         }
+                    });
+                } catch (Exception e) {
+                    Throwable connectionFault = e.getCause();
+                    Throwable realFault = null;
 
-                        progressIndicator.setText("Error uploading Blob");
-                        String message = realFault == null ? null : realFault.getMessage();
+                    if (connectionFault != null) {
+                        realFault = connectionFault.getCause();
+                    }
 
-                        if (connectionFault != null && message == null) {
-                            message = "Error type " + connectionFault.getClass().getName();
-                        }
+                    progressIndicator.setText("Error uploading Blob");
+                    String message = realFault == null ? null : realFault.getMessage();
 
-                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
+                    if (connectionFault != null && message == null) {
+                        message = "Error type " + connectionFault.getClass().getName();
                     }
-                } catch (IOException e) {
-                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to upload Blob.", e);
+
+                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
                 }
             }
         });
@@ -940,4 +973,86 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         properties.put("Container", this.getName());
         return properties;
     }
-}
\ No newline at end of file
+
+    private static class BlobItemTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"", "Name", "Size", "Last Modified (UTC)", "Content Type", "URL"};
+
+        private final List<BlobItem> items = new ArrayList<BlobItem>();
+        private final Icon folderIcon = UIHelperImpl.loadIcon("storagefolder.png");
+        private final SimpleDateFormat dateFormat = new SimpleDateFormat();
+
+        public void setItems(@NotNull List<BlobItem> page) {
+            items.clear();
+            items.addAll(page);
+            fireTableDataChanged();
+        }
+
+        public void addItems(@NotNull List<BlobItem> page) {
+            if (!page.isEmpty()) {
+                int firstRow = items.size();
+                items.addAll(page);
+                fireTableRowsInserted(firstRow, items.size() - 1);
+            }
+        }
+
+        public BlobItem getItem(int row) {
+            return items.get(row);
+        }
+
+        @Override
+        public int getRowCount() {
+            return items.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class getColumnClass(int column) {
+            return (column == 0) ? Icon.class : String.class;
+        }
+
+        // cells are only formatted when the table asks for them, i.e. for the rows on screen and while sorting
+        @Override
+        public Object getValueAt(int row, int column) {
+            BlobItem blobItem = items.get(row);
+
+            if (blobItem instanceof BlobDirectory) {
+                switch (column) {
+                    case 0:
+                        return folderIcon;
+                    case 1:
+                        return blobItem.getName();
+                    case 5:
+                        return blobItem.getUri();
+                    default:
+                        return "";
+                }
+            }
+
+            BlobFile blobFile = (BlobFile) blobItem;
+
+            switch (column) {
+                case 1:
+                    return blobFile.getName();
+                case 2:
+                    return UIHelperImpl.readableFileSize(blobFile.getSize());
+                case 3:
+                    return dateFormat.format(blobFile.getLastModified().getTime());
+                case 4:
+                    return blobFile.getContentType();
+                case 5:
+                    return blobFile.getUri();
+                default:
+                    return "";
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.intellij.helpers.UIHelperImpl;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import org.jdom.Element;
@@ -57,6 +58,7 @@ public class QueueExplorerFileEditorProvider implements FileEditorProvider, Dumb
         Queue queue = virtualFile.getUserData(QUEUE_KEY);
 
         queueFileEditor.setQueue(queue);
+        queueFileEditor.setConnectionString(StorageClientSDKManager.getConnectionString(storageAccount));
 //        queueFileEditor.setStorageAccount(storageAccount);
 
         queueFileEditor.fillGrid();
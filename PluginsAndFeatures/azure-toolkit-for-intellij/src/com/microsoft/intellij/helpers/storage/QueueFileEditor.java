@@ -23,6 +23,7 @@ package com.microsoft.intellij.helpers.storage;
 
 import com.intellij.codeHighlighting.BackgroundEditorHighlighter;
 import com.intellij.ide.structureView.StructureViewBuilder;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.fileEditor.FileEditor;
 import com.intellij.openapi.fileEditor.FileEditorLocation;
 import com.intellij.openapi.fileEditor.FileEditorState;
@@ -35,6 +36,10 @@ import com.intellij.openapi.util.Key;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.intellij.forms.QueueMessageForm;
 import com.microsoft.intellij.forms.ViewMessageForm;
+import com.microsoft.intellij.helpers.UIHelperImpl;
+import com.microsoft.intellij.util.PluginUtil;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.QueueMessage;
@@ -49,23 +54,36 @@ import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.*;
 import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.text.SimpleDateFormat;
 import java.util.List;
 
+import static com.microsoft.intellij.ui.messages.AzureBundle.message;
+
 public class QueueFileEditor implements FileEditor {
     static final String OPEN = "Open";
     static final String DEQUEUE = "Dequeue";
     static final String ADD_MESSAGE = "Add Message";
     static final String CLEAR_QUEUE = "Clear Queue";
     static final String REFRESH = "Refresh";
+    static final String ADD_MESSAGES_FROM_FILE = "Add Messages From File";
+    static final String DEQUEUE_ALL = "Dequeue All";
+
+    // the longest time to live the service accepts for a message
+    private static final int MAX_TIME_TO_LIVE_SECONDS = 60 * 60 * 24 * 7;
 
     private Project project;
     private ClientStorageAccount storageAccount;
+    private String connectionString;
     private Queue queue;
     private JPanel mainPanel;
     private JButton dequeueMessageButton;
     private JButton refreshButton;
     private JButton addMessageButton;
     private JButton clearQueueButton;
+    private JButton addMessagesFromFileButton;
+    private JButton dequeueAllButton;
+    private JLabel messageCountLabel;
     private JTable queueTable;
     private List<QueueMessage> queueMessages;
 
@@ -182,6 +200,20 @@ public class QueueFileEditor implements FileEditor {
                 fileEditorVirtualNode.getNodeActionByName(CLEAR_QUEUE).fireNodeActionEvent();
             }
         });
+
+        addMessagesFromFileButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                fileEditorVirtualNode.getNodeActionByName(ADD_MESSAGES_FROM_FILE).fireNodeActionEvent();
+            }
+        });
+
+        dequeueAllButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                fileEditorVirtualNode.getNodeActionByName(DEQUEUE_ALL).fireNodeActionEvent();
+            }
+        });
     }
 
     private FileEditorVirtualNode createFileEditorVirtualNode(final String name) {
@@ -231,9 +263,8 @@ public class QueueFileEditor implements FileEditor {
                     ProgressManager.getInstance().run(new Task.Backgroundable(project, "Clearing queue messages", false) {
                         @Override
                         public void run(@NotNull ProgressIndicator progressIndicator) {
-                           /* try {
-
-                                StorageClientSDKManager.getManager().clearQueue(storageAccount, queue);
+                            try {
+                                StorageClientSDKManager.getManager().clearQueue(connectionString, queue);
 
                                 ApplicationManager.getApplication().invokeLater(new Runnable() {
                                     @Override
@@ -244,7 +275,7 @@ public class QueueFileEditor implements FileEditor {
                             } catch (AzureCmdException e) {
                                 String msg = "An error occurred while attempting to clear queue messages." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
                                 PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
-                            }*/
+                            }
                         }
                     });
                 }
@@ -256,6 +287,24 @@ public class QueueFileEditor implements FileEditor {
                 viewMessageText();
             }
         });
+        fileEditorVirtualNode.addAction(ADD_MESSAGES_FROM_FILE, new NodeActionListener() {
+            @Override
+            protected void actionPerformed(NodeActionEvent e) {
+                JFileChooser jFileChooser = new JFileChooser();
+                jFileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+                jFileChooser.setDialogTitle("Add one message per line");
+
+                if (jFileChooser.showOpenDialog(mainPanel) == JFileChooser.APPROVE_OPTION) {
+                    addMessagesFromFile(jFileChooser.getSelectedFile());
+                }
+            }
+        });
+        fileEditorVirtualNode.addAction(DEQUEUE_ALL, new NodeActionListener() {
+            @Override
+            protected void actionPerformed(NodeActionEvent e) {
+                dequeueAllMessages();
+            }
+        });
         return fileEditorVirtualNode;
     }
 
@@ -263,8 +312,9 @@ public class QueueFileEditor implements FileEditor {
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading queue messages", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
-                /*try {
-                    queueMessages = StorageClientSDKManager.getManager().getQueueMessages(storageAccount, queue);
+                try {
+                    queueMessages = StorageClientSDKManager.getManager().getQueueMessages(connectionString, queue);
+                    final long messageCount = StorageClientSDKManager.getManager().getApproximateMessageCount(connectionString, queue);
 
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
@@ -288,15 +338,18 @@ public class QueueFileEditor implements FileEditor {
                                 model.addRow(values);
                             }
 
+                            messageCountLabel.setText(String.format("About %d messages", messageCount));
+
                             clearQueueButton.setEnabled(queueMessages.size() != 0);
                             dequeueMessageButton.setEnabled(queueMessages.size() != 0);
+                            dequeueAllButton.setEnabled(queueMessages.size() != 0);
                         }
                     });
 
                 } catch (AzureCmdException e) {
                     String msg = "An error occurred while attempting to get queue messages." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
                     PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
-                }*/
+                }
             }
         });
     }
@@ -320,8 +373,8 @@ public class QueueFileEditor implements FileEditor {
             ProgressManager.getInstance().run(new Task.Backgroundable(project, "Dequeuing message", false) {
                 @Override
                 public void run(@NotNull ProgressIndicator progressIndicator) {
-                    /*try {
-                        StorageClientSDKManager.getManager().dequeueFirstQueueMessage(storageAccount, queue);
+                    try {
+                        StorageClientSDKManager.getManager().dequeueFirstQueueMessage(connectionString, queue);
 
                         ApplicationManager.getApplication().invokeLater(new Runnable() {
                             @Override
@@ -332,12 +385,93 @@ public class QueueFileEditor implements FileEditor {
                     } catch (AzureCmdException e) {
                         String msg = "An error occurred while attempting to dequeue messages." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
                         PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
-                    }*/
+                    }
                 }
             });
         }
     }
 
+    private void dequeueAllMessages() {
+        if (JOptionPane.showConfirmDialog(mainPanel,
+                "Are you sure you want to dequeue all the messages in the queue?",
+                "Azure Explorer",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.INFORMATION_MESSAGE) == JOptionPane.YES_OPTION) {
+            ProgressManager.getInstance().run(new Task.Backgroundable(project, "Dequeuing messages", true) {
+                @Override
+                public void run(@NotNull final ProgressIndicator progressIndicator) {
+                    try {
+                        final long messageCount = StorageClientSDKManager.getManager().getApproximateMessageCount(connectionString, queue);
+                        progressIndicator.setIndeterminate(messageCount == 0);
+
+                        StorageClientSDKManager.getManager().drainQueueMessages(connectionString, queue, Integer.MAX_VALUE,
+                                new CallableSingleArg<Void, Integer>() {
+                                    @Override
+                                    public Void call(Integer dequeued) throws Exception {
+                                        // stops the remaining requests when the user cancels
+                                        progressIndicator.checkCanceled();
+
+                                        if (messageCount > 0) {
+                                            progressIndicator.setFraction(Math.min(1.0, (double) dequeued / messageCount));
+                                        }
+                                        progressIndicator.setText2(String.format("%d messages dequeued", dequeued));
+
+                                        return null;
+                                    }
+                                });
+                    } catch (AzureCmdException e) {
+                        if (!progressIndicator.isCanceled()) {
+                            String msg = "An error occurred while attempting to dequeue messages." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                            PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                        }
+                    }
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            fillGrid();
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private void addMessagesFromFile(final File file) {
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Adding messages", true) {
+            @Override
+            public void run(@NotNull final ProgressIndicator progressIndicator) {
+                progressIndicator.setIndeterminate(true);
+
+                try {
+                    StorageClientSDKManager.getManager().createQueueMessages(connectionString, queue, file, MAX_TIME_TO_LIVE_SECONDS,
+                            new CallableSingleArg<Void, Integer>() {
+                                @Override
+                                public Void call(Integer added) throws Exception {
+                                    // stops the remaining requests when the user cancels
+                                    progressIndicator.checkCanceled();
+                                    progressIndicator.setText2(String.format("%d messages added", added));
+
+                                    return null;
+                                }
+                            });
+                } catch (AzureCmdException e) {
+                    if (!progressIndicator.isCanceled()) {
+                        String msg = "An error occurred while attempting to add messages." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                        PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                    }
+                }
+
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        fillGrid();
+                    }
+                });
+            }
+        });
+    }
+
     private QueueMessage getSelectedQueueMessage() {
         return (queueMessages != null && queueMessages.size() > 0)
                 ? queueMessages.get(queueTable.getSelectedRow()) : null;
@@ -353,6 +487,10 @@ public class QueueFileEditor implements FileEditor {
         this.storageAccount = storageAccount;
     }
 
+    public void setConnectionString(String connectionString) {
+        this.connectionString = connectionString;
+    }
+
     public void setQueue(Queue queue) {
         this.queue = queue;
     }
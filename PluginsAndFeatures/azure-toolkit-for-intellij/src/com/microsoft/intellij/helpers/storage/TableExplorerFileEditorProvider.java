@@ -32,6 +32,7 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.intellij.helpers.UIHelperImpl;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Table;
 import org.jdom.Element;
@@ -57,6 +58,7 @@ public class TableExplorerFileEditorProvider implements FileEditorProvider, Dumb
         Table table = virtualFile.getUserData(TABLE_KEY);
 
         tableFileEditor.setTable(table);
+        tableFileEditor.setConnectionString(StorageClientSDKManager.getConnectionString(storageAccount));
 //        tableFileEditor.setStorageAccount(storageAccount);
 
         tableFileEditor.fillGrid();
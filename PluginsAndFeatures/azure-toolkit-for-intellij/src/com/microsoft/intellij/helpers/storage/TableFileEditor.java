@@ -36,8 +36,12 @@ import com.intellij.openapi.util.Key;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.intellij.forms.TableEntityForm;
 import com.microsoft.intellij.forms.TablesQueryDesigner;
+import com.microsoft.intellij.util.PluginUtil;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.PrefetchingPager;
+import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Table;
+import com.microsoft.tooling.msservices.model.storage.TableBatchResult;
 import com.microsoft.tooling.msservices.model.storage.TableEntity;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
@@ -52,9 +56,16 @@ import java.awt.event.*;
 import java.beans.PropertyChangeListener;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+
+import static com.microsoft.intellij.ui.messages.AzureBundle.message;
 
 public class TableFileEditor implements FileEditor {
     public static final String PARTITION_KEY = "Partition key";
@@ -67,7 +78,12 @@ public class TableFileEditor implements FileEditor {
     private static final String QUERY_DESIGNER = "QueryDesigner";
     private static final String NEW_ENTITY = "NewEntity";
 
+    private static final int PAGE_SIZE = 500;
+    // start loading the next page when the user scrolls within this many rows of the end of the list
+    private static final int LOAD_MORE_ROWS = 100;
+
     private ClientStorageAccount storageAccount;
+    private String connectionString;
     private Project project;
     private Table table;
     private JPanel mainPanel;
@@ -78,7 +94,12 @@ public class TableFileEditor implements FileEditor {
     private JButton queryButton;
     private JButton queryDesignerButton;
     private JTable entitiesTable;
+    private JLabel entityCountLabel;
     private List<TableEntity> tableEntities;
+    private PrefetchingPager<TableEntity> tableEntityPager;
+    private boolean loadingPage;
+    private List<String> gridColumns;
+    private long entityCount = -1;
 
     private FileEditorVirtualNode fileEditorVirtualNode;
 
@@ -149,6 +170,21 @@ public class TableFileEditor implements FileEditor {
             }
         });
 
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, entitiesTable);
+
+        if (scrollPane != null) {
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    BoundedRangeModel range = ((JScrollBar) adjustmentEvent.getSource()).getModel();
+
+                    if (range.getValue() + range.getExtent() >= range.getMaximum() - LOAD_MORE_ROWS * entitiesTable.getRowHeight()) {
+                        loadNextPage();
+                    }
+                }
+            });
+        }
+
         entitiesTable.addKeyListener(new KeyListener() {
             @Override
             public void keyTyped(KeyEvent keyEvent) {
@@ -215,6 +251,9 @@ public class TableFileEditor implements FileEditor {
                     @Override
                     public void run() {
                         tableEntities.add(form.getTableEntity());
+                        if (entityCount >= 0) {
+                            setEntityCount(entityCount + 1);
+                        }
 
                         refreshGrid();
                     }
@@ -261,21 +300,172 @@ public class TableFileEditor implements FileEditor {
     public void fillGrid() {
         final String queryText = queryTextField.getText();
 
+        if (tableEntityPager != null) {
+            tableEntityPager.close();
+            tableEntityPager = null;
+        }
+
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading entities", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
                 progressIndicator.setIndeterminate(true);
-                /*try {
-                    tableEntities = StorageClientSDKManager.getManager().getTableEntities(storageAccount, table, queryText);
-                    refreshGrid();
+                try {
+                    final PrefetchingPager<TableEntity> pager = StorageClientSDKManager.getManager().getTableEntityPager(
+                            connectionString, table, queryText, PAGE_SIZE);
+                    final List<TableEntity> firstPage = pager.nextPage();
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            tableEntityPager = pager;
+                            loadingPage = false;
+
+                            tableEntities = new ArrayList<TableEntity>(firstPage);
+                            refreshGrid();
+
+                            if (pager.hasNextPage()) {
+                                countEntities(pager, queryText);
+                            } else {
+                                setEntityCount(firstPage.size());
+                            }
+                        }
+                    });
+                } catch (AzureCmdException e) {
+                    String msg = "An error occurred while attempting to query entities." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                }
+            }
+        });
+    }
+
+    private void countEntities(final PrefetchingPager<TableEntity> pager, final String queryText) {
+        entityCount = -1;
+        entityCountLabel.setText("Counting entities...");
+
+        // only the keys are counted, the entities themselves are loaded page by page as the user scrolls
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                long count = -1;
+                try {
+                    count = StorageClientSDKManager.getManager().countTableEntities(connectionString, table, queryText);
+                } catch (AzureCmdException ignored) {
+                    // the count is informational, the entities are still listed without it
+                }
+
+                final long result = count;
+                ApplicationManager.getApplication().invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pager == tableEntityPager) {
+                            setEntityCount(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void setEntityCount(long count) {
+        entityCount = count;
+        entityCountLabel.setText(count < 0 ? "" : String.format("%d entities", count));
+    }
+
+    private void loadNextPage() {
+        final PrefetchingPager<TableEntity> pager = tableEntityPager;
+
+        if (pager == null || loadingPage || !pager.hasNextPage()) {
+            return;
+        }
+
+        loadingPage = true;
+
+        // the pager has usually fetched this page already, so it is appended without a progress dialog
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final List<TableEntity> page = pager.nextPage();
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (pager == tableEntityPager) {
+                                tableEntities.addAll(page);
+
+                                // only rebuild the model when the new entities bring properties not shown yet
+                                if (hasNewColumns(page)) {
+                                    refreshGrid();
+                                } else {
+                                    appendRows(page);
+                                }
+
+                                loadingPage = false;
+                            }
+                        }
+                    });
                 } catch (AzureCmdException e) {
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadingPage = false;
+                        }
+                    });
+
                     String msg = "An error occurred while attempting to query entities." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
                     PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
-                }*/
+                }
             }
         });
     }
 
+    private boolean hasNewColumns(@NotNull List<TableEntity> entities) {
+        if (gridColumns == null || !(entitiesTable.getModel() instanceof DefaultTableModel)) {
+            return true;
+        }
+
+        for (TableEntity tableEntity : entities) {
+            if (!gridColumns.containsAll(tableEntity.getProperties().keySet())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void appendRows(@NotNull List<TableEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        DefaultTableModel model = (DefaultTableModel) entitiesTable.getModel();
+        SimpleDateFormat dateFormat = new SimpleDateFormat();
+        int firstRow = model.getRowCount();
+
+        for (TableEntity tableEntity : entities) {
+            Vector<Object> row = new Vector<Object>(gridColumns.size());
+
+            for (String column : gridColumns) {
+                if (column.equals(PARTITION_KEY)) {
+                    row.add(tableEntity.getPartitionKey());
+                } else if (column.equals(ROW_KEY)) {
+                    row.add(tableEntity.getRowKey());
+                } else if (column.equals(TIMESTAMP)) {
+                    row.add(dateFormat.format(tableEntity.getTimestamp().getTime()));
+                } else {
+                    row.add(tableEntity.getProperties().containsKey(column)
+                            ? getFormattedProperty(tableEntity.getProperties().get(column))
+                            : "");
+                }
+            }
+
+            model.getDataVector().add(row);
+        }
+
+        // one event for the whole page keeps the selection, scroll position and column widths
+        model.fireTableRowsInserted(firstRow, model.getRowCount() - 1);
+    }
+
     private void refreshGrid() {
         ApplicationManager.getApplication().invokeLater(new Runnable() {
             @Override
@@ -320,6 +510,7 @@ public class TableFileEditor implements FileEditor {
                 }
 
                 entitiesTable.setModel(model);
+                gridColumns = new ArrayList<String>(columnData.keySet());
 
                 for (int i = 0; i != entitiesTable.getColumnCount(); i++) {
                     entitiesTable.getColumnModel().getColumn(i).setPreferredWidth(100);
@@ -334,28 +525,45 @@ public class TableFileEditor implements FileEditor {
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Deleting entities", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
-                progressIndicator.setIndeterminate(false);
+                progressIndicator.setIndeterminate(true);
 
-                /*try {
+                try {
                     if (selectedEntities != null) {
-                        for (int i = 0; i < selectedEntities.length; i++) {
-                            progressIndicator.setFraction((double) i / selectedEntities.length);
-
-                            StorageClientSDKManager.getManager().deleteTableEntity(storageAccount, selectedEntities[i]);
-                        }
+                        final TableBatchResult result = StorageClientSDKManager.getManager().deleteTableEntities(
+                                connectionString, Arrays.asList(selectedEntities));
 
                         ApplicationManager.getApplication().invokeLater(new Runnable() {
                             @Override
                             public void run() {
-                                tableEntities.removeAll(Arrays.asList(selectedEntities));
+                                Set<TableEntity> deleted = Collections.newSetFromMap(new IdentityHashMap<TableEntity, Boolean>());
+                                deleted.addAll(result.getSucceeded());
+
+                                List<TableEntity> remaining = new ArrayList<TableEntity>(tableEntities.size());
+                                for (TableEntity tableEntity : tableEntities) {
+                                    if (!deleted.contains(tableEntity)) {
+                                        remaining.add(tableEntity);
+                                    }
+                                }
+
+                                tableEntities = remaining;
+                                if (entityCount >= 0) {
+                                    setEntityCount(entityCount - result.getSucceeded().size());
+                                }
                                 refreshGrid();
                             }
                         });
+
+                        if (!result.isSuccessful()) {
+                            AzureCmdException ex = result.getFailed().values().iterator().next();
+                            String msg = String.format("%d of %d entities could not be deleted.", result.getFailed().size(), selectedEntities.length)
+                                    + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
+                            PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
+                        }
                     }
                 } catch (AzureCmdException ex) {
                     String msg = "An error occurred while attempting to delete entities." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
                     PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
-                }*/
+                }
             }
         });
     }
@@ -365,32 +573,14 @@ public class TableFileEditor implements FileEditor {
             return null;
         }
 
-        int partitionIdIndex = -1;
-        int rowIdIndex = -1;
-
-        for (int i = 0; i < entitiesTable.getColumnCount(); i++) {
-            String columnName = entitiesTable.getColumnName(i);
-
-            if (columnName.equals(PARTITION_KEY)) {
-                partitionIdIndex = i;
-            }
-
-            if (columnName.equals(ROW_KEY)) {
-                rowIdIndex = i;
-            }
-        }
-
         ArrayList<TableEntity> selectedEntities = new ArrayList<TableEntity>();
 
+        // refreshGrid adds one row per entity, in list order
         for (int i : entitiesTable.getSelectedRows()) {
-            for (TableEntity tableEntity : tableEntities) {
-                String partitionValue = entitiesTable.getValueAt(i, partitionIdIndex).toString();
-                String rowIdValue = entitiesTable.getValueAt(i, rowIdIndex).toString();
+            int modelIndex = entitiesTable.convertRowIndexToModel(i);
 
-                if (tableEntity.getPartitionKey().equals(partitionValue)
-                        && tableEntity.getRowKey().equals(rowIdValue)) {
-                    selectedEntities.add(tableEntity);
-                }
+            if (modelIndex < tableEntities.size()) {
+                selectedEntities.add(tableEntities.get(modelIndex));
             }
         }
 
@@ -426,6 +616,10 @@ public class TableFileEditor implements FileEditor {
         this.storageAccount = storageAccount;
     }
 
+    public void setConnectionString(String connectionString) {
+        this.connectionString = connectionString;
+    }
+
     public void setTable(Table table) {
         this.table = table;
         this.fileEditorVirtualNode.setName(table.getName());
@@ -505,6 +699,11 @@ public class TableFileEditor implements FileEditor {
 
     @Override
     public void dispose() {
+        if (tableEntityPager != null) {
+            tableEntityPager.close();
+            tableEntityPager = null;
+        }
+
         try {
             unregisterSubscriptionsChanged();
         } catch (AzureCmdException ignored) {
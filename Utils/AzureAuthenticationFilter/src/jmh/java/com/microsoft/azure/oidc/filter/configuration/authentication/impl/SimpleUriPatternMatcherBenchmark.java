@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
+
+/**
+ * Finds the authorisation pattern for a set of request URIs with {@link SimpleUriPatternMatcher} and with the linear
+ * scan over every compiled pattern that it replaced. Half of the patterns are literal paths and half end in a
+ * wildcard, and the URIs hit the last pattern of each kind or miss all of them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimpleUriPatternMatcherBenchmark {
+	@Param({ "10", "100", "1000" })
+	private int patternCount;
+
+	private List<Pattern> regexPatternList;
+	private UriPatternMatcher matcher;
+	private List<String> uriList;
+
+	@Setup
+	public void setUp() {
+		final List<String> uriPatternList = new ArrayList<String>();
+		final Map<String, List<String>> roleMap = new HashMap<String, List<String>>();
+		for (int index = 0; index < patternCount; index++) {
+			final String uriPattern = index % 2 == 0 ? String.format("/app/section%d/page.xhtml", index)
+					: String.format("/app/area%d/*", index);
+			uriPatternList.add(uriPattern);
+			roleMap.put(uriPattern, Arrays.asList("admin"));
+		}
+		final SimpleAuthenticationConfiguration configuration = new SimpleAuthenticationConfiguration(null,
+				uriPatternList, roleMap);
+		regexPatternList = configuration.getAuthorisationRegexPatternList();
+		matcher = new SimpleUriPatternMatcher(uriPatternList, regexPatternList);
+		uriList = Arrays.asList(String.format("/app/section%d/page.xhtml", patternCount - 2),
+				String.format("/app/area%d/reports/2017/summary.xhtml", patternCount - 1),
+				"/public/index.xhtml");
+		for (final String uri : uriList) {
+			final Integer expected = linearMatch(uri);
+			final Integer actual = matcher.match(uri);
+			if (expected == null ? actual != null : !expected.equals(actual)) {
+				throw new IllegalStateException(String.format("Matchers disagree on %s", uri));
+			}
+		}
+	}
+
+	@Benchmark
+	public void linear(final Blackhole blackhole) {
+		for (final String uri : uriList) {
+			blackhole.consume(linearMatch(uri));
+		}
+	}
+
+	@Benchmark
+	public void indexed(final Blackhole blackhole) {
+		for (final String uri : uriList) {
+			blackhole.consume(matcher.match(uri));
+		}
+	}
+
+	private Integer linearMatch(final String uri) {
+		int index = 0;
+		for (final Pattern pattern : regexPatternList) {
+			if (pattern.matcher(uri).matches()) {
+				return index;
+			}
+			index++;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.token.impl;
+
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.binary.Base64;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.configuration.key.exponent.impl.SimpleExponentFactory;
+import com.microsoft.azure.oidc.configuration.key.impl.SimpleKeyFactory;
+import com.microsoft.azure.oidc.configuration.key.modulus.impl.SimpleModulusFactory;
+import com.microsoft.azure.oidc.token.Token;
+
+/**
+ * Verifies the signature of an RS256 Azure AD B2C token as {@link SimpleTokenValidator} does. The uncached path
+ * rebuilds the public key and {@link Signature} for every token, as the validator used to. The cached path takes the
+ * public key kept on the {@link Key} and reuses one {@link Signature} per thread.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SimpleTokenValidatorBenchmark {
+	private static final String ALGORITHM = "SHA256withRSA";
+	private static final String ALGORITHM_CLASS = "RSA";
+
+	@State(Scope.Benchmark)
+	public static class TokenState {
+		Key key;
+		Token token;
+
+		@Setup
+		public void setUp() throws Exception {
+			final KeyPairGenerator generator = KeyPairGenerator.getInstance(ALGORITHM_CLASS);
+			generator.initialize(2048);
+			final KeyPair keyPair = generator.generateKeyPair();
+			final RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+
+			final long now = System.currentTimeMillis() / 1000;
+			final String header = encode("{\"typ\":\"JWT\",\"alg\":\"RS256\",\"kid\":\"X5eXk4xyojNFum1kl2Ytv8dlNP4-c57dO6QGTVBwaNk\"}");
+			final String body = encode("{\"exp\":" + (now + 3600) + ",\"nbf\":" + now + ",\"ver\":\"1.0\","
+					+ "\"iss\":\"https://login.microsoftonline.com/" + UUID.randomUUID() + "/v2.0/\","
+					+ "\"sub\":\"Not supported currently. Use oid claim.\",\"aud\":\"" + UUID.randomUUID() + "\","
+					+ "\"nonce\":\"defaultNonce\",\"iat\":" + now + ",\"auth_time\":" + now + ","
+					+ "\"oid\":\"" + UUID.randomUUID() + "\",\"emails\":[\"someone@example.com\"],"
+					+ "\"tfp\":\"B2C_1_SignUpOrIn\"}");
+			final Signature signer = Signature.getInstance(ALGORITHM);
+			signer.initSign(keyPair.getPrivate());
+			signer.update((header + "." + body).getBytes("UTF-8"));
+			final String signature = Base64.encodeBase64URLSafeString(signer.sign());
+
+			token = SimpeTokenParser.getInstance().getToken(header + "." + body + "." + signature);
+			key = SimpleKeyFactory.getInstance().createKey(
+					SimpleTimeStampFactory.getInstance().createTimeStamp(0L),
+					SimpleModulusFactory.getInstance().createKeyValue(encode(publicKey.getModulus())),
+					SimpleExponentFactory.getInstance().createKeyExponent(encode(publicKey.getPublicExponent())));
+			final SignatureState signatureState = new SignatureState();
+			signatureState.setUp();
+			if (!verifyUncached(this) || !verifyCached(this, signatureState)) {
+				throw new IllegalStateException("Benchmark token does not verify");
+			}
+		}
+
+		private static String encode(final String value) throws Exception {
+			return Base64.encodeBase64URLSafeString(value.getBytes("UTF-8"));
+		}
+
+		private static String encode(final BigInteger value) {
+			final byte[] bytes = value.toByteArray();
+			// JWKS values are unsigned, so drop the sign byte BigInteger adds.
+			return Base64.encodeBase64URLSafeString(
+					bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SignatureState {
+		Signature signature;
+
+		@Setup
+		public void setUp() throws Exception {
+			signature = Signature.getInstance(ALGORITHM);
+		}
+	}
+
+	@Benchmark
+	public boolean uncached(final TokenState state) throws Exception {
+		return verifyUncached(state);
+	}
+
+	@Benchmark
+	public boolean cached(final TokenState state, final SignatureState signatureState) throws Exception {
+		return verifyCached(state, signatureState);
+	}
+
+	private static boolean verifyUncached(final TokenState state) throws Exception {
+		final Base64 decoder = new Base64();
+		final BigInteger exponent = new BigInteger(1, decoder.decode(state.key.getExponent().getValue()));
+		final BigInteger modulus = new BigInteger(1, decoder.decode(state.key.getSecret().getValue()));
+		final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
+		final KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM_CLASS);
+		final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
+		final Signature sig = Signature.getInstance(ALGORITHM);
+		sig.initVerify(pubKey);
+		sig.update(state.token.getPayload().getValue().getBytes());
+		return sig.verify(decoder.decode(state.token.getSignature().getValue()));
+	}
+
+	private static boolean verifyCached(final TokenState state, final SignatureState signatureState)
+			throws Exception {
+		final Base64 decoder = new Base64();
+		final Signature sig = signatureState.signature;
+		sig.initVerify(state.key.getPublicKey(ALGORITHM_CLASS));
+		sig.update(state.token.getPayload().getValue().getBytes());
+		return sig.verify(decoder.decode(state.token.getSignature().getValue()));
+	}
+}
@@ -21,12 +21,28 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.concurrent.cache;
 
+import java.util.concurrent.TimeUnit;
+
 public interface ConcurrentCache<K, V> {
 
 	V get(Object key);
 
+	V put(K key, V value);
+
 	V putIfAbsent(K key, V value);
 
+	V putIfAbsent(K key, V value, Long ttl, TimeUnit timeUnit);
+
+	void clear();
+
+	Long getTimeToLive(Object key, TimeUnit timeUnit);
+
+	Long getHitCount();
+
+	Long getMissCount();
+
+	Long getEvictionCount();
+
 	void shutdownNow();
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+/**
+ * Size bounded cache with per entry expiry. Reads go straight to a
+ * {@link ConcurrentHashMap} without locking; writes lock one of a fixed number
+ * of segments, each of which keeps its entries in a doubly linked list in
+ * access order so that the least recently used entry is evicted in constant
+ * time.
+ */
+public final class LRUConcurrentCache<K, V> implements ConcurrentCache<K, V> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LRUConcurrentCache.class);
+	private static final int MAX_SEGMENTS = 16;
+
+	private final ConcurrentMap<K, Node<K, V>> storeMap;
+	private final Segment<K, V>[] segments;
+	private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final Long ttl;
+
+	@SuppressWarnings("unchecked")
+	public LRUConcurrentCache(final Long ttl, final Long maxSize) {
+		if (ttl == null || maxSize == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (maxSize < 1) {
+			throw new PreconditionException("Maximum size must be greater than zero");
+		}
+		this.ttl = TimeUnit.MINUTES.toMillis(ttl);
+		int segmentCount = 1;
+		while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maxSize) {
+			segmentCount *= 2;
+		}
+		this.segments = new Segment[segmentCount];
+		for (int index = 0; index < segmentCount; index++) {
+			final long capacity = maxSize / segmentCount + (index < maxSize % segmentCount ? 1 : 0);
+			segments[index] = new Segment<K, V>(capacity);
+		}
+		this.storeMap = new ConcurrentHashMap<K, Node<K, V>>(16, 0.75f, segmentCount);
+		scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				final long now = System.currentTimeMillis();
+				for (final Segment<K, V> segment : segments) {
+					removeExpired(segment, now);
+				}
+			}
+		}, 1, 1, TimeUnit.MINUTES);
+	}
+
+	@Override
+	public V get(final Object key) {
+		final Node<K, V> node = storeMap.get(key);
+		if (node == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		final Segment<K, V> segment = getSegment(node.key);
+		if (node.isExpired(System.currentTimeMillis())) {
+			segment.lock();
+			try {
+				remove(segment, node);
+			} finally {
+				segment.unlock();
+			}
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		if (segment.tryLock()) {
+			try {
+				segment.moveToTail(node);
+			} finally {
+				segment.unlock();
+			}
+		}
+		return node.value;
+	}
+
+	@Override
+	public V put(final K key, final V value) {
+		if (key == null || value == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final long now = System.currentTimeMillis();
+		final Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			final Node<K, V> existing = storeMap.get(key);
+			if (existing != null) {
+				remove(segment, existing);
+			}
+			add(segment, new Node<K, V>(key, value, now + ttl));
+			return existing == null || existing.isExpired(now) ? null : existing.value;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public V putIfAbsent(final K key, final V value) {
+		return putIfAbsent(key, value, ttl, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public V putIfAbsent(final K key, final V value, final Long ttl, final TimeUnit timeUnit) {
+		if (key == null || value == null || ttl == null || timeUnit == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final long now = System.currentTimeMillis();
+		final Segment<K, V> segment = getSegment(key);
+		segment.lock();
+		try {
+			final Node<K, V> existing = storeMap.get(key);
+			if (existing != null) {
+				if (!existing.isExpired(now)) {
+					segment.moveToTail(existing);
+					return existing.value;
+				}
+				remove(segment, existing);
+			}
+			add(segment, new Node<K, V>(key, value, now + timeUnit.toMillis(ttl)));
+			return null;
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (final Segment<K, V> segment : segments) {
+			segment.lock();
+			try {
+				while (segment.head != null) {
+					remove(segment, segment.head);
+				}
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	@Override
+	public Long getTimeToLive(final Object key, final TimeUnit timeUnit) {
+		if (key == null || timeUnit == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final Node<K, V> node = storeMap.get(key);
+		if (node == null) {
+			return null;
+		}
+		final long remaining = node.expiresAt - System.currentTimeMillis();
+		return remaining <= 0 ? null : timeUnit.convert(remaining, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public Long getHitCount() {
+		return hitCount.get();
+	}
+
+	@Override
+	public Long getMissCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public Long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	@Override
+	public void shutdownNow() {
+		scheduledExecutorService.shutdownNow();
+		LOGGER.info("Cache statistics: hits={}, misses={}, evictions={}", getHitCount(), getMissCount(),
+				getEvictionCount());
+	}
+
+	private void removeExpired(final Segment<K, V> segment, final long now) {
+		segment.lock();
+		try {
+			Node<K, V> node = segment.head;
+			while (node != null) {
+				final Node<K, V> next = node.next;
+				if (node.isExpired(now)) {
+					remove(segment, node);
+				}
+				node = next;
+			}
+		} finally {
+			segment.unlock();
+		}
+	}
+
+	private void add(final Segment<K, V> segment, final Node<K, V> node) {
+		while (segment.size >= segment.capacity) {
+			remove(segment, segment.head);
+			evictionCount.incrementAndGet();
+		}
+		segment.addToTail(node);
+		storeMap.put(node.key, node);
+	}
+
+	private void remove(final Segment<K, V> segment, final Node<K, V> node) {
+		if (segment.unlink(node)) {
+			storeMap.remove(node.key, node);
+		}
+	}
+
+	private Segment<K, V> getSegment(final Object key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (segments.length - 1)];
+	}
+
+	private static final class Segment<K, V> extends ReentrantLock {
+		private static final long serialVersionUID = 1L;
+
+		private final long capacity;
+		private Node<K, V> head;
+		private Node<K, V> tail;
+		private long size;
+
+		Segment(final long capacity) {
+			this.capacity = capacity;
+		}
+
+		void addToTail(final Node<K, V> node) {
+			node.prev = tail;
+			node.next = null;
+			if (tail == null) {
+				head = node;
+			} else {
+				tail.next = node;
+			}
+			tail = node;
+			node.linked = true;
+			size++;
+		}
+
+		void moveToTail(final Node<K, V> node) {
+			if (node == tail || !node.linked) {
+				return;
+			}
+			unlink(node);
+			addToTail(node);
+		}
+
+		boolean unlink(final Node<K, V> node) {
+			if (!node.linked) {
+				return false;
+			}
+			if (node.prev == null) {
+				head = node.next;
+			} else {
+				node.prev.next = node.next;
+			}
+			if (node.next == null) {
+				tail = node.prev;
+			} else {
+				node.next.prev = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+			node.linked = false;
+			size--;
+			return true;
+		}
+	}
+
+	private static final class Node<K, V> {
+		private final K key;
+		private final V value;
+		private final long expiresAt;
+		private Node<K, V> prev;
+		private Node<K, V> next;
+		private boolean linked;
+
+		Node(final K key, final V value, final long expiresAt) {
+			this.key = key;
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(final long now) {
+			return expiresAt <= now;
+		}
+	}
+}
@@ -30,7 +30,7 @@ public class SimpleConcurrentCacheFactory<K, V> implements ConcurrentCacheFactor
 
 	@Override
 	public ConcurrentCache<K, V> createConcurrentCache(Long ttl, Long maxSize) {
-		return new TTLConcurrentCache<K, V>(ttl, maxSize);
+		return new LRUConcurrentCache<K, V>(ttl, maxSize);
 	}
 
 	@SuppressWarnings("unchecked")
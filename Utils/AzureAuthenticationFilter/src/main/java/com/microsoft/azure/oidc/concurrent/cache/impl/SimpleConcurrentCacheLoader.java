@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheLoader;
+import com.microsoft.azure.oidc.concurrent.executor.ConcurrentExecutorService;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleConcurrentExecutorService;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.future.FutureHelper;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
+
+/**
+ * Loads missing cache entries so that concurrent misses on the same key share
+ * a single in-flight load. Entries that are read within the refresh-ahead
+ * window before they expire are reloaded in the background while the current
+ * value keeps being returned.
+ */
+public final class SimpleConcurrentCacheLoader implements ConcurrentCacheLoader {
+	private static final ConcurrentCacheLoader INSTANCE = new SimpleConcurrentCacheLoader();
+
+	private final ConcurrentMap<InFlightKey, Future<?>> inFlightMap = new ConcurrentHashMap<InFlightKey, Future<?>>();
+
+	private final ConcurrentExecutorService concurrentExecutorService = SimpleConcurrentExecutorService.getInstance();
+
+	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+
+	@Override
+	public <V> V load(final ConcurrentCache<String, V> cache, final String key, final Callable<V> loader,
+			final Long refreshAhead, final TimeUnit timeUnit) {
+		if (cache == null || key == null || loader == null || refreshAhead == null || timeUnit == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final V entry = cache.get(key);
+		if (entry != null) {
+			final Long timeToLive = cache.getTimeToLive(key, timeUnit);
+			if (timeToLive != null && timeToLive <= refreshAhead) {
+				getInFlight(cache, key, loader);
+			}
+			return entry;
+		}
+		return futureHelper.getResult(getInFlight(cache, key, loader));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <V> Future<V> getInFlight(final ConcurrentCache<String, V> cache, final String key,
+			final Callable<V> loader) {
+		final InFlightKey inFlightKey = new InFlightKey(cache, key);
+		final FutureTask<V> task = new FutureTask<V>(new Callable<V>() {
+			@Override
+			public V call() throws Exception {
+				final V result = loader.call();
+				if (result != null) {
+					cache.put(key, result);
+				}
+				return result;
+			}
+		});
+		final Future<?> existing = inFlightMap.putIfAbsent(inFlightKey, task);
+		if (existing != null) {
+			return (Future<V>) existing;
+		}
+		try {
+			concurrentExecutorService.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					try {
+						task.run();
+					} finally {
+						inFlightMap.remove(inFlightKey, task);
+					}
+					return null;
+				}
+			});
+		} catch (RuntimeException e) {
+			inFlightMap.remove(inFlightKey, task);
+			throw e;
+		}
+		return task;
+	}
+
+	public static ConcurrentCacheLoader getInstance() {
+		return INSTANCE;
+	}
+
+	private static final class InFlightKey {
+		private final ConcurrentCache<?, ?> cache;
+		private final String key;
+
+		InFlightKey(final ConcurrentCache<?, ?> cache, final String key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(cache) + key.hashCode();
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			final InFlightKey other = (InFlightKey) obj;
+			return cache == other.cache && key.equals(other.key);
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.concurrent.executor.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.microsoft.azure.oidc.concurrent.executor.ConcurrentExecutorService;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+public final class SimpleConcurrentExecutorService implements ConcurrentExecutorService {
+	private static final ConcurrentExecutorService INSTANCE = new SimpleConcurrentExecutorService();
+	private static final Integer DEFAULT_POOL_SIZE = 8;
+	private static final Integer DEFAULT_QUEUE_SIZE = 100;
+
+	private volatile ThreadPoolExecutor executorService;
+
+	@Override
+	public synchronized void initialise(final Integer poolSize, final Integer queueSize) {
+		if (poolSize == null || queueSize == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (poolSize < 1 || queueSize < 1) {
+			throw new PreconditionException("Pool size and queue size must be greater than zero");
+		}
+		final ThreadPoolExecutor previous = executorService;
+		executorService = createExecutorService(poolSize, queueSize);
+		if (previous != null) {
+			previous.shutdown();
+		}
+	}
+
+	@Override
+	public <T> Future<T> submit(final Callable<T> callable) {
+		if (callable == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		return getExecutorService().submit(callable);
+	}
+
+	@Override
+	public synchronized void shutdownNow() {
+		if (executorService != null) {
+			executorService.shutdownNow();
+			executorService = null;
+		}
+	}
+
+	private ThreadPoolExecutor getExecutorService() {
+		final ThreadPoolExecutor current = executorService;
+		if (current != null) {
+			return current;
+		}
+		synchronized (this) {
+			if (executorService == null) {
+				executorService = createExecutorService(DEFAULT_POOL_SIZE, DEFAULT_QUEUE_SIZE);
+			}
+			return executorService;
+		}
+	}
+
+	private ThreadPoolExecutor createExecutorService(final Integer poolSize, final Integer queueSize) {
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 60L,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+					private final AtomicInteger threadCount = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable,
+								String.format("oidc-async-%s", threadCount.incrementAndGet()));
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		threadPoolExecutor.allowCoreThreadTimeOut(true);
+		return threadPoolExecutor;
+	}
+
+	public static ConcurrentExecutorService getInstance() {
+		return INSTANCE;
+	}
+}
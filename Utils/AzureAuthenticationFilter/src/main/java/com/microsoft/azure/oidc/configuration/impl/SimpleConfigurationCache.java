@@ -21,36 +21,37 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheLoader;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheLoader;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 
 public class SimpleConfigurationCache implements ConfigurationCache {
 	private static final ConfigurationCache INSTANCE = new SimpleConfigurationCache();
+	private static final Long REFRESH_AHEAD = 5L;
 
 	private final ConfigurationLoader configurationLoader = SimpleConfigurationLoader.getInstance();
 
-	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+	private final ConcurrentCacheLoader concurrentCacheLoader = SimpleConcurrentCacheLoader.getInstance();
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
 	@Override
 	public Configuration load() {
 		final String key = "SINGLE";
-		final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(key);
-		if (entry != null) {
-			return entry;
-		}
-		final Configuration result = futureHelper.getResult(configurationLoader.loadAsync());
-		if (result == null) {
-			return result;
-		}
-		concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(key, result);
-		return result;
+		return concurrentCacheLoader.load(concurrentCacheService.getCache(Configuration.class, "configurationCache"),
+				key, new Callable<Configuration>() {
+					@Override
+					public Configuration call() throws Exception {
+						return configurationLoader.load();
+					}
+				}, REFRESH_AHEAD, TimeUnit.MINUTES);
 	}
 
 	public static ConfigurationCache getInstance() {
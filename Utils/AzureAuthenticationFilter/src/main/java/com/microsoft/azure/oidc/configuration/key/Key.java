@@ -21,6 +21,8 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.key;
 
+import java.security.PublicKey;
+
 import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.configuration.key.exponent.Exponent;
 import com.microsoft.azure.oidc.configuration.key.modulus.Modulus;
@@ -33,6 +35,8 @@ public interface Key {
 
 	Exponent getExponent();
 
+	PublicKey getPublicKey(String algorithmClass);
+
 	boolean equals(Object object);
 	
 	int hashCode();
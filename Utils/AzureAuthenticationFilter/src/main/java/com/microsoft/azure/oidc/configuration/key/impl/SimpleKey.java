@@ -21,16 +21,29 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.key.impl;
 
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.codec.binary.Base64;
+
 import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.configuration.key.Key;
 import com.microsoft.azure.oidc.configuration.key.exponent.Exponent;
 import com.microsoft.azure.oidc.configuration.key.modulus.Modulus;
+import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 
 final class SimpleKey implements Key {
 	private final TimeStamp notBefore;
 	private final Modulus secret;
 	private final Exponent exponent;
+	private final ConcurrentMap<String, PublicKey> publicKeyMap = new ConcurrentHashMap<String, PublicKey>();
 
 	public SimpleKey(final TimeStamp notBefore, final Modulus secret, final Exponent exponent) {
 		if (notBefore == null || secret == null || exponent == null) {
@@ -56,6 +69,33 @@ final class SimpleKey implements Key {
 		return exponent;
 	}
 
+	@Override
+	public PublicKey getPublicKey(final String algorithmClass) {
+		if (algorithmClass == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final PublicKey publicKey = publicKeyMap.get(algorithmClass);
+		if (publicKey != null) {
+			return publicKey;
+		}
+		final PublicKey newPublicKey = createPublicKey(algorithmClass);
+		final PublicKey existingPublicKey = publicKeyMap.putIfAbsent(algorithmClass, newPublicKey);
+		return existingPublicKey == null ? newPublicKey : existingPublicKey;
+	}
+
+	private PublicKey createPublicKey(final String algorithmClass) {
+		try {
+			final Base64 decoder = new Base64();
+			final BigInteger exponent = new BigInteger(1, decoder.decode(getExponent().getValue()));
+			final BigInteger modulus = new BigInteger(1, decoder.decode(getSecret().getValue()));
+			final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
+			final KeyFactory keyFactory = KeyFactory.getInstance(algorithmClass);
+			return keyFactory.generatePublic(pubKeySpec);
+		} catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+			throw new GeneralException("Error creating public key", e);
+		}
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
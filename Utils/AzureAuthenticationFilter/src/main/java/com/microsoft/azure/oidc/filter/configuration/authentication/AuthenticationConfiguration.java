@@ -37,4 +37,8 @@ public interface AuthenticationConfiguration {
 
 	Map<String, List<String>> getAuthorisationRoleMap();
 
+	Boolean isExcluded(String uri);
+
+	List<String> getAuthorisationRoleList(String uri);
+
 }
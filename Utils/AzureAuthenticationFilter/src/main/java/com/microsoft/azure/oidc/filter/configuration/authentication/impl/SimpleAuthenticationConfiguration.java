@@ -27,8 +27,11 @@ import java.util.Map;
 import java.util.regex.Pattern;
 
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
 
 final class SimpleAuthenticationConfiguration implements AuthenticationConfiguration {
+	private static final String FACES_RESOURCE_PATTERN = "/javax.faces.resource/*";
+
 	private List<String> exclusionUriPatternList;
 	private List<String> authorisationUriPatternList;
 	private Map<String, List<String>> authorisationRoleMap;
@@ -36,6 +39,9 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 	private List<Pattern> exclusionRegexPatternList;
 	private List<Pattern> authorisationRegexPatternList;
 
+	private UriPatternMatcher exclusionMatcher;
+	private UriPatternMatcher authorisationMatcher;
+
 	public SimpleAuthenticationConfiguration(final List<String> exclusionUriPatternList,
 			final List<String> authorisationUriPatternList, final Map<String, List<String>> authorisationRoleMap) {
 		setExclusionUriPatternList(exclusionUriPatternList);
@@ -43,14 +49,32 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 		setAuthorisationRoleMap(authorisationRoleMap);
 	}
 
+	@Override
+	public Boolean isExcluded(final String uri) {
+		return exclusionMatcher.match(uri) != null;
+	}
+
+	@Override
+	public List<String> getAuthorisationRoleList(final String uri) {
+		final Integer index = authorisationMatcher.match(uri);
+		if (index == null) {
+			return null;
+		}
+		return authorisationRoleMap.get(authorisationUriPatternList.get(index));
+	}
+
 	private void setExclusionUriPatternList(List<String> exclusionUriPatternList) {
 		this.exclusionUriPatternList = exclusionUriPatternList;
 		exclusionRegexPatternList = new ArrayList<Pattern>();
+		final List<String> exclusionMatcherPatternList = new ArrayList<String>();
 		exclusionRegexPatternList.add(Pattern.compile(
-				"/javax.faces.resource/*".replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-		if (exclusionRegexPatternList == null) {
+				FACES_RESOURCE_PATTERN.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
+		exclusionMatcherPatternList.add(FACES_RESOURCE_PATTERN);
+		if (exclusionUriPatternList == null) {
+			exclusionMatcher = new SimpleUriPatternMatcher(exclusionMatcherPatternList, exclusionRegexPatternList);
 			return;
 		}
+		exclusionMatcherPatternList.addAll(exclusionUriPatternList);
 		for (final String pattern : exclusionUriPatternList) {
 			final String localPattern = pattern.trim();
 			if (localPattern.endsWith("*")) {
@@ -64,12 +88,14 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		exclusionMatcher = new SimpleUriPatternMatcher(exclusionMatcherPatternList, exclusionRegexPatternList);
 	}
 
 	private void setAuthorisationUriPatternList(List<String> authorisationUriPatternList) {
 		this.authorisationUriPatternList = authorisationUriPatternList;
 		authorisationRegexPatternList = new ArrayList<Pattern>();
 		if (authorisationUriPatternList == null) {
+			authorisationMatcher = new SimpleUriPatternMatcher(new ArrayList<String>(), authorisationRegexPatternList);
 			return;
 		}
 		for (final String pattern : authorisationUriPatternList) {
@@ -85,6 +111,7 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		authorisationMatcher = new SimpleUriPatternMatcher(authorisationUriPatternList, authorisationRegexPatternList);
 	}
 
 	private void setAuthorisationRoleMap(Map<String, List<String>> authorisationRoleMap) {
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
+
+/**
+ * Finds the first pattern, in configuration order, that matches a URI.
+ * Patterns without a wildcard are looked up in a hash map. Wildcard patterns
+ * are stored in a trie under their literal prefix, so only the patterns whose
+ * prefix matches the start of the URI are tried.
+ */
+final class SimpleUriPatternMatcher implements UriPatternMatcher {
+	private final List<Pattern> regexPatternList;
+	private final Map<String, Integer> literalIndexMap = new HashMap<String, Integer>();
+	private final TrieNode root = new TrieNode();
+
+	SimpleUriPatternMatcher(final List<String> uriPatternList, final List<Pattern> regexPatternList) {
+		if (uriPatternList == null || regexPatternList == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (uriPatternList.size() != regexPatternList.size()) {
+			throw new PreconditionException("Pattern lists differ in size");
+		}
+		this.regexPatternList = regexPatternList;
+		for (int index = 0; index < uriPatternList.size(); index++) {
+			final String uriPattern = uriPatternList.get(index).trim();
+			final int wildcardIndex = uriPattern.indexOf('*');
+			if (wildcardIndex < 0) {
+				if (!literalIndexMap.containsKey(uriPattern)) {
+					literalIndexMap.put(uriPattern, index);
+				}
+				continue;
+			}
+			TrieNode node = root;
+			for (int position = 0; position < wildcardIndex; position++) {
+				node = node.getOrCreateChild(uriPattern.charAt(position));
+			}
+			node.indexList.add(index);
+		}
+	}
+
+	@Override
+	public Integer match(final String uri) {
+		if (uri == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final Integer literalIndex = literalIndexMap.get(uri);
+		int result = literalIndex == null ? Integer.MAX_VALUE : literalIndex;
+		TrieNode node = root;
+		for (int position = 0; node != null; position++) {
+			for (final Integer index : node.indexList) {
+				if (index >= result) {
+					break;
+				}
+				if (regexPatternList.get(index).matcher(uri).matches()) {
+					result = index;
+					break;
+				}
+			}
+			node = position < uri.length() ? node.children.get(uri.charAt(position)) : null;
+		}
+		return result == Integer.MAX_VALUE ? null : result;
+	}
+
+	private static final class TrieNode {
+		private final Map<Character, TrieNode> children = new HashMap<Character, TrieNode>();
+		private final List<Integer> indexList = new ArrayList<Integer>();
+
+		TrieNode getOrCreateChild(final Character character) {
+			TrieNode child = children.get(character);
+			if (child == null) {
+				child = new TrieNode();
+				children.put(character, child);
+			}
+			return child;
+		}
+	}
+}
@@ -52,6 +52,8 @@ public interface AuthenticationHelper {
 
 	Token getToken(String tokenString);
 
+	Token getValidToken(String tokenString);
+
 	Boolean isValidToken(Token token);
 
 	Boolean isActiveToken(Token token);
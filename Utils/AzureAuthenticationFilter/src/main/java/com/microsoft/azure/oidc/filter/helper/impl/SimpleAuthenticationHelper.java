@@ -25,8 +25,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -61,9 +59,11 @@ import com.microsoft.azure.oidc.filter.request.impl.SandboxRequestWrapper;
 import com.microsoft.azure.oidc.graph.GraphCache;
 import com.microsoft.azure.oidc.graph.impl.SimpleGraphCache;
 import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
 import com.microsoft.azure.oidc.token.TokenParser;
 import com.microsoft.azure.oidc.token.TokenValidator;
 import com.microsoft.azure.oidc.token.impl.SimpeTokenParser;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenCache;
 import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
 
 public final class SimpleAuthenticationHelper implements AuthenticationHelper {
@@ -76,6 +76,8 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 
 	private final TokenValidator tokenValidator = SimpleTokenValidator.getInstance();
 
+	private final TokenCache tokenCache = SimpleTokenCache.getInstance();
+
 	private final GraphCache graphCache = SimpleGraphCache.getInstance();
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
@@ -172,6 +174,23 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 		return tokenParser.getToken(tokenString);
 	}
 
+	@Override
+	public Token getValidToken(final String tokenString) {
+		if (tokenString == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final Token cachedToken = tokenCache.load(tokenString);
+		if (cachedToken != null) {
+			return cachedToken;
+		}
+		final Token token = getToken(tokenString);
+		if (!isValidToken(token)) {
+			return null;
+		}
+		tokenCache.store(tokenString, token);
+		return token;
+	}
+
 	@Override
 	public Boolean isValidToken(final Token token) {
 		return tokenValidator.validateCommon(token);
@@ -226,14 +245,7 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 			final int length = httpRequest.getRequestURI().length();
 			uriString = httpRequest.getRequestURI().substring(length);
 		}
-		for (final Pattern pattern : authenticationConfigurationService.get().getExclusionRegexPatternList()) {
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
-				return Boolean.TRUE;
-			}
-		}
-		return Boolean.FALSE;
+		return authenticationConfigurationService.get().isExcluded(uriString);
 	}
 
 	private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
@@ -245,25 +257,18 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 			final int length = httpRequest.getRequestURI().length();
 			uriString = httpRequest.getRequestURI().substring(length);
 		}
-		int index = 0;
-		for (final String urlPattern : authenticationConfigurationService.get().getAuthorisationUriPatternList()) {
-			final Pattern pattern = authenticationConfigurationService.get().getAuthorisationRegexPatternList()
-					.get(index++);
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
-				final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
-				for (final String roleName : authenticationConfigurationService.get().getAuthorisationRoleMap()
-						.get(urlPattern)) {
-					final Boolean isUserInRole = authRequest.isUserInRole(roleName);
-					if (isUserInRole) {
-						return Boolean.TRUE;
-					}
-				}
-				return Boolean.FALSE;
+		final List<String> roleList = authenticationConfigurationService.get().getAuthorisationRoleList(uriString);
+		if (roleList == null) {
+			return Boolean.TRUE;
+		}
+		final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
+		for (final String roleName : roleList) {
+			final Boolean isUserInRole = authRequest.isUserInRole(roleName);
+			if (isUserInRole) {
+				return Boolean.TRUE;
 			}
 		}
-		return Boolean.TRUE;
+		return Boolean.FALSE;
 	}
 
 	private String addCookie(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
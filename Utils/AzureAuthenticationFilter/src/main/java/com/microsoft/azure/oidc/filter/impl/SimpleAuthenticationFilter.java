@@ -22,6 +22,7 @@
 package com.microsoft.azure.oidc.filter.impl;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -34,6 +35,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.executor.ConcurrentExecutorService;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleConcurrentExecutorService;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
@@ -43,6 +46,8 @@ import com.microsoft.azure.oidc.filter.configuration.authentication.Authenticati
 import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
 import com.microsoft.azure.oidc.filter.helper.impl.SimpleAuthenticationHelper;
+import com.microsoft.azure.oidc.future.FutureHelper;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.token.Token;
 
 public final class SimpleAuthenticationFilter implements Filter {
@@ -53,6 +58,9 @@ public final class SimpleAuthenticationFilter implements Filter {
 	private static final String NO_ERROR_STRING = null;
 	private static final String NO_TOKEN_STRING = null;
 	private static final Token NO_TOKEN = null;
+	private static final Integer DEFAULT_ASYNC_POOL_SIZE = 8;
+	private static final Integer DEFAULT_ASYNC_QUEUE_SIZE = 100;
+	private static final Long DEFAULT_ASYNC_TIMEOUT = 30000L;
 
 	private final AuthenticationHelper authenticationHelper = SimpleAuthenticationHelper.getInstance();
 
@@ -64,9 +72,14 @@ public final class SimpleAuthenticationFilter implements Filter {
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final ConcurrentExecutorService concurrentExecutorService = SimpleConcurrentExecutorService.getInstance();
+
+	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+
 	@Override
 	public void destroy() {
 		concurrentCacheService.shutdownNow();
+		concurrentExecutorService.shutdownNow();
 	}
 
 	@Override
@@ -83,8 +96,8 @@ public final class SimpleAuthenticationFilter implements Filter {
 				getHelper().doUnauthenticatedAction(chain, httpRequest, httpResponse, NO_TOKEN, isAuthenticationError);
 				return;
 			}
-			final Token token = getHelper().getToken(tokenString);
-			final Boolean isInvalidToken = !getHelper().isValidToken(token);
+			final Token token = getHelper().getValidToken(tokenString);
+			final Boolean isInvalidToken = token == NO_TOKEN;
 			if (isInvalidToken) {
 				getHelper().doInvalidTokenAction(httpResponse);
 				return;
@@ -110,6 +123,21 @@ public final class SimpleAuthenticationFilter implements Filter {
 					Long.parseLong(securityCacheSizeString));
 		}
 		concurrentCacheService.createCache(Configuration.class, "configurationCache", 60L, 1L);
+		concurrentCacheService.createCache(String.class, "groupCache", 1440L, 1000L);
+		final String tokenCacheSizeString = filterConfig.getInitParameter("tokenCacheSize");
+		if (tokenCacheSizeString == null) {
+			concurrentCacheService.createCache(Token.class, "tokenCache", 60L, 10000L);
+		} else {
+			concurrentCacheService.createCache(Token.class, "tokenCache", 60L, Long.parseLong(tokenCacheSizeString));
+		}
+		final String asyncPoolSizeString = filterConfig.getInitParameter("asyncPoolSize");
+		final String asyncQueueSizeString = filterConfig.getInitParameter("asyncQueueSize");
+		concurrentExecutorService.initialise(
+				asyncPoolSizeString == null ? DEFAULT_ASYNC_POOL_SIZE : Integer.valueOf(asyncPoolSizeString),
+				asyncQueueSizeString == null ? DEFAULT_ASYNC_QUEUE_SIZE : Integer.valueOf(asyncQueueSizeString));
+		final String asyncTimeoutString = filterConfig.getInitParameter("asyncTimeout");
+		futureHelper.initialise(asyncTimeoutString == null ? DEFAULT_ASYNC_TIMEOUT : Long.valueOf(asyncTimeoutString),
+				TimeUnit.MILLISECONDS);
 		authenticationConfigurationService.initialise(filterConfig, AUTHENTICATION_CONFIGURATION);
 		algorithmConfigurationService.initialise(filterConfig, ALGORITHM_CONFIGURATION);
 	}
@@ -21,8 +21,11 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.future.impl;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,20 +36,37 @@ import com.microsoft.azure.oidc.future.FutureHelper;
 public class SimpleFutureHelper implements FutureHelper {
 	private static final FutureHelper INSTANCE = new SimpleFutureHelper();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleFutureHelper.class);
+	private static final long DEFAULT_TIMEOUT = 30000L;
+
+	private volatile Long timeoutMillis = DEFAULT_TIMEOUT;
+
+	@Override
+	public void initialise(final Long timeout, final TimeUnit timeUnit) {
+		if (timeout == null || timeUnit == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		timeoutMillis = timeUnit.toMillis(timeout);
+	}
 
 	@Override
-	public <T> T getResult(Future<T> future) {
-		if (future == null) {
+	public <T> T getResult(final Future<T> future) {
+		return getResult(future, timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public <T> T getResult(final Future<T> future, final Long timeout, final TimeUnit timeUnit) {
+		if (future == null || timeout == null || timeUnit == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
 		try {
-			while (!future.isDone() && !future.isCancelled()) {
-				Thread.sleep(10);
-			}
-			if (!future.isCancelled()) {
-				return future.get();
-			}
-		} catch (InterruptedException | ExecutionException e) {
+			return future.get(timeout, timeUnit);
+		} catch (TimeoutException e) {
+			LOGGER.error(String.format("Timed out after %s %s", timeout, timeUnit), e);
+			future.cancel(true);
+		} catch (InterruptedException e) {
+			LOGGER.error(e.getMessage(), e);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | CancellationException e) {
 			LOGGER.error(e.getMessage(), e);
 		}
 		return null;
@@ -21,35 +21,72 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph.impl;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheLoader;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheLoader;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.graph.GraphCache;
 import com.microsoft.azure.oidc.graph.GraphService;
 
 public class SimpleGraphCache implements GraphCache {
 	private static final GraphCache INSTANCE = new SimpleGraphCache();
+	private static final Long REFRESH_AHEAD = 2L;
 
 	private final GraphService springGraphService = SimpleGraphService.getInstance();
 
-	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+	private final ConcurrentCacheLoader concurrentCacheLoader = SimpleConcurrentCacheLoader.getInstance();
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final AuthenticationConfigurationService authenticationConfigurationService = SimpleAuthenticationConfigurationService
+			.getInstance();
+
 	@Override
-	public Boolean isUserInRole(String userID, String role) {
-		final String key = String.format("%s:%s", userID, role);
-		final Boolean entry = concurrentCacheService.getCache(Boolean.class, "roleCache").get(key);
-		if (entry != null) {
-			return entry;
+	public Boolean isUserInRole(final String userID, final String role) {
+		final ConcurrentCache<String, Boolean> roleCache = concurrentCacheService.getCache(Boolean.class, "roleCache");
+		return concurrentCacheLoader.load(roleCache, getKey(userID, role), new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				final Map<String, Boolean> userRoles = springGraphService.getUserRoles(userID, getRoles(role));
+				if (userRoles == null) {
+					return Boolean.FALSE;
+				}
+				for (final Map.Entry<String, Boolean> userRole : userRoles.entrySet()) {
+					if (!userRole.getKey().equals(role)) {
+						roleCache.put(getKey(userID, userRole.getKey()), userRole.getValue());
+					}
+				}
+				return userRoles.get(role);
+			}
+		}, REFRESH_AHEAD, TimeUnit.MINUTES);
+	}
+
+	private Set<String> getRoles(final String role) {
+		final Set<String> roles = new LinkedHashSet<String>();
+		roles.add(role);
+		final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+		if (authenticationConfiguration == null || authenticationConfiguration.getAuthorisationRoleMap() == null) {
+			return roles;
 		}
-		final Boolean result = futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
-		if (result == null) {
-			return result;
+		for (final List<String> configuredRoles : authenticationConfiguration.getAuthorisationRoleMap().values()) {
+			roles.addAll(configuredRoles);
 		}
-		concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
-		return result;
+		return roles;
+	}
+
+	private String getKey(final String userID, final String role) {
+		return String.format("%s:%s", userID, role);
 	}
 
 	public static GraphCache getInstance() {
@@ -26,10 +26,18 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -38,58 +46,116 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.Secret;
 import com.microsoft.azure.oidc.application.settings.Tenant;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
 import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.executor.ConcurrentExecutorService;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleConcurrentExecutorService;
 import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.graph.GraphService;
 
 public final class SimpleGraphService implements GraphService {
 	private static final GraphService INSTANCE = new SimpleGraphService();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleGraphService.class);
+	private static final int MAX_GROUPS_PER_CHECK = 20;
+	private static final long DEFAULT_EXPIRES_IN = 3600L;
+	private static final long REFRESH_AHEAD = 300000L;
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
+	private final ConcurrentExecutorService concurrentExecutorService = SimpleConcurrentExecutorService.getInstance();
+
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	private final AtomicReference<BearerToken> bearerTokenReference = new AtomicReference<BearerToken>();
+
+	private final Lock bearerTokenLock = new ReentrantLock();
+
 	@Override
 	public Future<Boolean> isUserInRoleAsync(final String userID, final String role) {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+		return concurrentExecutorService.submit(new Callable<Boolean>() {
 			public Boolean call() throws Exception {
 				return isUserInRole(userID, role);
 			}
 		});
-		executorService.shutdown();
-		return future;
 	}
 
-	private Boolean isUserInRole(final String userID, final String role) {
+	@Override
+	public Boolean isUserInRole(final String userID, final String role) {
+		final Map<String, Boolean> userRoles = getUserRoles(userID, Collections.singletonList(role));
+		if (userRoles == null) {
+			return Boolean.FALSE;
+		}
+		return userRoles.get(role);
+	}
+
+	@Override
+	public Map<String, Boolean> getUserRoles(final String userID, final Collection<String> roles) {
+		if (userID == null || roles == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
 		try {
 			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
 			final String bearerToken = getBearerToken(applicationSettings.getTenant(),
 					applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
-			final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
-			if (roleID == null) {
-				return Boolean.FALSE;
+			if (bearerToken == null) {
+				return null;
+			}
+			final Map<String, Boolean> userRoles = new HashMap<String, Boolean>();
+			final Map<String, String> groupRoleMap = new HashMap<String, String>();
+			for (final String role : roles) {
+				userRoles.put(role, Boolean.FALSE);
+				final String groupID = getCachedGroupID(applicationSettings.getTenant(), role, bearerToken);
+				if (groupID != null) {
+					groupRoleMap.put(groupID, role);
+				}
+			}
+			final List<String> groupIDs = new ArrayList<String>(groupRoleMap.keySet());
+			for (int index = 0; index < groupIDs.size(); index += MAX_GROUPS_PER_CHECK) {
+				final List<String> memberGroupIDs = getMemberGroups(applicationSettings.getTenant(), userID,
+						groupIDs.subList(index, Math.min(index + MAX_GROUPS_PER_CHECK, groupIDs.size())),
+						bearerToken);
+				if (memberGroupIDs == null) {
+					return null;
+				}
+				for (final String memberGroupID : memberGroupIDs) {
+					final String role = groupRoleMap.get(memberGroupID);
+					if (role != null) {
+						userRoles.put(role, Boolean.TRUE);
+					}
+				}
 			}
-			return isUserInGroup(applicationSettings.getTenant(), userID, roleID, bearerToken);
+			return userRoles;
 		} catch (GeneralException e) {
 			LOGGER.error("General Exception", e);
-			return Boolean.FALSE;
+			return null;
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
-			return Boolean.FALSE;
+			return null;
 		}
 	}
 
-	private Boolean isUserInGroup(final Tenant tenant, final String userID, final String groupID,
+	private List<String> getMemberGroups(final Tenant tenant, final String userID, final List<String> groupIDs,
 			final String bearerToken) {
 		try {
-			final String urlString = String.format("https://graph.windows.net/%s/isMemberOf?api-version=1.6",
-					tenant.getName());
-			final String payload = String.format("{\"groupId\":\"%s\",\"memberId\":\"%s\"}", groupID, userID);
+			final String urlString = String.format(
+					"https://graph.windows.net/%s/users/%s/checkMemberGroups?api-version=1.6", tenant.getName(),
+					URLEncoder.encode(userID, "UTF-8"));
+			final ObjectMapper mapper = new ObjectMapper();
+			final ObjectNode payloadNode = mapper.createObjectNode();
+			final ArrayNode groupIDsNode = payloadNode.putArray("groupIds");
+			for (final String groupID : groupIDs) {
+				groupIDsNode.add(groupID);
+			}
 			final URL url = new URL(urlString);
 			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
 			connection.setRequestProperty("Host", "graph.windows.net");
@@ -98,7 +164,7 @@ public final class SimpleGraphService implements GraphService {
 			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
 			connection.setRequestMethod("POST");
 			connection.setDoOutput(true);
-			connection.getOutputStream().write(payload.getBytes());
+			connection.getOutputStream().write(mapper.writeValueAsBytes(payloadNode));
 			connection.getOutputStream().flush();
 			final StringBuilder result = new StringBuilder();
 			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
@@ -106,16 +172,36 @@ public final class SimpleGraphService implements GraphService {
 					result.append(line);
 				}
 			}
-			final ObjectMapper mapper = new ObjectMapper();
 			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-			return node.get("value").asBoolean();
+			final List<String> memberGroupIDs = new ArrayList<String>();
+			for (final JsonNode groupNode : node.get("value")) {
+				memberGroupIDs.add(groupNode.asText());
+			}
+			return memberGroupIDs;
 		} catch (IOException e) {
 			LOGGER.error("IO Exception", e);
-			return Boolean.FALSE;
+			return null;
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
-			return Boolean.FALSE;
+			return null;
+		}
+	}
+
+	private String getCachedGroupID(final Tenant tenant, final String group, final String bearerToken) {
+		final ConcurrentCache<String, String> groupCache = concurrentCacheService.getCache(String.class,
+				"groupCache");
+		if (groupCache == null) {
+			return getGroupID(tenant, group, bearerToken);
+		}
+		final String entry = groupCache.get(group);
+		if (entry != null) {
+			return entry;
 		}
+		final String groupID = getGroupID(tenant, group, bearerToken);
+		if (groupID != null) {
+			groupCache.putIfAbsent(group, groupID);
+		}
+		return groupID;
 	}
 
 	private String getGroupID(final Tenant tenant, final String group, final String bearerToken) {
@@ -150,6 +236,35 @@ public final class SimpleGraphService implements GraphService {
 	}
 
 	private String getBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
+		final BearerToken current = bearerTokenReference.get();
+		final long now = System.currentTimeMillis();
+		if (current != null && !current.isRefreshDue(now)) {
+			return current.getValue();
+		}
+		final Boolean isCurrentValid = current != null && !current.isExpired(now);
+		if (isCurrentValid && !bearerTokenLock.tryLock()) {
+			return current.getValue();
+		}
+		if (!isCurrentValid) {
+			bearerTokenLock.lock();
+		}
+		try {
+			final BearerToken latest = bearerTokenReference.get();
+			if (latest != null && !latest.isRefreshDue(System.currentTimeMillis())) {
+				return latest.getValue();
+			}
+			final BearerToken bearerToken = requestBearerToken(tenant, principal, secret);
+			if (bearerToken == null) {
+				return isCurrentValid ? current.getValue() : null;
+			}
+			bearerTokenReference.set(bearerToken);
+			return bearerToken.getValue();
+		} finally {
+			bearerTokenLock.unlock();
+		}
+	}
+
+	private BearerToken requestBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
 		try {
 			final String payload = String.format(
 					"grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
@@ -173,7 +288,10 @@ public final class SimpleGraphService implements GraphService {
 			}
 			final ObjectMapper mapper = new ObjectMapper();
 			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-			return node.get("access_token").asText();
+			final long expiresIn = node.has("expires_in") ? node.get("expires_in").asLong(DEFAULT_EXPIRES_IN)
+					: DEFAULT_EXPIRES_IN;
+			return new BearerToken(node.get("access_token").asText(),
+					System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresIn));
 		} catch (IOException e) {
 			LOGGER.error("IO Exception", e);
 			return null;
@@ -186,4 +304,26 @@ public final class SimpleGraphService implements GraphService {
 	public static GraphService getInstance() {
 		return INSTANCE;
 	}
+
+	private static final class BearerToken {
+		private final String value;
+		private final long expiresAt;
+
+		BearerToken(final String value, final long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		String getValue() {
+			return value;
+		}
+
+		boolean isExpired(final long now) {
+			return expiresAt <= now;
+		}
+
+		boolean isRefreshDue(final long now) {
+			return expiresAt - REFRESH_AHEAD <= now;
+		}
+	}
 }
@@ -29,5 +29,7 @@ import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 public interface KeyStoreLoader {
 
 	Future<JsonNode> loadAsync(EndPoint endPoint);
+
+	JsonNode load(EndPoint endPoint);
 	
 }
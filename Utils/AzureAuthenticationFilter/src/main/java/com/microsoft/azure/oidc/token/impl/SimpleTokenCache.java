@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.token.impl;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.ConfigurationCache;
+import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
+import com.microsoft.azure.oidc.configuration.key.Key;
+import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
+
+public final class SimpleTokenCache implements TokenCache {
+	private static final TokenCache INSTANCE = new SimpleTokenCache();
+
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	private final ConfigurationCache configurationCache = SimpleConfigurationCache.getInstance();
+
+	private final AtomicReference<Map<Name, Key>> keys = new AtomicReference<Map<Name, Key>>();
+
+	@Override
+	public Token load(final String tokenString) {
+		if (tokenString == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final ConcurrentCache<String, Token> cache = getCache();
+		if (cache == null) {
+			return null;
+		}
+		invalidateOnKeyRotation(cache);
+		return cache.get(getKey(tokenString));
+	}
+
+	@Override
+	public void store(final String tokenString, final Token token) {
+		if (tokenString == null || token == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		final ConcurrentCache<String, Token> cache = getCache();
+		if (cache == null) {
+			return;
+		}
+		final Long ttl = token.getExpiration().getTime() - System.currentTimeMillis() / 1000;
+		if (ttl <= 0) {
+			return;
+		}
+		cache.putIfAbsent(getKey(tokenString), token, ttl, TimeUnit.SECONDS);
+	}
+
+	private void invalidateOnKeyRotation(final ConcurrentCache<String, Token> cache) {
+		final Configuration configuration = configurationCache.load();
+		if (configuration == null) {
+			throw new GeneralException("Error loading configuration");
+		}
+		final Map<Name, Key> currentKeys = configuration.getKeys();
+		final Map<Name, Key> previousKeys = keys.get();
+		if (currentKeys == previousKeys) {
+			return;
+		}
+		if (keys.compareAndSet(previousKeys, currentKeys) && previousKeys != null
+				&& !previousKeys.equals(currentKeys)) {
+			cache.clear();
+		}
+	}
+
+	private ConcurrentCache<String, Token> getCache() {
+		return concurrentCacheService.getCache(Token.class, "tokenCache");
+	}
+
+	private String getKey(final String tokenString) {
+		return DigestUtils.sha256Hex(tokenString);
+	}
+
+	public static TokenCache getInstance() {
+		return INSTANCE;
+	}
+}
@@ -21,15 +21,13 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.token.impl;
 
-import java.math.BigInteger;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.RSAPublicKeySpec;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -44,6 +42,7 @@ import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
+import com.microsoft.azure.oidc.configuration.key.Key;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -63,6 +62,13 @@ public class SimpleTokenValidator implements TokenValidator {
 
 	private final AlgorithmConfigurationService algorithmConfigurationService = SimpleAlgorithmConfigurationService.getInstance();
 
+	private final ThreadLocal<Map<String, Signature>> signatureMapThreadLocal = new ThreadLocal<Map<String, Signature>>() {
+		@Override
+		protected Map<String, Signature> initialValue() {
+			return new HashMap<String, Signature>();
+		}
+	};
+
 	@Override
 	public Boolean validateSignature(final Token token) {
 		if (token == null) {
@@ -77,24 +83,22 @@ public class SimpleTokenValidator implements TokenValidator {
 		}
 		try {
 			final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
-			if (configuration.getKey(token.getKeyName()).getNotBefore().compareTo(now) > 0) {
+			final Key key = configuration.getKey(token.getKeyName());
+			if (key.getNotBefore().compareTo(now) > 0) {
 				return Boolean.FALSE;
 			}
+			final PublicKey pubKey = key.getPublicKey(
+					algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
+			final Signature sig = getSignature(
+					algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
 			final Base64 decoder = new Base64();
-			final BigInteger exponent = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getExponent().getValue()));
-			final BigInteger modulus = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getSecret().getValue()));
-			final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
-			final KeyFactory keyFactory = KeyFactory
-					.getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
-			final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
-			final Signature sig = Signature
-					.getInstance(algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
 			sig.initVerify(pubKey);
 			sig.update(token.getPayload().getValue().getBytes());
 			return sig.verify(decoder.decode(token.getSignature().getValue()));
-		} catch (NoSuchAlgorithmException | InvalidKeySpecException | SignatureException | InvalidKeyException e) {
+		} catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e) {
+			LOGGER.error(e.getMessage(), e);
+			return Boolean.FALSE;
+		} catch (GeneralException e) {
 			LOGGER.error(e.getMessage(), e);
 			return Boolean.FALSE;
 		}
@@ -186,6 +190,16 @@ public class SimpleTokenValidator implements TokenValidator {
 		return Boolean.TRUE;
 	}
 
+	private Signature getSignature(final String algorithm) throws NoSuchAlgorithmException {
+		final Map<String, Signature> signatureMap = signatureMapThreadLocal.get();
+		Signature signature = signatureMap.get(algorithm);
+		if (signature == null) {
+			signature = Signature.getInstance(algorithm);
+			signatureMap.put(algorithm, signature);
+		}
+		return signature;
+	}
+
 	public static TokenValidator getInstance() {
 		return INSTANCE;
 	}
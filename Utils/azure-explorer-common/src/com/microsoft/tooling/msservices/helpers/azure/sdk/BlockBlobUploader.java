@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.StorageErrorCodeStrings;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads a local file as a block blob, several blocks at a time.
+ * <p/>
+ * Blocks are read with positional reads from one {@link FileChannel}, so no stream has to be shared between the
+ * workers. Block ids are derived from the block index and a fingerprint of the file (length, modification time and
+ * block size): when an upload of the same file is interrupted and started again, the blocks that already reached the
+ * service are found with {@link CloudBlockBlob#downloadBlockList} and skipped.
+ */
+class BlockBlobUploader {
+    static final int DEFAULT_PARALLELISM = 4;
+    private static final long MIN_BLOCK_SIZE = 1024 * 1024;
+    private static final long SMALL_FILE_SIZE = 32 * MIN_BLOCK_SIZE;
+    private static final long LARGE_FILE_SIZE = 1024 * MIN_BLOCK_SIZE;
+    // service limits for a block blob
+    private static final long MAX_BLOCK_SIZE = 100 * MIN_BLOCK_SIZE;
+    private static final int MAX_BLOCK_COUNT = 50000;
+
+    private final CloudBlobContainer container;
+    private final String blobName;
+    private final File file;
+    private final int parallelism;
+    private final CallableSingleArg<Void, Long> processBlock;
+    // set once the upload has failed or was cancelled, so blocks still in flight stop reporting progress
+    private volatile boolean stopped = false;
+
+    BlockBlobUploader(@NotNull CloudBlobContainer container,
+                      @NotNull String blobName,
+                      @NotNull File file,
+                      int parallelism,
+                      @Nullable CallableSingleArg<Void, Long> processBlock) {
+        this.container = container;
+        this.blobName = blobName;
+        this.file = file;
+        this.parallelism = Math.max(1, parallelism);
+        this.processBlock = processBlock;
+    }
+
+    /**
+     * Picks the block size from the file size: 1 MiB blocks for small files, 4 MiB up to 1 GiB and 8 MiB above
+     * that, grown when needed to stay within the 50,000 blocks a blob can hold.
+     */
+    static long getBlockSize(long length) {
+        long blockSize;
+        if (length <= SMALL_FILE_SIZE) {
+            blockSize = MIN_BLOCK_SIZE;
+        } else if (length <= LARGE_FILE_SIZE) {
+            blockSize = 4 * MIN_BLOCK_SIZE;
+        } else {
+            blockSize = 8 * MIN_BLOCK_SIZE;
+        }
+
+        long minimumForCount = (length + MAX_BLOCK_COUNT - 1) / MAX_BLOCK_COUNT;
+        if (blockSize < minimumForCount) {
+            blockSize = ((minimumForCount + MIN_BLOCK_SIZE - 1) / MIN_BLOCK_SIZE) * MIN_BLOCK_SIZE;
+        }
+
+        if (blockSize > MAX_BLOCK_SIZE) {
+            throw new IllegalArgumentException("File is too large to be uploaded as a block blob: " + length);
+        }
+
+        return blockSize;
+    }
+
+    void upload() throws Exception {
+        final long length = file.length();
+        final long blockSize = getBlockSize(length);
+        final int blockCount = (int) ((length + blockSize - 1) / blockSize);
+        final String fingerprint = String.format("%08x", (length + "-" + file.lastModified() + "-" + blockSize).hashCode());
+
+        List<BlockEntry> blockEntries = new ArrayList<BlockEntry>(blockCount);
+        for (int index = 0; index < blockCount; index++) {
+            BlockEntry entry = new BlockEntry(getBlockId(fingerprint, index), BlockSearchMode.UNCOMMITTED);
+            entry.setSize(Math.min(blockSize, length - index * blockSize));
+            blockEntries.add(entry);
+        }
+
+        Set<String> uploadedBlockIds = getUncommittedBlockIds(blockEntries);
+        final AtomicLong uploadedBytes = new AtomicLong();
+        for (BlockEntry entry : blockEntries) {
+            if (uploadedBlockIds.contains(entry.getId())) {
+                uploadedBytes.addAndGet(entry.getSize());
+            }
+        }
+        reportProgress(uploadedBytes);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, blockCount)));
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int index = 0; index < blockCount; index++) {
+                final BlockEntry entry = blockEntries.get(index);
+                if (uploadedBlockIds.contains(entry.getId())) {
+                    continue;
+                }
+
+                final long position = index * blockSize;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (stopped) {
+                            return null;
+                        }
+                        uploadBlock(channel, entry, position);
+                        uploadedBytes.addAndGet(entry.getSize());
+                        reportProgress(uploadedBytes);
+                        return null;
+                    }
+                }));
+            }
+
+            boolean completed = false;
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+                completed = true;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (!completed) {
+                    stopped = true;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        container.getBlockBlobReference(blobName).commitBlockList(blockEntries);
+    }
+
+    private void uploadBlock(@NotNull FileChannel channel, @NotNull BlockEntry entry, long position) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry.getSize());
+        while (buffer.hasRemaining()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Upload of " + blobName + " was cancelled");
+            }
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("File " + file + " changed while it was being uploaded");
+            }
+        }
+
+        // blob references are not thread safe, so every block gets its own
+        CloudBlockBlob blob = container.getBlockBlobReference(blobName);
+        blob.uploadBlock(entry.getId(), new ByteArrayInputStream(buffer.array()), entry.getSize());
+    }
+
+    @NotNull
+    private Set<String> getUncommittedBlockIds(@NotNull List<BlockEntry> blockEntries) throws Exception {
+        Set<String> expected = new HashSet<String>();
+        for (BlockEntry entry : blockEntries) {
+            expected.add(entry.getId() + "/" + entry.getSize());
+        }
+
+        Set<String> uploaded = new HashSet<String>();
+        try {
+            CloudBlockBlob blob = container.getBlockBlobReference(blobName);
+            for (BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null)) {
+                if (expected.contains(entry.getId() + "/" + entry.getSize())) {
+                    uploaded.add(entry.getId());
+                }
+            }
+        } catch (StorageException e) {
+            // nothing to resume when the blob does not exist yet
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND
+                    && !StorageErrorCodeStrings.BLOB_NOT_FOUND.equals(e.getErrorCode())) {
+                throw e;
+            }
+        }
+        return uploaded;
+    }
+
+    // reading the counter under the lock keeps the reported values increasing
+    private void reportProgress(@NotNull AtomicLong uploadedBytes) throws Exception {
+        if (processBlock != null) {
+            synchronized (processBlock) {
+                if (stopped) {
+                    return;
+                }
+                processBlock.call(uploadedBytes.get());
+            }
+        }
+    }
+
+    // all ids of a blob must have the same length, hence the fixed width index
+    @NotNull
+    private static String getBlockId(@NotNull String fingerprint, int index) {
+        return Base64.encode(String.format("%s-%06d", fingerprint, index).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Walks a segmented storage listing one page at a time. Whenever a page is handed out, the page after it is already
+ * being fetched in the background, so a view that loads more items as the user scrolls rarely has to wait.
+ */
+public abstract class PrefetchingPager<T> {
+    private static final ExecutorService prefetchExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "storage-page-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private ResultContinuation continuationToken;
+    private boolean exhausted = false;
+    private Future<StoragePage<T>> prefetchedPage;
+
+    public synchronized boolean hasNextPage() {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the next page, waiting for the background fetch if it has not finished yet, and starts fetching the
+     * page after it. When loading fails the position is kept, so calling this again retries the same page. The wait
+     * happens outside of the pager's lock, so {@link #close()} never blocks on the network; a pager closed while
+     * waiting returns an empty page.
+     */
+    @NotNull
+    public List<T> nextPage() throws AzureCmdException {
+        Future<StoragePage<T>> pending;
+        synchronized (this) {
+            if (exhausted) {
+                return Collections.emptyList();
+            }
+
+            if (prefetchedPage == null) {
+                prefetchedPage = fetch(continuationToken);
+            }
+            pending = prefetchedPage;
+        }
+
+        StoragePage<T> page;
+        try {
+            page = await(pending);
+        } catch (AzureCmdException e) {
+            synchronized (this) {
+                if (exhausted) {
+                    return Collections.emptyList();
+                }
+                if (prefetchedPage == pending) {
+                    prefetchedPage = null;
+                }
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // closed while waiting, or the page was already handed out to a concurrent call
+            if (exhausted || prefetchedPage != pending) {
+                return Collections.emptyList();
+            }
+
+            continuationToken = page.getContinuationToken();
+            exhausted = !page.hasMore();
+            prefetchedPage = exhausted ? null : fetch(continuationToken);
+        }
+
+        return page.getItems();
+    }
+
+    /**
+     * Stops the listing and abandons the page being prefetched, if any.
+     */
+    public synchronized void close() {
+        if (prefetchedPage != null) {
+            prefetchedPage.cancel(true);
+            prefetchedPage = null;
+        }
+
+        exhausted = true;
+    }
+
+    @NotNull
+    protected abstract StoragePage<T> loadPage(@Nullable ResultContinuation continuationToken) throws AzureCmdException;
+
+    @NotNull
+    private Future<StoragePage<T>> fetch(@Nullable final ResultContinuation token) {
+        return prefetchExecutor.submit(new Callable<StoragePage<T>>() {
+            @Override
+            public StoragePage<T> call() throws Exception {
+                return loadPage(token);
+            }
+        });
+    }
+
+    @NotNull
+    private StoragePage<T> await(@NotNull Future<StoragePage<T>> pending) throws AzureCmdException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AzureCmdException("Interrupted while loading the next page", e);
+        } catch (CancellationException e) {
+            throw new AzureCmdException("The page load was cancelled", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AzureCmdException) {
+                throw (AzureCmdException) e.getCause();
+            }
+            throw new AzureCmdException("Error loading the next page", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.queue.CloudQueue;
+import com.microsoft.azure.storage.queue.CloudQueueClient;
+import com.microsoft.azure.storage.queue.CloudQueueMessage;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+
+import java.io.BufferedReader;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Moves many messages out of or into a queue while keeping a bounded number of requests in flight.
+ * <p/>
+ * The queue service has no batch API: a retrieve returns at most 32 messages and every message is deleted or added
+ * by a request of its own. Those requests run on a small pool while the caller keeps retrieving messages or reading
+ * contents; a semaphore holds the caller back once too many requests are pending. The first failing request stops
+ * the pipeline.
+ */
+class QueueMessagePipeline {
+    static final int DEFAULT_PARALLELISM = 8;
+    static final int MAX_RETRIEVE_COUNT = 32;
+    // long enough for the deletes queued behind a retrieve to run before the messages become visible again
+    private static final int VISIBILITY_TIMEOUT_SECONDS = 60;
+
+    private interface MessageRequest {
+        void run(@NotNull CloudQueue cloudQueue) throws Exception;
+    }
+
+    private final CloudQueueClient client;
+    private final String queueName;
+    private final int parallelism;
+    private final CallableSingleArg<Void, Integer> processMessage;
+    private final AtomicInteger processedCount = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    QueueMessagePipeline(@NotNull CloudQueueClient client,
+                         @NotNull String queueName,
+                         int parallelism,
+                         @Nullable CallableSingleArg<Void, Integer> processMessage) {
+        this.client = client;
+        this.queueName = queueName;
+        this.parallelism = Math.max(1, parallelism);
+        this.processMessage = processMessage;
+    }
+
+    /**
+     * Retrieves and deletes up to {@code maxMessages} messages from the head of the queue, 32 at a time, and returns
+     * them in the order they were retrieved.
+     */
+    @NotNull
+    List<CloudQueueMessage> dequeue(int maxMessages) throws Exception {
+        List<CloudQueueMessage> messages = new ArrayList<CloudQueueMessage>();
+        remove(maxMessages, messages);
+
+        return messages;
+    }
+
+    /**
+     * Retrieves and deletes up to {@code maxMessages} messages from the head of the queue without keeping them, and
+     * returns the number of messages removed. Only the batch being deleted is held in memory.
+     */
+    int drain(int maxMessages) throws Exception {
+        return remove(maxMessages, null);
+    }
+
+    private int remove(int maxMessages, @Nullable List<CloudQueueMessage> sink) throws Exception {
+        int count = 0;
+        CloudQueue cloudQueue = client.getQueueReference(queueName);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        try {
+            while (count < maxMessages) {
+                checkState();
+
+                List<CloudQueueMessage> batch = new ArrayList<CloudQueueMessage>(MAX_RETRIEVE_COUNT);
+                for (CloudQueueMessage message : cloudQueue.retrieveMessages(
+                        Math.min(MAX_RETRIEVE_COUNT, maxMessages - count),
+                        VISIBILITY_TIMEOUT_SECONDS, null, null)) {
+                    batch.add(message);
+                }
+
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                for (final CloudQueueMessage message : batch) {
+                    submit(executor, inFlight, new MessageRequest() {
+                        @Override
+                        public void run(@NotNull CloudQueue cloudQueue) throws Exception {
+                            cloudQueue.deleteMessage(message);
+                        }
+                    });
+                }
+
+                if (sink != null) {
+                    sink.addAll(batch);
+                }
+                count += batch.size();
+            }
+
+            awaitCompletion(inFlight);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds one message per non-empty line read from {@code reader} and returns the number of messages added.
+     */
+    int enqueue(@NotNull BufferedReader reader, final int timeToLiveInSeconds) throws Exception {
+        int count = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                checkState();
+
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                final String content = line;
+                submit(executor, inFlight, new MessageRequest() {
+                    @Override
+                    public void run(@NotNull CloudQueue cloudQueue) throws Exception {
+                        cloudQueue.addMessage(new CloudQueueMessage(content), timeToLiveInSeconds, 0, null, null);
+                    }
+                });
+                count++;
+            }
+
+            awaitCompletion(inFlight);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return count;
+    }
+
+    private void submit(@NotNull ExecutorService executor,
+                        @NotNull final Semaphore inFlight,
+                        @NotNull final MessageRequest request) throws Exception {
+        inFlight.acquire();
+        checkState();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (failure.get() == null) {
+                        // queue references are not thread safe, so every request gets its own
+                        request.run(client.getQueueReference(queueName));
+                        reportProgress(processedCount.incrementAndGet());
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    inFlight.release();
+                }
+            }
+        });
+    }
+
+    private void awaitCompletion(@NotNull Semaphore inFlight) throws Exception {
+        // every pending request holds a permit until it is done
+        inFlight.acquire(2 * parallelism);
+        inFlight.release(2 * parallelism);
+        checkState();
+    }
+
+    private void checkState() throws Exception {
+        Throwable t = failure.get();
+
+        if (t != null) {
+            throw t instanceof Exception ? (Exception) t : new Exception(t);
+        }
+
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Queue operation on " + queueName + " was cancelled");
+        }
+    }
+
+    private void reportProgress(int count) throws Exception {
+        if (processMessage != null) {
+            synchronized (processMessage) {
+                processMessage.call(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a blob into a local file, several byte ranges at a time.
+ * <p/>
+ * The target file is sized up front and every range is written at its own offset with a positional write, so the
+ * workers share one {@link FileChannel}. Finished ranges are recorded in a sidecar manifest next to the target file:
+ * when a download of the same blob version is interrupted and started again, only the missing ranges are fetched.
+ * Once all ranges are in place the file is checked against the MD5 stored on the blob, if there is one.
+ */
+class RangedBlobDownloader {
+    static final int DEFAULT_PARALLELISM = 4;
+    static final long RANGE_SIZE = 4 * 1024 * 1024;
+    static final String MANIFEST_SUFFIX = ".download";
+    private static final long PROGRESS_INTERVAL_MS = 200;
+    private static final int DIGEST_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Creates a new reference to the blob being downloaded; blob references are not thread safe, so every range
+     * gets its own.
+     */
+    interface BlobReferenceFactory {
+        @NotNull
+        CloudBlob create() throws Exception;
+    }
+
+    private final BlobReferenceFactory blobReferenceFactory;
+    private final File file;
+    private final File manifestFile;
+    private final int parallelism;
+    private final CallableSingleArg<Void, Long> processBlock;
+    private final Object progressLock = new Object();
+    private long lastProgressTime = 0;
+    // set once the download has failed or was cancelled, so ranges still in flight stop reporting progress
+    private volatile boolean stopped = false;
+
+    RangedBlobDownloader(@NotNull BlobReferenceFactory blobReferenceFactory,
+                         @NotNull File file,
+                         int parallelism,
+                         @Nullable CallableSingleArg<Void, Long> processBlock) {
+        this.blobReferenceFactory = blobReferenceFactory;
+        this.file = file;
+        this.manifestFile = new File(file.getPath() + MANIFEST_SUFFIX);
+        this.parallelism = Math.max(1, parallelism);
+        this.processBlock = processBlock;
+    }
+
+    void download() throws Exception {
+        CloudBlob blob = blobReferenceFactory.create();
+        blob.downloadAttributes();
+        BlobProperties properties = blob.getProperties();
+        final long length = properties.getLength();
+        final String contentMD5 = properties.getContentMD5();
+        final AccessCondition sameVersion = AccessCondition.generateIfMatchCondition(properties.getEtag());
+        final int rangeCount = (int) ((length + RANGE_SIZE - 1) / RANGE_SIZE);
+        String header = properties.getEtag() + " " + length + " " + RANGE_SIZE;
+
+        Set<Integer> finishedRanges = readManifest(header, length);
+        if (finishedRanges == null) {
+            finishedRanges = new HashSet<Integer>();
+            try (RandomAccessFile target = new RandomAccessFile(file, "rw")) {
+                target.setLength(length);
+            }
+            writeManifestHeader(header);
+        }
+
+        final AtomicLong downloadedBytes = new AtomicLong();
+        for (int index : finishedRanges) {
+            downloadedBytes.addAndGet(getRangeLength(index, length));
+        }
+        reportProgress(downloadedBytes, true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, rangeCount)));
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+             final OutputStream manifest = new FileOutputStream(manifestFile, true)) {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int index = 0; index < rangeCount; index++) {
+                if (finishedRanges.contains(index)) {
+                    continue;
+                }
+
+                final int rangeIndex = index;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (stopped) {
+                            return null;
+                        }
+                        long rangeLength = getRangeLength(rangeIndex, length);
+                        downloadRange(channel, rangeIndex * RANGE_SIZE, (int) rangeLength, sameVersion);
+                        synchronized (manifest) {
+                            manifest.write((rangeIndex + "\n").getBytes(StandardCharsets.UTF_8));
+                        }
+                        downloadedBytes.addAndGet(rangeLength);
+                        reportProgress(downloadedBytes, false);
+                        return null;
+                    }
+                }));
+            }
+
+            boolean completed = false;
+            try {
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+                completed = true;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            } finally {
+                if (!completed) {
+                    stopped = true;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        reportProgress(downloadedBytes, true);
+
+        if (contentMD5 != null && !contentMD5.isEmpty()) {
+            String actualMD5 = computeMD5();
+            if (!contentMD5.equals(actualMD5)) {
+                // the ranges on disk cannot be trusted, so the next attempt starts over
+                deleteManifest();
+                throw new IOException(String.format("Downloaded file %s does not match the blob content: MD5 is %s, expected %s",
+                        file, actualMD5, contentMD5));
+            }
+        }
+        deleteManifest();
+    }
+
+    private void downloadRange(@NotNull FileChannel channel, long offset, int rangeLength,
+                               @NotNull AccessCondition sameVersion) throws Exception {
+        // the whole file is checked against the blob MD5 once all ranges are in
+        BlobRequestOptions options = new BlobRequestOptions();
+        options.setUseTransactionalContentMD5(false);
+        options.setDisableContentMD5Validation(true);
+
+        byte[] buffer = new byte[rangeLength];
+        CloudBlob blob = blobReferenceFactory.create();
+        int read = blob.downloadRangeToByteArray(offset, (long) rangeLength, buffer, 0, sameVersion, options, null);
+        if (read != rangeLength) {
+            throw new IOException(String.format("Expected %d bytes at offset %d of %s, got %d",
+                    rangeLength, offset, blob.getName(), read));
+        }
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        while (byteBuffer.hasRemaining()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Download of " + blob.getName() + " was cancelled");
+            }
+            channel.write(byteBuffer, offset + byteBuffer.position());
+        }
+    }
+
+    /**
+     * Returns the ranges already written by an earlier attempt, or {@code null} when there is nothing to resume:
+     * no manifest, a manifest for another version of the blob, or a target file of the wrong size.
+     */
+    @Nullable
+    private Set<Integer> readManifest(@NotNull String header, long length) throws IOException {
+        if (!manifestFile.isFile() || !file.isFile() || file.length() != length) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(manifestFile), StandardCharsets.UTF_8))) {
+            if (!header.equals(reader.readLine())) {
+                return null;
+            }
+
+            Set<Integer> finishedRanges = new HashSet<Integer>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // a line cut short by an interruption is simply downloaded again
+                try {
+                    finishedRanges.add(Integer.parseInt(line.trim()));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            return finishedRanges;
+        }
+    }
+
+    private void writeManifestHeader(@NotNull String header) throws IOException {
+        try (OutputStream manifest = new FileOutputStream(manifestFile, false)) {
+            manifest.write((header + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void deleteManifest() throws IOException {
+        if (manifestFile.exists() && !manifestFile.delete()) {
+            throw new IOException("Could not delete " + manifestFile);
+        }
+    }
+
+    @NotNull
+    private String computeMD5() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Base64.encode(digest.digest());
+    }
+
+    // reading the counter under the lock keeps the reported values increasing
+    private void reportProgress(@NotNull AtomicLong downloadedBytes, boolean force) throws Exception {
+        if (processBlock != null) {
+            synchronized (progressLock) {
+                long now = System.currentTimeMillis();
+                if (stopped || (!force && now - lastProgressTime < PROGRESS_INTERVAL_MS)) {
+                    return;
+                }
+                lastProgressTime = now;
+                processBlock.call(downloadedBytes.get());
+            }
+        }
+    }
+
+    private static long getRangeLength(int index, long length) {
+        return Math.min(RANGE_SIZE, length - index * RANGE_SIZE);
+    }
+}
@@ -22,8 +22,18 @@
 package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.RequestOptions;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.RetryExponentialRetry;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import com.microsoft.azure.storage.core.Base64;
@@ -42,7 +52,9 @@ import com.microsoft.tooling.msservices.model.storage.BlobItem;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.QueueMessage;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
 import com.microsoft.tooling.msservices.model.storage.Table;
+import com.microsoft.tooling.msservices.model.storage.TableBatchResult;
 import com.microsoft.tooling.msservices.model.storage.TableEntity;
 import com.microsoft.tooling.msservices.model.storage.TableEntity.Property;
 import com.microsoft.azure.management.storage.StorageAccount;
@@ -50,27 +62,88 @@ import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.InvalidKeyException;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class StorageClientSDKManager {
-    private static StorageClientSDKManager apiManager;
+    private static final int CLIENT_CACHE_SIZE = 32;
+    private static final long CLIENT_CACHE_EXPIRY_MINUTES = 30;
+    // keys can be regenerated outside of the toolkit, so connection strings built from them are not kept for long
+    private static final long CONNECTION_STRING_EXPIRY_MINUTES = 10;
+    private static final int RETRY_BACKOFF_MS = 2000;
+    private static final int RETRY_MAX_ATTEMPTS = 3;
+    private static final int SERVER_TIMEOUT_MS = 60 * 1000;
+    private static final int BLOB_CONCURRENT_REQUEST_COUNT = 4;
+    private static final int MAX_TABLE_QUERY_TAKE = 1000;
+
+    private static final LoadingCache<String, StorageClients> clientCache = CacheBuilder.newBuilder()
+            .maximumSize(CLIENT_CACHE_SIZE)
+            .expireAfterAccess(CLIENT_CACHE_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build(new CacheLoader<String, StorageClients>() {
+                @Override
+                public StorageClients load(String connectionString) throws Exception {
+                    return new StorageClients(CloudStorageAccount.parse(connectionString));
+                }
+            });
+
+    private static final Cache<String, String> connectionStringCache = CacheBuilder.newBuilder()
+            .maximumSize(CLIENT_CACHE_SIZE)
+            .expireAfterWrite(CONNECTION_STRING_EXPIRY_MINUTES, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * A parsed storage account and its clients, set up with the default request options of the explorer. The clients
+     * are shared between callers, so their default options must not be changed after construction.
+     */
+    private static final class StorageClients {
+        private final CloudStorageAccount account;
+        private final CloudBlobClient blobClient;
+        private final CloudQueueClient queueClient;
+        private final CloudTableClient tableClient;
+
+        private StorageClients(@NotNull CloudStorageAccount account) {
+            this.account = account;
+
+            blobClient = account.createCloudBlobClient();
+            BlobRequestOptions blobOptions = blobClient.getDefaultRequestOptions();
+            setDefaultRequestOptions(blobOptions);
+            blobOptions.setConcurrentRequestCount(BLOB_CONCURRENT_REQUEST_COUNT);
+
+            queueClient = account.createCloudQueueClient();
+            setDefaultRequestOptions(queueClient.getDefaultRequestOptions());
+
+            tableClient = account.createCloudTableClient();
+            setDefaultRequestOptions(tableClient.getDefaultRequestOptions());
+        }
+
+        // the SDK default backs off for 30 seconds between attempts, far too long for an interactive explorer
+        private static void setDefaultRequestOptions(@NotNull RequestOptions options) {
+            options.setRetryPolicyFactory(new RetryExponentialRetry(RETRY_BACKOFF_MS, RETRY_MAX_ATTEMPTS));
+            options.setTimeoutIntervalInMs(SERVER_TIMEOUT_MS);
+        }
+    }
+
+    private static final class StorageClientSDKManagerHolder {
+        private static final StorageClientSDKManager INSTANCE = new StorageClientSDKManager();
+    }
 
     private StorageClientSDKManager() {
     }
 
     @NotNull
     public static StorageClientSDKManager getManager() {
-        if (apiManager == null) {
-            apiManager = new StorageClientSDKManager();
-        }
-
-        return apiManager;
+        return StorageClientSDKManagerHolder.INSTANCE;
     }
 
     @NotNull
@@ -235,53 +308,10 @@ public class StorageClientSDKManager {
             CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
 
             for (ListBlobItem item : directory.listBlobs()) {
-                String uri = item.getUri() != null ? item.getUri().toString() : "";
-
-                if (item instanceof CloudBlobDirectory) {
-                    CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
-
-                    String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
-                    String path = Strings.nullToEmpty(subDirectory.getPrefix());
-
-                    biList.add(new BlobDirectory(name, uri, containerName, path));
-                } else if (item instanceof CloudBlob) {
-                    CloudBlob blob = (CloudBlob) item;
-
-                    String name = extractBlobItemName(blob.getName(), delimiter);
-                    String path = Strings.nullToEmpty(blob.getName());
-                    String type = "";
-                    String cacheControlHeader = "";
-                    String contentEncoding = "";
-                    String contentLanguage = "";
-                    String contentType = "";
-                    String contentMD5Header = "";
-                    String eTag = "";
-                    Calendar lastModified = new GregorianCalendar();
-                    long size = 0;
-
-                    BlobProperties properties = blob.getProperties();
-
-                    if (properties != null) {
-                        if (properties.getBlobType() != null) {
-                            type = properties.getBlobType().toString();
-                        }
-
-                        cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
-                        contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
-                        contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
-                        contentType = Strings.nullToEmpty(properties.getContentType());
-                        contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
-                        eTag = Strings.nullToEmpty(properties.getEtag());
-
-                        if (properties.getLastModified() != null) {
-                            lastModified.setTime(properties.getLastModified());
-                        }
-
-                        size = properties.getLength();
-                    }
+                BlobItem blobItem = toBlobItem(item, containerName, delimiter);
 
-                    biList.add(new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
-                            contentLanguage, contentType, contentMD5Header, eTag, lastModified, size));
+                if (blobItem != null) {
+                    biList.add(blobItem);
                 }
             }
 
@@ -291,6 +321,71 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Lists one page of the items under a directory, starting at the given continuation token. Unless the listing
+     * ends first, the page holds exactly {@code pageSize} items. A flat listing returns every blob whose path starts
+     * with the directory path and prefix instead of stopping at the next delimiter.
+     */
+    @NotNull
+    public StoragePage<BlobItem> getBlobItemsPage(@NotNull String connectionString,
+                                                  @NotNull BlobDirectory blobDirectory,
+                                                  @Nullable String prefix,
+                                                  boolean flat,
+                                                  int pageSize,
+                                                  @Nullable ResultContinuation continuationToken)
+            throws AzureCmdException {
+        List<BlobItem> biList = new ArrayList<BlobItem>(pageSize);
+
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobDirectory.getContainerName();
+            String delimiter = client.getDirectoryDelimiter();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
+
+            // the service may return short segments, so keep asking until the page is full
+            do {
+                ResultSegment<ListBlobItem> segment = directory.listBlobsSegmented(Strings.emptyToNull(prefix), flat,
+                        EnumSet.noneOf(BlobListingDetails.class), pageSize - biList.size(), continuationToken, null, null);
+
+                for (ListBlobItem item : segment.getResults()) {
+                    BlobItem blobItem = toBlobItem(item, containerName, delimiter);
+
+                    if (blobItem != null) {
+                        biList.add(blobItem);
+                    }
+                }
+
+                continuationToken = segment.getContinuationToken();
+            } while (continuationToken != null && biList.size() < pageSize);
+
+            return new StoragePage<BlobItem>(biList, continuationToken);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Item list", t);
+        }
+    }
+
+    /**
+     * Returns a pager over the items under a directory that fetches each page of {@code pageSize} items ahead of
+     * time. See {@link #getBlobItemsPage} for the meaning of {@code prefix} and {@code flat}.
+     */
+    @NotNull
+    public PrefetchingPager<BlobItem> getBlobItemPager(@NotNull final String connectionString,
+                                                       @NotNull final BlobDirectory blobDirectory,
+                                                       @Nullable final String prefix,
+                                                       final boolean flat,
+                                                       final int pageSize) {
+        return new PrefetchingPager<BlobItem>() {
+            @NotNull
+            @Override
+            protected StoragePage<BlobItem> loadPage(@Nullable ResultContinuation continuationToken)
+                    throws AzureCmdException {
+                return getBlobItemsPage(connectionString, blobDirectory, prefix, flat, pageSize, continuationToken);
+            }
+        };
+    }
+
     @NotNull
     public BlobDirectory createBlobDirectory(@NotNull StorageAccount storageAccount,
                                              @NotNull BlobDirectory parentBlobDirectory,
@@ -400,6 +495,27 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Uploads a local file as a block blob, several blocks at a time with a block size picked from the file size.
+     * Uploading the same file to the same blob again after an interruption only sends the missing blocks.
+     */
+    public void uploadBlobFileContent(@NotNull String connectionString,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull File file,
+                                      CallableSingleArg<Void, Long> processBlock)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobContainer.getName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            new BlockBlobUploader(container, filePath, file, BlockBlobUploader.DEFAULT_PARALLELISM, processBlock).upload();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
     public void downloadBlobFileContent(@NotNull String connectionString,
                                         @NotNull BlobFile blobFile,
                                         @NotNull OutputStream content)
@@ -418,6 +534,32 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Downloads a blob into a local file, several byte ranges at a time, and checks the result against the blob MD5.
+     * Downloading the same blob to the same file again after an interruption only fetches the missing ranges.
+     */
+    public void downloadBlobFileContent(@NotNull String connectionString,
+                                        @NotNull final BlobFile blobFile,
+                                        @NotNull File file,
+                                        CallableSingleArg<Void, Long> processBlock)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobFile.getContainerName();
+
+            final CloudBlobContainer container = client.getContainerReference(containerName);
+            new RangedBlobDownloader(new RangedBlobDownloader.BlobReferenceFactory() {
+                @NotNull
+                @Override
+                public CloudBlob create() throws Exception {
+                    return getCloudBlob(container, blobFile);
+                }
+            }, file, RangedBlobDownloader.DEFAULT_PARALLELISM, processBlock).download();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
     @NotNull
     public List<Queue> getQueues(@NotNull StorageAccount storageAccount)
             throws AzureCmdException {
@@ -478,45 +620,124 @@ public class StorageClientSDKManager {
     @NotNull
     public List<QueueMessage> getQueueMessages(@NotNull StorageAccount storageAccount, @NotNull Queue queue)
             throws AzureCmdException {
+        return getQueueMessages(getConnectionString(storageAccount), queue);
+    }
+
+    /**
+     * Peeks at the messages at the head of the queue. The service never returns more than 32 messages to a peek;
+     * use {@link #dequeueQueueMessages} to go through the rest of a queue.
+     */
+    @NotNull
+    public List<QueueMessage> getQueueMessages(@NotNull String connectionString, @NotNull Queue queue)
+            throws AzureCmdException {
         List<QueueMessage> qmList = new ArrayList<QueueMessage>();
 
         try {
-            CloudQueueClient client = getCloudQueueClient(storageAccount);
+            CloudQueueClient client = getCloudQueueClient(connectionString);
             String queueName = queue.getName();
 
             CloudQueue cloudQueue = client.getQueueReference(queueName);
 
-            for (CloudQueueMessage cqm : cloudQueue.peekMessages(32)) {
-                String id = Strings.nullToEmpty(cqm.getId());
-                String content = Strings.nullToEmpty(cqm.getMessageContentAsString());
+            for (CloudQueueMessage cqm : cloudQueue.peekMessages(QueueMessagePipeline.MAX_RETRIEVE_COUNT)) {
+                qmList.add(toQueueMessage(queueName, cqm));
+            }
 
-                Calendar insertionTime = new GregorianCalendar();
+            return qmList;
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Queue Message list", t);
+        }
+    }
 
-                if (cqm.getInsertionTime() != null) {
-                    insertionTime.setTime(cqm.getInsertionTime());
-                }
+    /**
+     * Returns the number of messages in the queue as last counted by the service; it may lag behind recent changes.
+     */
+    public long getApproximateMessageCount(@NotNull String connectionString, @NotNull Queue queue)
+            throws AzureCmdException {
+        try {
+            CloudQueue cloudQueue = getCloudQueueClient(connectionString).getQueueReference(queue.getName());
+            cloudQueue.downloadAttributes();
 
-                Calendar expirationTime = new GregorianCalendar();
+            return cloudQueue.getApproximateMessageCount();
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Queue attributes", t);
+        }
+    }
 
-                if (cqm.getExpirationTime() != null) {
-                    expirationTime.setTime(cqm.getExpirationTime());
-                }
+    /**
+     * Removes up to {@code maxMessages} messages from the head of the queue and returns them, oldest first. Messages
+     * are retrieved 32 at a time and deleted concurrently; {@code processMessage} receives the number of messages
+     * deleted so far.
+     */
+    @NotNull
+    public List<QueueMessage> dequeueQueueMessages(@NotNull String connectionString,
+                                                   @NotNull Queue queue,
+                                                   int maxMessages,
+                                                   @Nullable CallableSingleArg<Void, Integer> processMessage)
+            throws AzureCmdException {
+        try {
+            String queueName = queue.getName();
+            List<CloudQueueMessage> messages = new QueueMessagePipeline(getCloudQueueClient(connectionString),
+                    queueName, QueueMessagePipeline.DEFAULT_PARALLELISM, processMessage).dequeue(maxMessages);
 
-                int dequeueCount = cqm.getDequeueCount();
+            List<QueueMessage> qmList = new ArrayList<QueueMessage>(messages.size());
 
-                qmList.add(new QueueMessage(id, queueName, content, insertionTime, expirationTime, dequeueCount));
+            for (CloudQueueMessage cqm : messages) {
+                qmList.add(toQueueMessage(queueName, cqm));
             }
 
             return qmList;
         } catch (Throwable t) {
-            throw new AzureCmdException("Error retrieving the Queue Message list", t);
+            throw new AzureCmdException("Error dequeuing the Queue Messages", t);
+        }
+    }
+
+    /**
+     * Removes up to {@code maxMessages} messages from the head of the queue without returning them, and returns the
+     * number of messages removed. Unlike {@link #dequeueQueueMessages}, memory use does not grow with the queue, so
+     * this is the one to use for emptying a queue message by message; {@code processMessage} receives the number of
+     * messages deleted so far.
+     */
+    public int drainQueueMessages(@NotNull String connectionString,
+                                  @NotNull Queue queue,
+                                  int maxMessages,
+                                  @Nullable CallableSingleArg<Void, Integer> processMessage)
+            throws AzureCmdException {
+        try {
+            return new QueueMessagePipeline(getCloudQueueClient(connectionString), queue.getName(),
+                    QueueMessagePipeline.DEFAULT_PARALLELISM, processMessage).drain(maxMessages);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error dequeuing the Queue Messages", t);
+        }
+    }
+
+    /**
+     * Adds one message per non-empty line of a UTF-8 text file and returns the number of messages added. Messages
+     * are sent concurrently with a bounded number in flight, so their order in the queue may differ slightly from
+     * the order of the lines; {@code processMessage} receives the number of messages added so far.
+     */
+    public int createQueueMessages(@NotNull String connectionString,
+                                   @NotNull Queue queue,
+                                   @NotNull File file,
+                                   int timeToLiveInSeconds,
+                                   @Nullable CallableSingleArg<Void, Integer> processMessage)
+            throws AzureCmdException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return new QueueMessagePipeline(getCloudQueueClient(connectionString), queue.getName(),
+                    QueueMessagePipeline.DEFAULT_PARALLELISM, processMessage).enqueue(reader, timeToLiveInSeconds);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error creating the Queue Messages", t);
         }
     }
 
     public void clearQueue(@NotNull StorageAccount storageAccount, @NotNull Queue queue)
             throws AzureCmdException {
+        clearQueue(getConnectionString(storageAccount), queue);
+    }
+
+    public void clearQueue(@NotNull String connectionString, @NotNull Queue queue)
+            throws AzureCmdException {
         try {
-            CloudQueueClient client = getCloudQueueClient(storageAccount);
+            CloudQueueClient client = getCloudQueueClient(connectionString);
 
             CloudQueue cloudQueue = client.getQueueReference(queue.getName());
             cloudQueue.clear();
@@ -542,44 +763,53 @@ public class StorageClientSDKManager {
     @NotNull
     public QueueMessage dequeueFirstQueueMessage(@NotNull StorageAccount storageAccount, @NotNull Queue queue)
             throws AzureCmdException {
+        return dequeueFirstQueueMessage(getConnectionString(storageAccount), queue);
+    }
+
+    @NotNull
+    public QueueMessage dequeueFirstQueueMessage(@NotNull String connectionString, @NotNull Queue queue)
+            throws AzureCmdException {
         try {
-            CloudQueueClient client = getCloudQueueClient(storageAccount);
+            CloudQueueClient client = getCloudQueueClient(connectionString);
             String queueName = queue.getName();
 
             CloudQueue cloudQueue = client.getQueueReference(queueName);
             CloudQueueMessage cqm = cloudQueue.retrieveMessage();
 
-            String id = "";
-            String content = "";
-            Calendar insertionTime = new GregorianCalendar();
-            Calendar expirationTime = new GregorianCalendar();
-            int dequeueCount = 0;
+            if (cqm == null) {
+                return new QueueMessage("", queueName, "", new GregorianCalendar(), new GregorianCalendar(), 0);
+            }
 
-            if (cqm != null) {
-                id = Strings.nullToEmpty(cqm.getId());
-                content = Strings.nullToEmpty(cqm.getMessageContentAsString());
+            QueueMessage queueMessage = toQueueMessage(queueName, cqm);
+            cloudQueue.deleteMessage(cqm);
 
-                if (cqm.getInsertionTime() != null) {
-                    insertionTime.setTime(cqm.getInsertionTime());
-                }
+            return queueMessage;
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error dequeuing the first Queue Message", t);
+        }
+    }
 
-                if (cqm.getExpirationTime() != null) {
-                    expirationTime.setTime(cqm.getExpirationTime());
-                }
+    @NotNull
+    private static QueueMessage toQueueMessage(@NotNull String queueName, @NotNull CloudQueueMessage cqm)
+            throws StorageException {
+        String id = Strings.nullToEmpty(cqm.getId());
+        String content = Strings.nullToEmpty(cqm.getMessageContentAsString());
 
-                dequeueCount = cqm.getDequeueCount();
-            }
+        Calendar insertionTime = new GregorianCalendar();
 
-            QueueMessage queueMessage = new QueueMessage(id, queueName, content, insertionTime, expirationTime, dequeueCount);
+        if (cqm.getInsertionTime() != null) {
+            insertionTime.setTime(cqm.getInsertionTime());
+        }
 
-            if (cqm != null) {
-                cloudQueue.deleteMessage(cqm);
-            }
+        Calendar expirationTime = new GregorianCalendar();
 
-            return queueMessage;
-        } catch (Throwable t) {
-            throw new AzureCmdException("Error dequeuing the first Queue Message", t);
+        if (cqm.getExpirationTime() != null) {
+            expirationTime.setTime(cqm.getExpirationTime());
         }
+
+        int dequeueCount = cqm.getDequeueCount();
+
+        return new QueueMessage(id, queueName, content, insertionTime, expirationTime, dequeueCount);
     }
 
     @NotNull
@@ -666,6 +896,103 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Queries one page of the entities of a table, starting at the given continuation token. Unless the query runs
+     * out of entities first, the page holds exactly {@code pageSize} entities.
+     */
+    @NotNull
+    public StoragePage<TableEntity> getTableEntitiesPage(@NotNull String connectionString,
+                                                         @NotNull Table table,
+                                                         @NotNull String filter,
+                                                         int pageSize,
+                                                         @Nullable ResultContinuation continuationToken)
+            throws AzureCmdException {
+        List<TableEntity> teList = new ArrayList<TableEntity>(pageSize);
+
+        try {
+            String tableName = table.getName();
+            CloudTable cloudTable = getCloudTableClient(connectionString).getTableReference(tableName);
+
+            TableRequestOptions tro = new TableRequestOptions();
+            tro.setTablePayloadFormat(TablePayloadFormat.JsonFullMetadata);
+            EntityResolver<TableEntity> resolver = getTableEntityResolver(tableName);
+
+            // the service returns at most MAX_TABLE_QUERY_TAKE entities per segment and may stop short of that
+            do {
+                TableQuery<DynamicTableEntity> tableQuery = getTableQuery(filter, null)
+                        .take(Math.min(pageSize - teList.size(), MAX_TABLE_QUERY_TAKE));
+
+                ResultSegment<TableEntity> segment = cloudTable.executeSegmented(tableQuery, resolver,
+                        continuationToken, tro, null);
+                teList.addAll(segment.getResults());
+
+                continuationToken = segment.getContinuationToken();
+            } while (continuationToken != null && teList.size() < pageSize);
+
+            return new StoragePage<TableEntity>(teList, continuationToken);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Table Entity list", t);
+        }
+    }
+
+    /**
+     * Returns a pager over the entities of a table that fetches each page of {@code pageSize} entities ahead of
+     * time.
+     */
+    @NotNull
+    public PrefetchingPager<TableEntity> getTableEntityPager(@NotNull final String connectionString,
+                                                             @NotNull final Table table,
+                                                             @NotNull final String filter,
+                                                             final int pageSize) {
+        return new PrefetchingPager<TableEntity>() {
+            @NotNull
+            @Override
+            protected StoragePage<TableEntity> loadPage(@Nullable ResultContinuation continuationToken)
+                    throws AzureCmdException {
+                return getTableEntitiesPage(connectionString, table, filter, pageSize, continuationToken);
+            }
+        };
+    }
+
+    /**
+     * Counts the entities of a table matching a filter. Only the keys are requested, without metadata, and each
+     * segment is counted and dropped, so no entity is kept in memory.
+     */
+    public long countTableEntities(@NotNull String connectionString, @NotNull Table table, @NotNull String filter)
+            throws AzureCmdException {
+        try {
+            CloudTable cloudTable = getCloudTableClient(connectionString).getTableReference(table.getName());
+
+            TableQuery<DynamicTableEntity> tableQuery = getTableQuery(filter,
+                    Arrays.asList("PartitionKey", "RowKey")).take(MAX_TABLE_QUERY_TAKE);
+
+            TableRequestOptions tro = new TableRequestOptions();
+            tro.setTablePayloadFormat(TablePayloadFormat.JsonNoMetadata);
+
+            EntityResolver<Boolean> resolver = new EntityResolver<Boolean>() {
+                @Override
+                public Boolean resolve(String partitionKey, String rowKey, Date timeStamp,
+                                       HashMap<String, EntityProperty> properties, String etag) {
+                    return Boolean.TRUE;
+                }
+            };
+
+            long count = 0;
+            ResultContinuation continuationToken = null;
+
+            do {
+                ResultSegment<Boolean> segment = cloudTable.executeSegmented(tableQuery, resolver,
+                        continuationToken, tro, null);
+                count += segment.getLength();
+                continuationToken = segment.getContinuationToken();
+            } while (continuationToken != null);
+
+            return count;
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error counting the Table Entities", t);
+        }
+    }
+
     @NotNull
     public TableEntity createTableEntity(@NotNull StorageAccount storageAccount, @NotNull String tableName,
                                          @NotNull String partitionKey, @NotNull String rowKey,
@@ -727,13 +1054,108 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Inserts many entities with as few requests as possible. See {@link TableBatchExecutor} for how the entities are
+     * batched; the result tells which entities were inserted and why the others were not.
+     */
+    @NotNull
+    public TableBatchResult insertTableEntities(@NotNull String connectionString,
+                                                @NotNull List<TableEntity> tableEntities)
+            throws AzureCmdException {
+        try {
+            TableRequestOptions tro = new TableRequestOptions();
+            tro.setTablePayloadFormat(TablePayloadFormat.JsonNoMetadata);
+
+            return new TableBatchExecutor(getCloudTableClient(connectionString), tro,
+                    TableBatchExecutor.DEFAULT_PARALLELISM) {
+                @NotNull
+                @Override
+                protected TableOperation createOperation(@NotNull TableEntity tableEntity) throws AzureCmdException {
+                    return TableOperation.insert(getDynamicTableEntity(tableEntity.getPartitionKey(),
+                            tableEntity.getRowKey(), tableEntity.getProperties()));
+                }
+
+                @NotNull
+                @Override
+                protected TableEntity getResultEntity(@NotNull TableEntity tableEntity, @NotNull TableResult result) {
+                    // the service does not echo inserted entities back, only their new ETag
+                    return new TableEntity(tableEntity.getPartitionKey(), tableEntity.getRowKey(),
+                            tableEntity.getTableName(), Strings.nullToEmpty(result.getEtag()),
+                            tableEntity.getTimestamp(), tableEntity.getProperties());
+                }
+            }.execute(tableEntities);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error creating the Table Entities", t);
+        }
+    }
+
+    /**
+     * Deletes many entities with as few requests as possible. See {@link TableBatchExecutor} for how the entities are
+     * batched; the result tells which entities were deleted and why the others were not.
+     */
+    @NotNull
+    public TableBatchResult deleteTableEntities(@NotNull String connectionString,
+                                                @NotNull List<TableEntity> tableEntities)
+            throws AzureCmdException {
+        try {
+            TableRequestOptions tro = new TableRequestOptions();
+            tro.setTablePayloadFormat(TablePayloadFormat.JsonNoMetadata);
+
+            return new TableBatchExecutor(getCloudTableClient(connectionString), tro,
+                    TableBatchExecutor.DEFAULT_PARALLELISM) {
+                @NotNull
+                @Override
+                protected TableOperation createOperation(@NotNull TableEntity tableEntity) throws AzureCmdException {
+                    return TableOperation.delete(getDynamicTableEntity(tableEntity));
+                }
+
+                @NotNull
+                @Override
+                protected TableEntity getResultEntity(@NotNull TableEntity tableEntity, @NotNull TableResult result) {
+                    return tableEntity;
+                }
+            }.execute(tableEntities);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error deleting the Table Entities", t);
+        }
+    }
+
     @NotNull
     public static String getConnectionString(StorageAccount storageAccount) {
-        return String.format(ClientStorageAccount.DEFAULT_CONN_STR_TEMPLATE,
-                        ClientStorageAccount.DEFAULT_PROTOCOL,
-                        storageAccount.name(),
-                        storageAccount.getKeys().get(0).value(),
-                        getEndpointSuffix());
+        String connectionString = connectionStringCache.getIfPresent(storageAccount.id());
+
+        if (connectionString == null) {
+            connectionString = String.format(ClientStorageAccount.DEFAULT_CONN_STR_TEMPLATE,
+                    ClientStorageAccount.DEFAULT_PROTOCOL,
+                    storageAccount.name(),
+                    storageAccount.getKeys().get(0).value(),
+                    getEndpointSuffix());
+            connectionStringCache.put(storageAccount.id(), connectionString);
+        }
+
+        return connectionString;
+    }
+
+    /**
+     * Forgets the connection string and clients cached for a storage account. Call this after its keys were
+     * regenerated, so the next request picks up the new key.
+     */
+    public static void invalidateStorageAccount(@NotNull StorageAccount storageAccount) {
+        connectionStringCache.invalidate(storageAccount.id());
+        invalidateStorageAccount(storageAccount.name());
+    }
+
+    /**
+     * Forgets the clients cached for every connection string of the named storage account.
+     */
+    public static void invalidateStorageAccount(@NotNull String accountName) {
+        Iterator<StorageClients> iterator = clientCache.asMap().values().iterator();
+
+        while (iterator.hasNext()) {
+            if (accountName.equals(iterator.next().account.getCredentials().getAccountName())) {
+                iterator.remove();
+            }
+        }
     }
 
     public static String getEndpointSuffix() {
@@ -752,43 +1174,104 @@ public class StorageClientSDKManager {
 
     @NotNull
     public static CloudStorageAccount getCloudStorageAccount(@NotNull String connectionString) throws URISyntaxException, InvalidKeyException {
-        return CloudStorageAccount.parse(connectionString);
+        return getStorageClients(connectionString).account;
+    }
+
+    @NotNull
+    private static StorageClients getStorageClients(@NotNull String connectionString)
+            throws URISyntaxException, InvalidKeyException {
+        try {
+            return clientCache.get(normalizeConnectionString(connectionString));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            Throwables.throwIfInstanceOf(cause, URISyntaxException.class);
+            Throwables.throwIfInstanceOf(cause, InvalidKeyException.class);
+            Throwables.throwIfUnchecked(cause);
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Sorts the settings of a connection string and drops empty ones, so that the same account is cached once
+     * however its connection string was written.
+     */
+    @NotNull
+    static String normalizeConnectionString(@NotNull String connectionString) {
+        Map<String, String> settings = new TreeMap<String, String>(Utility.parseAccountString(connectionString));
+        StringBuilder normalized = new StringBuilder();
+
+        for (Entry<String, String> setting : settings.entrySet()) {
+            if (!Strings.isNullOrEmpty(setting.getKey()) && !Strings.isNullOrEmpty(setting.getValue())) {
+                normalized.append(setting.getKey()).append('=').append(setting.getValue()).append(';');
+            }
+        }
+
+        return normalized.toString();
     }
 
     @NotNull
     private static CloudBlobClient getCloudBlobClient(@NotNull ClientStorageAccount storageAccount)
             throws Exception {
-        CloudStorageAccount csa = getCloudStorageAccount(storageAccount.getConnectionString());
-
-        return csa.createCloudBlobClient();
+        return getStorageClients(storageAccount.getConnectionString()).blobClient;
     }
 
     @NotNull
     private static CloudBlobClient getCloudBlobClient(@NotNull StorageAccount storageAccount) throws Exception {
-        CloudStorageAccount csa = getCloudStorageAccount(getConnectionString(storageAccount));
-        return csa.createCloudBlobClient();
+        return getStorageClients(getConnectionString(storageAccount)).blobClient;
     }
 
     @NotNull
     private static CloudBlobClient getCloudBlobClient(@NotNull String connectionString) throws Exception {
-        CloudStorageAccount csa = getCloudStorageAccount(connectionString);
-        return csa.createCloudBlobClient();
+        return getStorageClients(connectionString).blobClient;
     }
 
     @NotNull
     private static CloudQueueClient getCloudQueueClient(@NotNull StorageAccount storageAccount)
             throws Exception {
-        CloudStorageAccount csa = getCloudStorageAccount(getConnectionString(storageAccount));
+        return getStorageClients(getConnectionString(storageAccount)).queueClient;
+    }
 
-        return csa.createCloudQueueClient();
+    @NotNull
+    private static CloudQueueClient getCloudQueueClient(@NotNull String connectionString) throws Exception {
+        return getStorageClients(connectionString).queueClient;
     }
 
     @NotNull
     private static CloudTableClient getCloudTableClient(@NotNull StorageAccount storageAccount)
             throws Exception {
-        CloudStorageAccount csa = getCloudStorageAccount(getConnectionString(storageAccount));
+        return getStorageClients(getConnectionString(storageAccount)).tableClient;
+    }
+
+    @NotNull
+    private static CloudTableClient getCloudTableClient(@NotNull String connectionString) throws Exception {
+        return getStorageClients(connectionString).tableClient;
+    }
+
+    @NotNull
+    private static TableQuery<DynamicTableEntity> getTableQuery(@NotNull String filter,
+                                                                @Nullable List<String> columns) {
+        TableQuery<DynamicTableEntity> tableQuery = TableQuery.from(DynamicTableEntity.class);
+
+        if (!filter.isEmpty()) {
+            tableQuery.where(filter);
+        }
+
+        if (columns != null && !columns.isEmpty()) {
+            tableQuery.select(columns.toArray(new String[columns.size()]));
+        }
+
+        return tableQuery;
+    }
 
-        return csa.createCloudTableClient();
+    @NotNull
+    private static EntityResolver<TableEntity> getTableEntityResolver(@NotNull final String tableName) {
+        return new EntityResolver<TableEntity>() {
+            @Override
+            public TableEntity resolve(String partitionKey, String rowKey, Date timeStamp,
+                                       HashMap<String, EntityProperty> properties, String etag) {
+                return getTableEntity(tableName, partitionKey, rowKey, timeStamp, etag, properties);
+            }
+        };
     }
 
     @NotNull
@@ -874,6 +1357,61 @@ public class StorageClientSDKManager {
         return blobFile;
     }
 
+    @Nullable
+    private static BlobItem toBlobItem(@NotNull ListBlobItem item, @NotNull String containerName, @NotNull String delimiter)
+            throws URISyntaxException {
+        String uri = item.getUri() != null ? item.getUri().toString() : "";
+
+        if (item instanceof CloudBlobDirectory) {
+            CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
+
+            String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
+            String path = Strings.nullToEmpty(subDirectory.getPrefix());
+
+            return new BlobDirectory(name, uri, containerName, path);
+        } else if (item instanceof CloudBlob) {
+            CloudBlob blob = (CloudBlob) item;
+
+            String name = extractBlobItemName(blob.getName(), delimiter);
+            String path = Strings.nullToEmpty(blob.getName());
+            String type = "";
+            String cacheControlHeader = "";
+            String contentEncoding = "";
+            String contentLanguage = "";
+            String contentType = "";
+            String contentMD5Header = "";
+            String eTag = "";
+            Calendar lastModified = new GregorianCalendar();
+            long size = 0;
+
+            BlobProperties properties = blob.getProperties();
+
+            if (properties != null) {
+                if (properties.getBlobType() != null) {
+                    type = properties.getBlobType().toString();
+                }
+
+                cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
+                contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
+                contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
+                contentType = Strings.nullToEmpty(properties.getContentType());
+                contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
+                eTag = Strings.nullToEmpty(properties.getEtag());
+
+                if (properties.getLastModified() != null) {
+                    lastModified.setTime(properties.getLastModified());
+                }
+
+                size = properties.getLength();
+            }
+
+            return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                    contentLanguage, contentType, contentMD5Header, eTag, lastModified, size);
+        }
+
+        return null;
+    }
+
     @NotNull
     private static String extractBlobItemName(@Nullable String path, @Nullable String delimiter) {
         if (path == null) {
@@ -894,20 +1432,31 @@ public class StorageClientSDKManager {
     @NotNull
     private static TableEntity getTableEntity(@NotNull String tableName,
                                               @NotNull DynamicTableEntity dte) {
-        String partitionKey = Strings.nullToEmpty(dte.getPartitionKey());
-        String rowKey = Strings.nullToEmpty(dte.getRowKey());
-        String eTag = Strings.nullToEmpty(dte.getEtag());
+        return getTableEntity(tableName, dte.getPartitionKey(), dte.getRowKey(), dte.getTimestamp(), dte.getEtag(),
+                dte.getProperties());
+    }
+
+    @NotNull
+    private static TableEntity getTableEntity(@NotNull String tableName,
+                                              @Nullable String pk,
+                                              @Nullable String rk,
+                                              @Nullable Date ts,
+                                              @Nullable String etag,
+                                              @Nullable Map<String, EntityProperty> entityProperties) {
+        String partitionKey = Strings.nullToEmpty(pk);
+        String rowKey = Strings.nullToEmpty(rk);
+        String eTag = Strings.nullToEmpty(etag);
 
         Calendar timestamp = new GregorianCalendar();
 
-        if (dte.getTimestamp() != null) {
-            timestamp.setTime(dte.getTimestamp());
+        if (ts != null) {
+            timestamp.setTime(ts);
         }
 
         Map<String, Property> properties = new HashMap<String, Property>();
 
-        if (dte.getProperties() != null) {
-            for (Entry<String, EntityProperty> entry : dte.getProperties().entrySet()) {
+        if (entityProperties != null) {
+            for (Entry<String, EntityProperty> entry : entityProperties.entrySet()) {
                 if (entry.getKey() != null && entry.getValue() != null) {
                     String key = entry.getKey();
                     Property property;
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.table.CloudTableClient;
+import com.microsoft.azure.storage.table.TableBatchOperation;
+import com.microsoft.azure.storage.table.TableOperation;
+import com.microsoft.azure.storage.table.TableRequestOptions;
+import com.microsoft.azure.storage.table.TableResult;
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.tooling.msservices.model.storage.TableBatchResult;
+import com.microsoft.tooling.msservices.model.storage.TableEntity;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one kind of operation on many table entities as entity group transactions.
+ * <p/>
+ * A transaction may only touch one partition of one table and holds at most 100 operations, so the entities are
+ * grouped by table and partition key, split into batches of that size, and the batches run in parallel. A transaction
+ * is atomic: when the service rejects one because of a single entity, its entities are retried one at a time so that
+ * only the offending entities are reported as failed.
+ */
+abstract class TableBatchExecutor {
+    static final int DEFAULT_PARALLELISM = 8;
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final CloudTableClient client;
+    private final TableRequestOptions options;
+    private final int parallelism;
+
+    TableBatchExecutor(@NotNull CloudTableClient client, @NotNull TableRequestOptions options, int parallelism) {
+        this.client = client;
+        this.options = options;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @NotNull
+    protected abstract TableOperation createOperation(@NotNull TableEntity tableEntity) throws AzureCmdException;
+
+    /**
+     * Returns the entity as stored by the service once its operation has succeeded.
+     */
+    @NotNull
+    protected abstract TableEntity getResultEntity(@NotNull TableEntity tableEntity, @NotNull TableResult result);
+
+    @NotNull
+    TableBatchResult execute(@NotNull List<TableEntity> tableEntities) throws InterruptedException {
+        Map<List<String>, List<TableEntity>> partitions = new LinkedHashMap<List<String>, List<TableEntity>>();
+
+        for (TableEntity tableEntity : tableEntities) {
+            List<String> key = Arrays.asList(tableEntity.getTableName(), tableEntity.getPartitionKey());
+            List<TableEntity> partition = partitions.get(key);
+
+            if (partition == null) {
+                partition = new ArrayList<TableEntity>();
+                partitions.put(key, partition);
+            }
+
+            partition.add(tableEntity);
+        }
+
+        List<List<TableEntity>> batches = new ArrayList<List<TableEntity>>();
+
+        for (List<TableEntity> partition : partitions.values()) {
+            for (int start = 0; start < partition.size(); start += MAX_BATCH_SIZE) {
+                batches.add(partition.subList(start, Math.min(start + MAX_BATCH_SIZE, partition.size())));
+            }
+        }
+
+        List<TableEntity> succeeded = new ArrayList<TableEntity>(tableEntities.size());
+        Map<TableEntity, AzureCmdException> failed = new IdentityHashMap<TableEntity, AzureCmdException>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, batches.size())));
+        try {
+            List<Future<TableBatchResult>> futures = new ArrayList<Future<TableBatchResult>>(batches.size());
+
+            for (final List<TableEntity> batch : batches) {
+                futures.add(executor.submit(new Callable<TableBatchResult>() {
+                    @Override
+                    public TableBatchResult call() {
+                        return executeBatch(batch);
+                    }
+                }));
+            }
+
+            for (Future<TableBatchResult> future : futures) {
+                try {
+                    TableBatchResult batchResult = future.get();
+                    succeeded.addAll(batchResult.getSucceeded());
+                    failed.putAll(batchResult.getFailed());
+                } catch (ExecutionException e) {
+                    // executeBatch reports failures in its result, so only an unexpected error can end up here
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new TableBatchResult(succeeded, failed);
+    }
+
+    @NotNull
+    private TableBatchResult executeBatch(@NotNull List<TableEntity> batch) {
+        List<TableEntity> succeeded = new ArrayList<TableEntity>(batch.size());
+        Map<TableEntity, AzureCmdException> failed = new IdentityHashMap<TableEntity, AzureCmdException>();
+
+        if (batch.size() > 1) {
+            try {
+                TableBatchOperation batchOperation = new TableBatchOperation();
+
+                for (TableEntity tableEntity : batch) {
+                    batchOperation.add(createOperation(tableEntity));
+                }
+
+                List<TableResult> results = client.getTableReference(batch.get(0).getTableName())
+                        .execute(batchOperation, options, null);
+
+                for (int i = 0; i < batch.size(); i++) {
+                    succeeded.add(getResultEntity(batch.get(i), results.get(i)));
+                }
+
+                return new TableBatchResult(succeeded, failed);
+            } catch (StorageException e) {
+                if (!isEntityError(e)) {
+                    AzureCmdException ex = new AzureCmdException("Error running the Table batch operation", e);
+
+                    for (TableEntity tableEntity : batch) {
+                        failed.put(tableEntity, ex);
+                    }
+
+                    return new TableBatchResult(succeeded, failed);
+                }
+                // one entity spoiled the transaction, find it below
+            } catch (Throwable t) {
+                AzureCmdException ex = new AzureCmdException("Error running the Table batch operation", t);
+
+                for (TableEntity tableEntity : batch) {
+                    failed.put(tableEntity, ex);
+                }
+
+                return new TableBatchResult(succeeded, failed);
+            }
+        }
+
+        for (TableEntity tableEntity : batch) {
+            try {
+                TableResult result = client.getTableReference(tableEntity.getTableName())
+                        .execute(createOperation(tableEntity), options, null);
+                succeeded.add(getResultEntity(tableEntity, result));
+            } catch (Throwable t) {
+                failed.put(tableEntity, new AzureCmdException("Error running the Table operation", t));
+            }
+        }
+
+        return new TableBatchResult(succeeded, failed);
+    }
+
+    /**
+     * Tells whether the service rejected a transaction because of the content of its operations, as opposed to the
+     * request as a whole (authorization, throttling, service errors), which retrying entity by entity cannot fix.
+     */
+    private static boolean isEntityError(@NotNull StorageException e) {
+        int status = e.getHttpStatusCode();
+
+        return status >= HttpURLConnection.HTTP_BAD_REQUEST && status < HttpURLConnection.HTTP_INTERNAL_ERROR
+                && status != HttpURLConnection.HTTP_UNAUTHORIZED && status != HttpURLConnection.HTTP_FORBIDDEN
+                && status != 429;
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.model.storage;
+
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a batch operation on table entities, entity by entity.
+ */
+public class TableBatchResult {
+    private final List<TableEntity> succeeded;
+    private final Map<TableEntity, AzureCmdException> failed;
+
+    public TableBatchResult(@NotNull List<TableEntity> succeeded, @NotNull Map<TableEntity, AzureCmdException> failed) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    /**
+     * Returns the entities the operation succeeded for, as stored by the service.
+     */
+    @NotNull
+    public List<TableEntity> getSucceeded() {
+        return succeeded;
+    }
+
+    /**
+     * Returns the entities the operation failed for, keyed by the entity that was passed in.
+     */
+    @NotNull
+    public Map<TableEntity, AzureCmdException> getFailed() {
+        return failed;
+    }
+
+    public boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+}
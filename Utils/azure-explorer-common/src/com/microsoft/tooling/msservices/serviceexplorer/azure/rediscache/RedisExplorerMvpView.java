@@ -34,6 +34,8 @@ public interface RedisExplorerMvpView extends MvpView {
 
     void showContent(RedisValueData val);
 
+    void appendContent(long generation, RedisValueData val);
+
     void updateKeyList();
 
     void getKeyFail();
@@ -105,7 +105,9 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
      */
     public void onKeyList(int db, String cursor, String pattern) {
         Observable.fromCallable(() -> {
-            return RedisExplorerMvpModel.getInstance().scanKeys(sid, id, db, cursor, pattern);
+            ScanResult<String> keys = RedisExplorerMvpModel.getInstance().scanKeys(sid, id, db, cursor, pattern);
+            return new RedisScanResult(keys,
+                    RedisExplorerMvpModel.getInstance().getKeyMetadata(sid, id, db, keys.getResult()));
         })
         .subscribeOn(getSchedulerProvider().io())
         .subscribe(result -> {
@@ -113,7 +115,7 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
                 if (isViewDetached()) {
                     return;
                 }
-                getMvpView().showScanResult(new RedisScanResult(result));
+                getMvpView().showScanResult(result);
             });
         }, e -> {
             errorHandler(CANNOT_GET_REDIS_INFO, (Exception) e);
@@ -180,6 +182,42 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
         });
     }
 
+    /**
+     * Called when the value table of a collection key is scrolled to its end.
+     * 
+     * @param db
+     *            index of Redis Cache database
+     * @param key
+     *            target key name for Redis Cache
+     * @param type
+     *            type of the key
+     * @param cursor
+     *            next cursor of the last page shown
+     * @param generation
+     *            tag of the value shown by the view, handed back with the page so the view can drop a page loaded
+     *            for a value it no longer shows
+     */
+    public void onLoadMoreValue(int db, String key, RedisKeyType type, String cursor, long generation) {
+        Observable.fromCallable(() -> {
+            return getValuePage(db, key, type, cursor);
+        })
+        .subscribeOn(getSchedulerProvider().io())
+        .subscribe(result -> {
+            DefaultLoader.getIdeHelper().invokeLater(() -> {
+                if (isViewDetached()) {
+                    return;
+                }
+                if (result == null) {
+                    getMvpView().onError(CANNOT_GET_REDIS_INFO);
+                    return;
+                }
+                getMvpView().appendContent(generation, result);
+            });
+        }, e -> {
+            errorHandler(CANNOT_GET_REDIS_INFO, (Exception) e);
+        });
+    }
+
     /**
      * Called when the jedis pool needs to be released.
      * 
@@ -197,43 +235,68 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
 
     private RedisValueData getValueByKey(int db, String key) throws Exception {
         String type = RedisExplorerMvpModel.getInstance().getKeyType(sid, id, db, key).toUpperCase();
+        return getValuePage(db, key, RedisKeyType.valueOf(type), SCAN_POINTER_START);
+    }
+
+    private RedisValueData getValuePage(int db, String key, RedisKeyType type, String cursor) throws Exception {
         ArrayList<String[]> columnData = new ArrayList<String[]>();
-        switch (RedisKeyType.valueOf(type)) {
+        String nextCursor = cursor;
+        switch (type) {
             case STRING:
                 String stringVal = RedisExplorerMvpModel.getInstance().getStringValue(sid, id, db, key);
                 columnData.add(new String[] { stringVal });
                 return new RedisValueData(columnData, RedisKeyType.STRING);
             case LIST:
-                List<String> listVal = RedisExplorerMvpModel.getInstance().getListValue(sid, id, db, key);
+                long listStart = Long.parseLong(cursor);
+                List<String> listVal = RedisExplorerMvpModel.getInstance().getListValue(sid, id, db, key,
+                        listStart);
                 for (int i = 0; i < listVal.size(); i++) {
-                    columnData.add(new String[] { String.valueOf(i + 1), listVal.get(i) });
+                    columnData.add(new String[] { String.valueOf(listStart + i + 1), listVal.get(i) });
                 }
-                return new RedisValueData(columnData, RedisKeyType.LIST);
+                return new RedisValueData(columnData, RedisKeyType.LIST, getNextOffset(listStart, listVal.size()));
             case SET:
-                ScanResult<String> setVal = RedisExplorerMvpModel.getInstance().getSetValue(sid, id, db, key,
-                        SCAN_POINTER_START);
-                for (String row : setVal.getResult()) {
-                    columnData.add(new String[] { row });
-                }
-                return new RedisValueData(columnData, RedisKeyType.SET);
+                // SSCAN may return an empty page before the end, so keep scanning until there is something to show.
+                do {
+                    ScanResult<String> setVal = RedisExplorerMvpModel.getInstance().getSetValue(sid, id, db, key,
+                            nextCursor);
+                    for (String row : setVal.getResult()) {
+                        columnData.add(new String[] { row });
+                    }
+                    nextCursor = setVal.getStringCursor();
+                } while (columnData.isEmpty() && !isScanFinished(nextCursor));
+                return new RedisValueData(columnData, RedisKeyType.SET, nextCursor);
             case ZSET:
-                Set<Tuple> zsetVal = RedisExplorerMvpModel.getInstance().getZSetValue(sid, id, db, key);
+                long zsetStart = Long.parseLong(cursor);
+                Set<Tuple> zsetVal = RedisExplorerMvpModel.getInstance().getZSetValue(sid, id, db, key, zsetStart);
                 for (Tuple tuple : zsetVal) {
                     columnData.add(new String[] { String.valueOf(tuple.getScore()), tuple.getElement() });
                 }
-                return new RedisValueData(columnData, RedisKeyType.ZSET);
+                return new RedisValueData(columnData, RedisKeyType.ZSET, getNextOffset(zsetStart, zsetVal.size()));
             case HASH:
-                ScanResult<Entry<String, String>> hashVal = RedisExplorerMvpModel.getInstance().getHashValue(sid,
-                        id, db, key, SCAN_POINTER_START);
-                for (Entry<String, String> hash : hashVal.getResult()) {
-                    columnData.add(new String[] { hash.getKey(), hash.getValue() });
-                }
-                return new RedisValueData(columnData, RedisKeyType.HASH);
+                do {
+                    ScanResult<Entry<String, String>> hashVal = RedisExplorerMvpModel.getInstance().getHashValue(sid,
+                            id, db, key, nextCursor);
+                    for (Entry<String, String> hash : hashVal.getResult()) {
+                        columnData.add(new String[] { hash.getKey(), hash.getValue() });
+                    }
+                    nextCursor = hashVal.getStringCursor();
+                } while (columnData.isEmpty() && !isScanFinished(nextCursor));
+                return new RedisValueData(columnData, RedisKeyType.HASH, nextCursor);
             default:
                 return null;
         }
     }
 
+    private static String getNextOffset(long start, int pageSize) {
+        // A short page is the last one.
+        return pageSize < RedisExplorerMvpModel.DEFAULT_VAL_COUNT ? SCAN_POINTER_START
+                : String.valueOf(start + pageSize);
+    }
+
+    private static boolean isScanFinished(String cursor) {
+        return cursor == null || cursor.equals(SCAN_POINTER_START);
+    }
+
     private void errorHandler(String msg, Exception e) {
         DefaultLoader.getIdeHelper().invokeLater(() -> {
             if (isViewDetached()) {
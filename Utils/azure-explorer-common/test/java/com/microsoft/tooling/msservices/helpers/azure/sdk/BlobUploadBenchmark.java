@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files
+ * (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge,
+ * publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR
+ * ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH
+ * THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.tooling.msservices.model.storage.BlobContainer;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Calendar;
+import java.util.Random;
+
+/**
+ * Upload throughput of the stream based block upload against the parallel {@link BlockBlobUploader}.
+ * <p/>
+ * Not a unit test: it needs a storage endpoint, by default the local emulator (Azurite). Run the main method with
+ * -Dbenchmark.connectionString=... to use another account and -Dbenchmark.sizeMb=... to change the file size.
+ */
+public class BlobUploadBenchmark {
+    private static final String CONTAINER_NAME = "upload-benchmark";
+
+    public static void main(String[] args) throws Exception {
+        String connectionString = System.getProperty("benchmark.connectionString", "UseDevelopmentStorage=true");
+        long sizeMb = Long.getLong("benchmark.sizeMb", 256L);
+
+        File file = createFile(sizeMb);
+        try {
+            CloudBlobContainer container = CloudStorageAccount.parse(connectionString)
+                    .createCloudBlobClient().getContainerReference(CONTAINER_NAME);
+            container.createIfNotExists();
+            BlobContainer blobContainer = new BlobContainer(CONTAINER_NAME, container.getUri().toString(), "",
+                    Calendar.getInstance(), "");
+
+            // warm up connections and JIT
+            runStreamUpload(connectionString, blobContainer, file);
+
+            report("sequential stream, 1 MiB blocks", file, runStreamUpload(connectionString, blobContainer, file));
+            for (int parallelism : new int[]{1, 4, 8, 16}) {
+                report(String.format("parallel, %d MiB blocks, %d threads",
+                        BlockBlobUploader.getBlockSize(file.length()) / (1024 * 1024), parallelism),
+                        file, runParallelUpload(container, file, parallelism));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static long runStreamUpload(String connectionString, BlobContainer blobContainer, File file) throws Exception {
+        long start = System.nanoTime();
+        try (InputStream content = new BufferedInputStream(new FileInputStream(file))) {
+            StorageClientSDKManager.getManager().uploadBlobFileContent(connectionString, blobContainer,
+                    "stream-" + System.nanoTime(), content, null, 1024 * 1024, file.length());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long runParallelUpload(CloudBlobContainer container, File file, int parallelism) throws Exception {
+        long start = System.nanoTime();
+        new BlockBlobUploader(container, "parallel-" + System.nanoTime(), file, parallelism, null).upload();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, File file, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println(String.format("%-40s %8.2f s %8.1f MB/s", name, seconds,
+                file.length() / (1024.0 * 1024.0) / seconds));
+    }
+
+    private static File createFile(long sizeMb) throws Exception {
+        File file = File.createTempFile("upload-benchmark", ".bin");
+        byte[] buffer = new byte[1024 * 1024];
+        Random random = new Random(42);
+        try (OutputStream out = new FileOutputStream(file)) {
+            for (long i = 0; i < sizeMb; i++) {
+                random.nextBytes(buffer);
+                out.write(buffer);
+            }
+        }
+        return file;
+    }
+}
@@ -37,6 +37,7 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisConnectionPools;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisExplorerMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.SchedulerProviderFactory;
@@ -93,6 +94,9 @@ public class RedisExplorerPresenterTest {
     private final static String TYPE_HASH = "hash";
 
     private final static int MOCK_DB = 0;
+    private final static long MOCK_OFFSET = 0L;
+    private final static String MOCK_NEXT_CURSOR = "42";
+    private final static long MOCK_GENERATION = 7L;
 
     @Before
     public void setUp() throws Exception {
@@ -148,7 +152,7 @@ public class RedisExplorerPresenterTest {
     @Test
     public void testOnkeySelectWithListKey() throws Exception {
         when(redisExplorerMvpModelMock.getKeyType(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(TYPE_LIST);
-        when(redisExplorerMvpModelMock.getListValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(new ArrayList<String>());
+        when(redisExplorerMvpModelMock.getListValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY, MOCK_OFFSET)).thenReturn(new ArrayList<String>());
 
         redisExplorerPresenter.onkeySelect(MOCK_DB, MOCK_KEY);
         testSchedulerProvider.triggerActions();
@@ -168,7 +172,7 @@ public class RedisExplorerPresenterTest {
     @Test
     public void testOnkeySelectWithZSetKey() throws Exception {
         when(redisExplorerMvpModelMock.getKeyType(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(TYPE_ZSET);
-        when(redisExplorerMvpModelMock.getZSetValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(new HashSet<Tuple>());
+        when(redisExplorerMvpModelMock.getZSetValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY, MOCK_OFFSET)).thenReturn(new HashSet<Tuple>());
 
         redisExplorerPresenter.onkeySelect(MOCK_DB, MOCK_KEY);
         testSchedulerProvider.triggerActions();
@@ -185,6 +189,17 @@ public class RedisExplorerPresenterTest {
         verify(redisExplorerMvpViewMock).showContent(Mockito.any(RedisValueData.class));
     }
 
+    @Test
+    public void testOnLoadMoreValueWithHashKey() throws Exception {
+        when(redisExplorerMvpModelMock.getHashValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY, MOCK_NEXT_CURSOR)).thenReturn(entryScanResultMock);
+        when(entryScanResultMock.getStringCursor()).thenReturn(MOCK_CURSOR);
+
+        redisExplorerPresenter.onLoadMoreValue(MOCK_DB, MOCK_KEY, RedisKeyType.HASH, MOCK_NEXT_CURSOR, MOCK_GENERATION);
+        testSchedulerProvider.triggerActions();
+        verify(redisExplorerMvpModelMock).getHashValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY, MOCK_NEXT_CURSOR);
+        verify(redisExplorerMvpViewMock).appendContent(Mockito.eq(MOCK_GENERATION), Mockito.any(RedisValueData.class));
+    }
+
     @Test
     public void testOnGetKeyAndValue() throws Exception {
         when(redisExplorerMvpModelMock.checkKeyExistance(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(true);
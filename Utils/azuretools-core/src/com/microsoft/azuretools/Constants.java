@@ -45,5 +45,7 @@ public class Constants {
     public static String clientId = "61d65f5a-6e3b-468b-af73-a033f5098c5c";
     public static String redirectUri = "https://msopentech.com/";
     public static int connection_read_timeout_ms = 10000;
+    public static int connection_connect_timeout_ms = 10000;
+    public static int connection_max_per_host = 5;
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.adauth;
+
+import java.io.IOException;
+
+/**
+ * Redeems the refresh token of a cached item without any user interaction and stores the new token in the cache.
+ */
+class AcquireTokenByRefreshTokenHandler extends AcquireTokenHandlerBase {
+    private final AuthenticationResult cachedResult;
+
+    AcquireTokenByRefreshTokenHandler(Authenticator authenticator, TokenCache tokenCache, TokenCacheKey key,
+            AuthenticationResult cachedResult) {
+        super(authenticator, tokenCache, key.resource, new ClientKey(key.clientId), key.tokenSubjectType);
+        if (cachedResult == null || cachedResult.refreshToken == null) {
+            throw new IllegalArgumentException("cachedResult");
+        }
+        this.cachedResult = cachedResult;
+        this.uniqueId = key.uniqueId;
+        this.displayableId = key.displayableId;
+        this.loadFromCache = false;
+    }
+
+    @Override
+    protected AuthenticationResult acquireToken() throws IOException {
+        AuthenticationResult result = refreshAccessToken(cachedResult);
+        if (result == null) {
+            throw new AuthException(AuthError.FailedToRefreshToken);
+        }
+        return result;
+    }
+}
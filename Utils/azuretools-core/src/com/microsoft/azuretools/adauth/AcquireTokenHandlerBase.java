@@ -27,12 +27,13 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class AcquireTokenHandlerBase {
     final static Logger log = Logger.getLogger(AcquireTokenHandlerBase.class.getName());
-    protected static ExecutorService service = Executors.newSingleThreadExecutor();
+    protected static ExecutorService service = Executors.newCachedThreadPool();
     protected CallState callState;
     protected boolean supportADFS;
     protected Authenticator authenticator;
@@ -46,7 +47,14 @@ public class AcquireTokenHandlerBase {
     protected boolean storeToCache;
     protected final static String NullResource = "null_resource_as_optional";
     private final TokenCache tokenCache;
-    private static Object cacheLock = new Object();
+    // token cache keys (authority, resource, client id, user, subject type) are striped over a fixed set of locks
+    private static final int ACQUISITION_LOCK_STRIPES = 64;
+    private static final ReentrantLock[] acquisitionLocks = new ReentrantLock[ACQUISITION_LOCK_STRIPES];
+    static {
+        for (int i = 0; i < ACQUISITION_LOCK_STRIPES; i++) {
+            acquisitionLocks[i] = new ReentrantLock();
+        }
+    }
     
     protected AcquireTokenHandlerBase(Authenticator authenticator, TokenCache tokenCache, String resource, ClientKey clientKey, TokenSubjectType subjectType) {
         this.authenticator = authenticator;
@@ -66,19 +74,23 @@ public class AcquireTokenHandlerBase {
     AuthenticationResult run() throws IOException {
         boolean notifiedBeforeAccessCache = false;
         try {
-            synchronized (cacheLock) {
-                preRun();
-                AuthenticationResult result = null;
-                long start = System.currentTimeMillis();
-                if (loadFromCache) {
-                    notifyBeforeAccessCache();
-                    notifiedBeforeAccessCache = true;
-                    log.log(Level.FINEST, String.format("\n=== Token Acquisition started:\n\tAuthority: %s\n\tResource: %s\n\tClientId: %s\n\tCacheType: %s\n\tAuthentication Target: %s\n\tthread name: %s\n\t",
-                            authenticator.getAuthority(), resource, clientKey.clientId,
-                            (tokenCache != null) ? tokenCache.getClass().getName() + String.format(" (%d items)", tokenCache.getCount()) : "null", tokenSubjectType, Thread.currentThread().getName() ));
-                    result = tokenCache.loadFromCache(authenticator.getAuthority(), resource,
-                            clientKey.clientId, tokenSubjectType, uniqueId, displayableId);
-                    result = validateResult(result);
+            preRun();
+            AuthenticationResult result = null;
+            long start = System.currentTimeMillis();
+            if (loadFromCache) {
+                notifyBeforeAccessCache();
+                notifiedBeforeAccessCache = true;
+                result = loadFromCache();
+            }
+            if (result == null || result.accessToken == null) {
+                // Only requests for the same token wait for each other; a hit above never takes a lock.
+                ReentrantLock acquisitionLock = getAcquisitionLock();
+                acquisitionLock.lock();
+                try {
+                    if (loadFromCache) {
+                        // another thread may have refreshed or acquired this token while we were waiting
+                        result = loadFromCache();
+                    }
                     if (result != null && result.accessToken == null
                             && result.refreshToken != null) {
                         //result = refreshAccessTokenAsync(result).get();
@@ -87,31 +99,55 @@ public class AcquireTokenHandlerBase {
                             tokenCache.storeToCache(result, authenticator.getAuthority(), resource, clientKey.clientId, tokenSubjectType);
                         }
                     }
-                }
-                if (result == null) {
-                    preTokenRequest();
-                    //result = acquireTokenAsync().get();
-                    result = acquireToken();
-                    postTokenRequest(result);
-                    if (storeToCache) {
-                        if (!notifiedBeforeAccessCache) {
-                            notifyBeforeAccessCache();
-                            notifiedBeforeAccessCache = true;
+                    if (result == null) {
+                        preTokenRequest();
+                        //result = acquireTokenAsync().get();
+                        result = acquireToken();
+                        postTokenRequest(result);
+                        if (storeToCache) {
+                            if (!notifiedBeforeAccessCache) {
+                                notifyBeforeAccessCache();
+                                notifiedBeforeAccessCache = true;
+                            }
+                            tokenCache.storeToCache(result, authenticator.getAuthority(), resource, clientKey.clientId, tokenSubjectType);
                         }
-                        tokenCache.storeToCache(result, authenticator.getAuthority(), resource, clientKey.clientId, tokenSubjectType);
                     }
+                } finally {
+                    acquisitionLock.unlock();
                 }
-                postRunAsync(result);
-                long end = System.currentTimeMillis();
-                log.log(Level.FINEST, String.format("====> %s: %d ms to get access token =========", Thread.currentThread().getName(), end-start));
-                return result;
             }
+            postRunAsync(result);
+            long end = System.currentTimeMillis();
+            log.log(Level.FINEST, String.format("====> %s: %d ms to get access token =========", Thread.currentThread().getName(), end-start));
+            return result;
         } finally {
             if (notifiedBeforeAccessCache) {
                 notifyAfterAccessCache();
             }
         }
     }
+
+    private AuthenticationResult loadFromCache() throws IOException {
+        log.log(Level.FINEST, String.format("\n=== Token Acquisition started:\n\tAuthority: %s\n\tResource: %s\n\tClientId: %s\n\tCacheType: %s\n\tAuthentication Target: %s\n\tthread name: %s\n\t",
+                authenticator.getAuthority(), resource, clientKey.clientId,
+                (tokenCache != null) ? tokenCache.getClass().getName() + String.format(" (%d items)", tokenCache.getCount()) : "null", tokenSubjectType, Thread.currentThread().getName() ));
+        AuthenticationResult result = tokenCache.loadFromCache(authenticator.getAuthority(), resource,
+                clientKey.clientId, tokenSubjectType, uniqueId, displayableId);
+        return validateResult(result);
+    }
+
+    private ReentrantLock getAcquisitionLock() {
+        final String Delimiter = ":::";
+        String key = authenticator.getAuthority() + Delimiter
+                + resource + Delimiter
+                + clientKey.clientId + Delimiter
+                + uniqueId + Delimiter
+                + displayableId + Delimiter
+                + tokenSubjectType;
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return acquisitionLocks[hash & (ACQUISITION_LOCK_STRIPES - 1)];
+    }
     
     Future<AuthenticationResult> runAsync() {
         return service.submit(new Callable<AuthenticationResult>() {
@@ -143,7 +179,7 @@ public class AcquireTokenHandlerBase {
     }
 
     protected void postRunAsync(final AuthenticationResult result) {
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        service.submit(new Runnable() {
             @Override
             public void run() {
                 logReturnedToken(result);
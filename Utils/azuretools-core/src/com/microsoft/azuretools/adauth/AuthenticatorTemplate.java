@@ -77,6 +77,7 @@ class AuthenticatorTemplate {
         URL url = new URL(instanceDiscoveryEndpoint);
         HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestMethod("GET");
+        connection.setConnectTimeout(Constants.connection_connect_timeout_ms);
         connection.setReadTimeout(Constants.connection_read_timeout_ms);
         //connection.setRequestProperty("User-Agent", "AzureToolkit4");
         HttpHelper.addCorrelationIdToRequestHeader(connection, callState);
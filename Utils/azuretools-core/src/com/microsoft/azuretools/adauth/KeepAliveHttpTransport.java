@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.adauth;
+
+import com.microsoft.azuretools.Constants;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Default {@link HttpTransport}. Responses are always read to the end and closed without disconnecting, so the
+ * JDK keeps the socket (and its TLS session) alive and hands it to the next request for the same host. The number
+ * of concurrent requests per host is capped by {@link Constants#connection_max_per_host}.
+ */
+public class KeepAliveHttpTransport implements HttpTransport {
+    final static Logger log = Logger.getLogger(KeepAliveHttpTransport.class.getName());
+    private static final int BUFFER_SIZE = 4096;
+
+    private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyStats> latencyStats = new ConcurrentHashMap<>();
+
+    @Override
+    public <T> T post(final String uri, final Map<String, String> requestParameters, final CallState callState,
+            final Class<T> cls) throws IOException {
+        URL url = new URL(uri);
+        String authority = authorityOf(url);
+        Semaphore permits = permitsFor(url);
+        try {
+            if (!permits.tryAcquire(Constants.connection_connect_timeout_ms, TimeUnit.MILLISECONDS)) {
+                throw new IOException("Timed out waiting for a connection to " + url.getHost());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + url.getHost());
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = execute(url, requestParameters, callState, cls);
+            succeeded = true;
+            return result;
+        } finally {
+            permits.release();
+            recordLatency(authority, System.nanoTime() - start, succeeded);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the request latencies observed so far, keyed by authority.
+     */
+    public Map<String, LatencyStats> getLatencyStats() {
+        return Collections.unmodifiableMap(new HashMap<>(latencyStats));
+    }
+
+    private <T> T execute(URL url, Map<String, String> requestParameters, CallState callState, Class<T> cls)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        HttpHelper.addCorrelationIdToRequestHeader(connection, callState);
+        connection.setRequestProperty("Content-Type",
+                "application/x-www-form-urlencoded; charset=" + StandardCharsets.UTF_8.name());
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setDoInput(true);
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(Constants.connection_connect_timeout_ms);
+        connection.setReadTimeout(Constants.connection_read_timeout_ms);
+
+        byte[] requestData = UriUtils.toQueryString(requestParameters).getBytes(StandardCharsets.UTF_8);
+        connection.setFixedLengthStreamingMode(requestData.length);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(requestData);
+        }
+
+        int statusCode = connection.getResponseCode();
+        if (statusCode != HttpURLConnection.HTTP_OK) {
+            String err = readErrorBody(connection);
+            String message = "AD Auth token endpoint returned HTTP status code " + Integer.toString(statusCode)
+                    + ". Error info: " + err;
+            log.log(Level.SEVERE, message);
+
+            TokenResponse r = StringUtils.isNullOrWhiteSpace(err) ? null
+                    : JsonHelper.deserialize(TokenResponse.class, err);
+            if (r != null && "invalid_grant".equals(r.error))
+                throw new AuthException(message);
+            else
+                throw new IOException(message);
+        }
+
+        HttpHelper.verifyCorrelationIdInReponseHeader(connection, callState);
+
+        InputStream input = connection.getInputStream();
+        try {
+            return JsonHelper.deserialize(cls, new UnclosableInputStream(input));
+        } catch (EOFException ex) {
+            throw new IOException("response is empty or null", ex);
+        } finally {
+            drainAndClose(input);
+        }
+    }
+
+    private static String readErrorBody(HttpURLConnection connection) throws IOException {
+        InputStream errorStream = connection.getErrorStream();
+        if (errorStream == null) {
+            return "";
+        }
+        StringBuilder err = new StringBuilder();
+        try (Reader errorReader = new InputStreamReader(errorStream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = errorReader.read(buffer)) != -1) {
+                err.append(buffer, 0, read);
+            }
+        }
+        return err.toString();
+    }
+
+    // A connection only goes back to the keep-alive cache once its body has been fully consumed.
+    private static void drainAndClose(InputStream input) {
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (input.read(buffer) != -1) {
+                // discard
+            }
+        } catch (IOException ex) {
+            log.log(Level.FINEST, "Failed to drain the token response", ex);
+        } finally {
+            try {
+                input.close();
+            } catch (IOException ex) {
+                log.log(Level.FINEST, "Failed to close the token response", ex);
+            }
+        }
+    }
+
+    private Semaphore permitsFor(URL url) {
+        String host = url.getHost().toLowerCase() + ":" + (url.getPort() != -1 ? url.getPort() : url.getDefaultPort());
+        Semaphore permits = hostPermits.get(host);
+        if (permits == null) {
+            Semaphore created = new Semaphore(Math.max(1, Constants.connection_max_per_host), true);
+            permits = hostPermits.putIfAbsent(host, created);
+            if (permits == null) {
+                permits = created;
+            }
+        }
+        return permits;
+    }
+
+    private void recordLatency(String authority, long elapsedNanos, boolean succeeded) {
+        LatencyStats stats = latencyStats.get(authority);
+        if (stats == null) {
+            LatencyStats created = new LatencyStats();
+            stats = latencyStats.putIfAbsent(authority, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        stats.record(elapsedMillis, succeeded);
+        log.log(Level.FINEST, String.format("Token request to %s took %d ms (average %d ms over %d requests)",
+                authority, elapsedMillis, stats.getAverageMillis(), stats.getCount()));
+    }
+
+    // The token endpoint is <authority>/oauth2/token, where the authority is the host plus the tenant segment.
+    private static String authorityOf(URL url) {
+        String path = url.getPath();
+        int end = path.indexOf('/', 1);
+        String tenant = (end > 0) ? path.substring(0, end) : path;
+        return url.getProtocol() + "://" + url.getAuthority() + tenant;
+    }
+
+    public static class LatencyStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long elapsedMillis, boolean succeeded) {
+            count.incrementAndGet();
+            if (!succeeded) {
+                failures.incrementAndGet();
+            }
+            totalMillis.addAndGet(elapsedMillis);
+            long max;
+            while (elapsedMillis > (max = maxMillis.get()) && !maxMillis.compareAndSet(max, elapsedMillis)) {
+                // retry
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getFailureCount() {
+            return failures.get();
+        }
+
+        public long getAverageMillis() {
+            long n = count.get();
+            return (n == 0) ? 0 : totalMillis.get() / n;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, failures=%d, avg=%d ms, max=%d ms",
+                    getCount(), getFailureCount(), getAverageMillis(), getMaxMillis());
+        }
+    }
+
+    // Jackson closes its source when done; keep the stream open so it can be drained first.
+    private static class UnclosableInputStream extends FilterInputStream {
+        UnclosableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
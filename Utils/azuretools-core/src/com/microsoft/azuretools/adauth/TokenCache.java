@@ -33,10 +33,14 @@ public class TokenCache {
     private final static Logger log = Logger.getLogger(TokenCache.class.getName());
     private final int SchemaVersion = 1;
     private final static String Delimiter = ":::";
+    // tokens this close to expiry are not handed out, only their refresh token is
+    final static long ExpirationMarginSec = TimeUnit.MINUTES.toSeconds(5);
     private final Map<TokenCacheKey, AuthenticationResult> tokenCacheDictionary;
     private volatile boolean hasStateChanged = false;
+    // Guards writes and whole-cache operations; lookups read the concurrent map without locking.
     private final Object lock = new Object();
     private static TokenCache defaultShared = null;
+    private volatile TokenCacheRefresher refresher = null;
 
     /// <summary>
     /// Default constructor.
@@ -58,15 +62,11 @@ public class TokenCache {
     /// the flag after serializing and persisting the state of the cache.
     /// </summary>
     public boolean getHasStateChanged() {
-       synchronized (lock) {
-          return hasStateChanged;
-       }
+        return hasStateChanged;
     }
 
     public void setHasStateChanged(boolean val) {
-       synchronized (lock) {
-          hasStateChanged = val;
-       }
+        hasStateChanged = val;
     }
 
     /// <summary>
@@ -83,9 +83,7 @@ public class TokenCache {
     /// Gets the number of items in the cache.
     /// </summary>
     public int getCount() {
-       synchronized (lock) {
-          return this.tokenCacheDictionary.size();
-        }
+        return this.tokenCacheDictionary.size();
     }
 
     /// <summary>
@@ -239,52 +237,50 @@ public class TokenCache {
     }
 
     AuthenticationResult loadFromCache(String authority, String resource, String clientId, TokenSubjectType subjectType, String uniqueId, String displayableId) throws IOException {
-       synchronized(lock) {
-            log.log(Level.FINEST, "Looking up cache for a token...");
-            AuthenticationResult result = null;
-            Map.Entry<TokenCacheKey, AuthenticationResult> kvp = loadSingleItemFromCache(authority,
-                resource, clientId, subjectType, uniqueId, displayableId);
-            if (kvp != null) {
-                TokenCacheKey cacheKey = kvp.getKey();
-                result = kvp.getValue();
-
-                Calendar now = new GregorianCalendar();
-                now.setTimeInMillis(System.currentTimeMillis());
-                int expirationMarginInMinutes = 5;
-                now.add(Calendar.MINUTE, expirationMarginInMinutes);
-                Calendar expiresOn = new GregorianCalendar();
-                expiresOn.setTimeInMillis(TimeUnit.SECONDS.toMillis(result.expiresOn));
-                boolean tokenNearExpiry = expiresOn.before(now);
-
-                if (tokenNearExpiry) {
-                    result.accessToken = null;
-                    log.log(Level.FINEST, "An expired or near expiry token was found in the cache");
-                } else if (!cacheKey.resource.equals(resource)) {
-                    log.log(Level.FINEST, String.format(
-                            "Multi resource refresh token for resource '%s' will be used to acquire token for '%s'",
-                            cacheKey.resource, resource));
-                    AuthenticationResult newResult = new AuthenticationResult(null, null, result.refreshToken, 0);
-                    newResult.updateTenantAndUserInfo(result.tenantId, result.idToken, result.userInfo);
-                    result = newResult;
-                } else {
-                   long nowSec = System.currentTimeMillis()/1000;
-                    log.log(Level.FINEST,
-                        String.format("%d minutes left until token in cache expires", TimeUnit.SECONDS.toMinutes(result.expiresOn - nowSec)));
-                }
-                if (result.accessToken == null && result.refreshToken == null) {
-                    this.tokenCacheDictionary.remove(cacheKey);
+        log.log(Level.FINEST, "Looking up cache for a token...");
+        AuthenticationResult result = null;
+        Map.Entry<TokenCacheKey, AuthenticationResult> kvp = loadSingleItemFromCache(authority,
+            resource, clientId, subjectType, uniqueId, displayableId);
+        if (kvp != null) {
+            TokenCacheKey cacheKey = kvp.getKey();
+            AuthenticationResult cached = kvp.getValue();
+            result = cached;
+
+            long nowSec = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+            boolean tokenNearExpiry = result.expiresOn < nowSec + ExpirationMarginSec;
+
+            if (tokenNearExpiry) {
+                // other threads may be reading the cached instance, so hand back a copy without the access token
+                result = new AuthenticationResult(cached.accessTokenType, null, cached.refreshToken, cached.expiresOn);
+                result.updateTenantAndUserInfo(cached.tenantId, cached.idToken, cached.userInfo);
+                result.isMultipleResourceRefreshToken = cached.isMultipleResourceRefreshToken;
+                result.resource = cached.resource;
+                log.log(Level.FINEST, "An expired or near expiry token was found in the cache");
+            } else if (!cacheKey.resource.equals(resource)) {
+                log.log(Level.FINEST, String.format(
+                        "Multi resource refresh token for resource '%s' will be used to acquire token for '%s'",
+                        cacheKey.resource, resource));
+                AuthenticationResult newResult = new AuthenticationResult(null, null, result.refreshToken, 0);
+                newResult.updateTenantAndUserInfo(result.tenantId, result.idToken, result.userInfo);
+                result = newResult;
+            } else {
+                log.log(Level.FINEST,
+                    String.format("%d minutes left until token in cache expires", TimeUnit.SECONDS.toMinutes(result.expiresOn - nowSec)));
+            }
+            if (result.accessToken == null && result.refreshToken == null) {
+                if (this.tokenCacheDictionary.remove(cacheKey, cached)) {
                     log.log(Level.FINEST,  "An old item was removed from the cache");
                     this.setHasStateChanged(true);
-                    result = null;
-                }
-                if (result != null) {
-                    log.log(Level.FINEST, String.format("A matching item (access token or refresh token or both) was found in the cache [hashCode: '%x']", cacheKey.hashCode() ));
                 }
-            } else {
-                log.log(Level.FINEST,  "No matching token was found in the cache");
+                result = null;
             }
-            return result;
+            if (result != null) {
+                log.log(Level.FINEST, String.format("A matching item (access token or refresh token or both) was found in the cache [hashCode: '%x']", cacheKey.hashCode() ));
+            }
+        } else {
+            log.log(Level.FINEST,  "No matching token was found in the cache");
         }
+        return result;
     }
 
     void storeToCache(AuthenticationResult result, String authority, String resource, String clientId, TokenSubjectType subjectType) {
@@ -306,6 +302,45 @@ public class TokenCache {
 
             this.setHasStateChanged(true);
         }
+        TokenCacheRefresher currentRefresher = refresher;
+        if (currentRefresher != null && result.accessToken != null) {
+            currentRefresher.onTokenStored(result.expiresOn);
+        }
+    }
+
+    void setRefresher(TokenCacheRefresher refresher) {
+        this.refresher = refresher;
+    }
+
+    /// <summary>
+    /// Returns the earliest expiration time (epoch seconds) of the access tokens that are still valid and can be
+    /// refreshed, or Long.MAX_VALUE if there are none.
+    /// </summary>
+    long getEarliestExpiresOn(long nowSec) {
+        long earliest = Long.MAX_VALUE;
+        for (AuthenticationResult result : tokenCacheDictionary.values()) {
+            if (isRefreshable(result, nowSec)) {
+                earliest = Math.min(earliest, result.expiresOn);
+            }
+        }
+        return earliest;
+    }
+
+    /// <summary>
+    /// Returns the items whose access token is still valid at nowSec but expires before expiresBeforeSec.
+    /// </summary>
+    List<Map.Entry<TokenCacheKey, AuthenticationResult>> getItemsExpiringBefore(long nowSec, long expiresBeforeSec) {
+        List<Map.Entry<TokenCacheKey, AuthenticationResult>> res = new LinkedList<>();
+        for (Map.Entry<TokenCacheKey, AuthenticationResult> p : tokenCacheDictionary.entrySet()) {
+            if (isRefreshable(p.getValue(), nowSec) && p.getValue().expiresOn < expiresBeforeSec) {
+                res.add(p);
+            }
+        }
+        return res;
+    }
+
+    private static boolean isRefreshable(AuthenticationResult result, long nowSec) {
+        return result.accessToken != null && result.refreshToken != null && result.expiresOn > nowSec;
     }
 
     private void updateCachedMrrtRefreshTokens(AuthenticationResult result, String authority, String clientId, TokenSubjectType subjectType) {
@@ -336,47 +371,45 @@ public class TokenCache {
 
     private Map.Entry<TokenCacheKey, AuthenticationResult> loadSingleItemFromCache(String authority, String resource, String clientId,
           TokenSubjectType subjectType, String uniqueId, String displayableId) throws IOException {
-        synchronized(lock) {
-            // First identify all potential tokens.
-            List<Map.Entry<TokenCacheKey, AuthenticationResult>> items = queryCache(authority, clientId,
-                subjectType, uniqueId, displayableId);
-
-            List<Map.Entry<TokenCacheKey, AuthenticationResult>> resourceSpecificItems = new LinkedList<>();
-            for (Map.Entry<TokenCacheKey, AuthenticationResult> item : items) {
-                if (item.getKey().resource.equals(resource)) {
-                    resourceSpecificItems.add(item);
-                }
+        // First identify all potential tokens.
+        List<Map.Entry<TokenCacheKey, AuthenticationResult>> items = queryCache(authority, clientId,
+            subjectType, uniqueId, displayableId);
+
+        List<Map.Entry<TokenCacheKey, AuthenticationResult>> resourceSpecificItems = new LinkedList<>();
+        for (Map.Entry<TokenCacheKey, AuthenticationResult> item : items) {
+            if (item.getKey().resource.equals(resource)) {
+                resourceSpecificItems.add(item);
             }
+        }
 
 //            List<Map.Entry<TokenCacheKey, AuthenticationResult>> resourceSpecificItems =
 //                items.stream().filter(p -> p.getKey().resource.equals(resource)).collect(Collectors.toList());
 
-            int resourceValuesCount = resourceSpecificItems.size();
-            Map.Entry<TokenCacheKey, AuthenticationResult> returnValue = null;
-            if (resourceValuesCount == 1) {
-                log.log(Level.FINEST,  "An item matching the requested resource was found in the cache");
-                returnValue = resourceSpecificItems.get(0);
-            } else if (resourceValuesCount == 0) {
-                // There are no resource specific tokens.  Choose any of the MRRT tokens if there are any.
+        int resourceValuesCount = resourceSpecificItems.size();
+        Map.Entry<TokenCacheKey, AuthenticationResult> returnValue = null;
+        if (resourceValuesCount == 1) {
+            log.log(Level.FINEST,  "An item matching the requested resource was found in the cache");
+            returnValue = resourceSpecificItems.get(0);
+        } else if (resourceValuesCount == 0) {
+            // There are no resource specific tokens.  Choose any of the MRRT tokens if there are any.
 //                items.stream().filter(p -> p.getValue().isMultipleResourceRefreshToken).collect(Collectors.toList());
-                List<Map.Entry<TokenCacheKey, AuthenticationResult>> mrrtItems = new LinkedList<>();
-                for (Map.Entry<TokenCacheKey, AuthenticationResult> item : items) {
-                    if (item.getValue().isMultipleResourceRefreshToken) {
-                        mrrtItems.add(item);
-                    }
+            List<Map.Entry<TokenCacheKey, AuthenticationResult>> mrrtItems = new LinkedList<>();
+            for (Map.Entry<TokenCacheKey, AuthenticationResult> item : items) {
+                if (item.getValue().isMultipleResourceRefreshToken) {
+                    mrrtItems.add(item);
                 }
+            }
 
-                if (!mrrtItems.isEmpty()) {
-                    returnValue = mrrtItems.get(0);
-                    log.log(Level.FINEST, "A Multi Resource Refresh Token for a different resource was found which can be used");
-                }
-            } else {
-                String message = AuthError.MultipleTokensMatched;
-                log.log(Level.SEVERE, message);
-                throw new IOException(message);
+            if (!mrrtItems.isEmpty()) {
+                returnValue = mrrtItems.get(0);
+                log.log(Level.FINEST, "A Multi Resource Refresh Token for a different resource was found which can be used");
             }
-            return returnValue;
+        } else {
+            String message = AuthError.MultipleTokensMatched;
+            log.log(Level.SEVERE, message);
+            throw new IOException(message);
         }
+        return returnValue;
     }
 
     /// <summary>
@@ -386,18 +419,16 @@ public class TokenCache {
     /// </summary>
     private List<Map.Entry<TokenCacheKey, AuthenticationResult>> queryCache(String authority, String clientId,
         TokenSubjectType subjectType, String uniqueId, String displayableId) {
-       synchronized(lock) {
-          List<Map.Entry<TokenCacheKey, AuthenticationResult>> res = new LinkedList<>();
-          for(Map.Entry<TokenCacheKey, AuthenticationResult> p : tokenCacheDictionary.entrySet()) {
-             if(p.getKey().authority.equals(authority)
-                        && (StringUtils.isNullOrWhiteSpace(clientId) || p.getKey().clientId.equals(clientId))
-                        && (StringUtils.isNullOrWhiteSpace(uniqueId) || p.getKey().uniqueId.equals(uniqueId))
-                        && (StringUtils.isNullOrWhiteSpace(displayableId) || p.getKey().displayableId.equals(displayableId))
-                        && p.getKey().tokenSubjectType.equals(subjectType)) {
+        List<Map.Entry<TokenCacheKey, AuthenticationResult>> res = new LinkedList<>();
+        for(Map.Entry<TokenCacheKey, AuthenticationResult> p : tokenCacheDictionary.entrySet()) {
+            if(p.getKey().authority.equals(authority)
+                    && (StringUtils.isNullOrWhiteSpace(clientId) || p.getKey().clientId.equals(clientId))
+                    && (StringUtils.isNullOrWhiteSpace(uniqueId) || p.getKey().uniqueId.equals(uniqueId))
+                    && (StringUtils.isNullOrWhiteSpace(displayableId) || p.getKey().displayableId.equals(displayableId))
+                    && p.getKey().tokenSubjectType.equals(subjectType)) {
                 res.add(p);
-             }
-          }
-          return res;
+            }
         }
+        return res;
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.adauth;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Renews cached access tokens in the background while they are still valid, so lookups rarely have to wait for a
+ * refresh. A single task is kept scheduled for the earliest expiring token; storing a token that expires sooner
+ * moves it forward.
+ */
+public class TokenCacheRefresher {
+    private final static Logger log = Logger.getLogger(TokenCacheRefresher.class.getName());
+    // has to be wider than the margin TokenCache uses to treat a token as expired on lookup
+    public final static long DEFAULT_REFRESH_MARGIN_SEC = TimeUnit.MINUTES.toSeconds(10);
+    private final static long MIN_RESCHEDULE_DELAY_SEC = 60;
+    private final static ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "token-cache-refresher");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final TokenCache tokenCache;
+    private final long refreshMarginSec;
+    private final List<TokenRefreshListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean running = false;
+    private ScheduledFuture<?> scheduled = null;
+    private long scheduledAtSec = Long.MAX_VALUE;
+
+    public TokenCacheRefresher(TokenCache tokenCache) {
+        this(tokenCache, DEFAULT_REFRESH_MARGIN_SEC);
+    }
+
+    public TokenCacheRefresher(TokenCache tokenCache, long refreshMarginSec) {
+        if (tokenCache == null) {
+            throw new IllegalArgumentException("tokenCache");
+        }
+        if (refreshMarginSec <= TokenCache.ExpirationMarginSec) {
+            throw new IllegalArgumentException("refreshMarginSec must be greater than " + TokenCache.ExpirationMarginSec);
+        }
+        this.tokenCache = tokenCache;
+        this.refreshMarginSec = refreshMarginSec;
+    }
+
+    public void addListener(TokenRefreshListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TokenRefreshListener listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        tokenCache.setRefresher(this);
+        scheduleForEarliestToken();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        tokenCache.setRefresher(null);
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        scheduledAtSec = Long.MAX_VALUE;
+    }
+
+    void onTokenStored(long expiresOn) {
+        schedule(expiresOn - refreshMarginSec);
+    }
+
+    private synchronized void schedule(long runAtSec) {
+        // never run more often than once a minute, a failing or short-lived token would otherwise keep the thread busy
+        long nowSec = nowSec();
+        runAtSec = Math.max(runAtSec, nowSec + MIN_RESCHEDULE_DELAY_SEC);
+        if (!running || runAtSec >= scheduledAtSec) {
+            return;
+        }
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        long delaySec = runAtSec - nowSec;
+        scheduledAtSec = runAtSec;
+        scheduled = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                refreshExpiringTokens();
+            }
+        }, delaySec, TimeUnit.SECONDS);
+        log.log(Level.FINEST, String.format("Next token refresh scheduled in %d seconds", delaySec));
+    }
+
+    private void refreshExpiringTokens() {
+        synchronized (this) {
+            scheduled = null;
+            scheduledAtSec = Long.MAX_VALUE;
+        }
+        long nowSec = nowSec();
+        for (Map.Entry<TokenCacheKey, AuthenticationResult> item : tokenCache.getItemsExpiringBefore(nowSec, nowSec + refreshMarginSec)) {
+            TokenCacheKey key = item.getKey();
+            try {
+                log.log(Level.FINEST, String.format("Refreshing token for resource '%s' in the background", key.resource));
+                Authenticator authenticator = new Authenticator(key.authority, true);
+                AuthenticationResult result = new AcquireTokenByRefreshTokenHandler(authenticator, tokenCache, key, item.getValue()).run();
+                for (TokenRefreshListener listener : listeners) {
+                    listener.onRefreshSucceeded(key, result);
+                }
+            } catch (Exception ex) {
+                log.log(Level.WARNING, String.format("Background refresh of the token for resource '%s' failed", key.resource), ex);
+                for (TokenRefreshListener listener : listeners) {
+                    listener.onRefreshFailed(key, ex);
+                }
+            }
+        }
+        scheduleForEarliestToken();
+    }
+
+    private void scheduleForEarliestToken() {
+        long earliestExpiresOn = tokenCache.getEarliestExpiresOn(nowSec());
+        if (earliestExpiresOn != Long.MAX_VALUE) {
+            schedule(earliestExpiresOn - refreshMarginSec);
+        }
+    }
+
+    private static long nowSec() {
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    }
+}
@@ -40,6 +40,7 @@ import java.util.logging.Logger;
 public class AdAuthManager {
     private final static Logger LOGGER = Logger.getLogger(AdAuthManager.class.getName());
     private final TokenCache cache;
+    private final TokenCacheRefresher tokenRefresher;
     private TokenFileStorage tokenFileStorage;
     private static AdAuthManager instance = null;
     //private static String adAuthSettingsFileName = "AdAuthDetails.json";
@@ -120,6 +121,14 @@ public class AdAuthManager {
 //        saveSettings();
     }
 
+    /**
+     * Renews cached tokens in the background before they expire. It is started when the manager is created;
+     * stop it or register listeners for refresh results here.
+     */
+    public TokenCacheRefresher getTokenRefresher() {
+        return tokenRefresher;
+    }
+
     public boolean isSignedIn() {
         return adAuthDetails.getAccountEmail() != null;
     }
@@ -151,6 +160,8 @@ public class AdAuthManager {
                 }
             });
         }
+        tokenRefresher = new TokenCacheRefresher(cache);
+        tokenRefresher.start();
     }
 
 //    private void loadSettings() {
@@ -26,21 +26,57 @@ import com.microsoft.azure.management.redis.RedisCache;
 import com.microsoft.azuretools.core.mvp.model.AzureMvpModelHelper;
 
 import java.io.IOException;
-import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.exceptions.JedisConnectionException;
 
+/**
+ * Registry of the Jedis connection pools of the Redis Caches opened in the explorer.
+ * <p/>
+ * Up to {@link #MAX_POOLS} pools are kept at a time; opening one more destroys the least recently used pool, and a
+ * pool unused for {@link #POOL_IDLE_TIMEOUT_MS} is destroyed the next time the registry is used. The host, port and
+ * access key of each cache are kept after its pool is gone, so reopening a cache does not look it up again.
+ */
 public class RedisConnectionPools {
 
-    private static final int TIMEOUT = 500;
-    private static final int MAX_CONNECTIONS = 1;
-    
-    private LinkedHashMap<String, JedisPool> pools;
+    static final int DEFAULT_TIMEOUT = 500;
+    static final int MAX_POOLS = 8;
+    static final long POOL_IDLE_TIMEOUT_MS = 10 * 60 * 1000;
+    // the explorer runs few commands at once, one idle connection saves the TLS handshake on the next one
+    private static final int POOL_MAX_TOTAL = 4;
+    private static final int POOL_MIN_IDLE = 1;
+
+    private static final class RedisSettings {
+        private final String hostName;
+        private final int port;
+        private final String password;
+
+        private RedisSettings(String hostName, int port, String password) {
+            this.hostName = hostName;
+            this.port = port;
+            this.password = password;
+        }
+    }
+
+    private static final class PoolEntry {
+        private final JedisPool pool;
+        private volatile long lastAccess;
+
+        private PoolEntry(JedisPool pool) {
+            this.pool = pool;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    private final Map<String, PoolEntry> pools = new ConcurrentHashMap<String, PoolEntry>();
+    private final Map<String, RedisSettings> settings = new ConcurrentHashMap<String, RedisSettings>();
+    private volatile int timeout = DEFAULT_TIMEOUT;
 
     private RedisConnectionPools() {
-        this.pools = new LinkedHashMap<String, JedisPool>(MAX_CONNECTIONS);
     }
 
     private static final class RedisConnectionFactoryHolder {
@@ -61,14 +97,16 @@ public class RedisConnectionPools {
      * @return jedis connection
      * @throws IOException Error getting the Redis Cache
      */
-    public synchronized Jedis getJedis(String sid, String id) throws Exception  {
-        if (pools.get(id) == null) {
-            if (pools.size() == MAX_CONNECTIONS) {
-                releasePool(pools.keySet().iterator().next());
-            }
-            connect(sid, id);
+    public Jedis getJedis(String sid, String id) throws Exception  {
+        releaseIdlePools();
+        try {
+            return getPool(sid, id).getResource();
+        } catch (JedisConnectionException e) {
+            // the cache may have moved or its keys may have been regenerated, look it up again once
+            releasePool(id);
+            settings.remove(id);
+            return getPool(sid, id).getResource();
         }
-        return pools.get(id).getResource();
     }
 
     /**
@@ -77,26 +115,91 @@ public class RedisConnectionPools {
      * @param id
      *            id of the jedisPool which needs to be destroyed
      */
-    public synchronized void releasePool(String id) {
-        if (pools.containsKey(id)) {
-            JedisPool jedisPool = pools.get(id);
-            if (jedisPool != null) {
-                jedisPool.destroy();
+    public void releasePool(String id) {
+        PoolEntry entry = pools.remove(id);
+        if (entry != null) {
+            entry.pool.destroy();
+        }
+    }
+
+    /**
+     * Set the connection and socket timeout of the pools created from now on.
+     *
+     * @param timeout
+     *            timeout in milliseconds
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    private JedisPool getPool(String sid, String id) throws Exception {
+        PoolEntry entry = pools.get(id);
+        if (entry == null) {
+            // create the pool outside of any lock, the lookup and the first connection may take a while
+            PoolEntry created = new PoolEntry(connect(sid, id));
+            synchronized (pools) {
+                entry = pools.get(id);
+                if (entry == null) {
+                    entry = created;
+                    pools.put(id, entry);
+                    releaseLeastRecentlyUsedPools(id);
+                }
+            }
+            if (entry != created) {
+                created.pool.destroy();
+            }
+        }
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.pool;
+    }
+
+    private void releaseLeastRecentlyUsedPools(String keepId) {
+        while (pools.size() > MAX_POOLS) {
+            String leastRecentlyUsed = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, PoolEntry> entry : pools.entrySet()) {
+                // the pool just opened may share its access time with older ones, and the caller is about to use it
+                if (!entry.getKey().equals(keepId) && entry.getValue().lastAccess < oldestAccess) {
+                    oldestAccess = entry.getValue().lastAccess;
+                    leastRecentlyUsed = entry.getKey();
+                }
+            }
+            releasePool(leastRecentlyUsed);
+        }
+    }
+
+    private void releaseIdlePools() {
+        long idleSince = System.currentTimeMillis() - POOL_IDLE_TIMEOUT_MS;
+        for (Map.Entry<String, PoolEntry> entry : pools.entrySet()) {
+            if (entry.getValue().lastAccess < idleSince) {
+                releasePool(entry.getKey());
             }
-            pools.remove(id);
         }
     }
 
-    private void connect(String sid, String id) throws Exception {
-        RedisCache redisCache = AzureMvpModelHelper.getInstance().getRedisCache(sid, id);
+    private JedisPool connect(String sid, String id) throws Exception {
+        RedisSettings redisSettings = settings.get(id);
+        if (redisSettings == null) {
+            RedisCache redisCache = AzureMvpModelHelper.getInstance().getRedisCache(sid, id);
+
+            // get redis setting
+            redisSettings = new RedisSettings(redisCache.hostName(), redisCache.sslPort(),
+                    redisCache.keys().primaryKey());
+            settings.put(id, redisSettings);
+        }
 
-        // get redis setting
-        String hostName = redisCache.hostName();
-        String password = redisCache.keys().primaryKey();
-        int port = redisCache.sslPort();
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(POOL_MAX_TOTAL);
+        config.setMaxIdle(POOL_MAX_TOTAL);
+        config.setMinIdle(POOL_MIN_IDLE);
+        // Azure closes idle connections, check them before handing them out
+        config.setTestOnBorrow(true);
 
         // create connection pool according to redis setting
-        JedisPool pool = new JedisPool(new JedisPoolConfig(), hostName, port, TIMEOUT, password, true);
-        pools.put(id, pool);
+        return new JedisPool(config, redisSettings.hostName, redisSettings.port, timeout, redisSettings.password, true);
     }
 }
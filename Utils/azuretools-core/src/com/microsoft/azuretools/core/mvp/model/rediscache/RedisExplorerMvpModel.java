@@ -22,11 +22,17 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
+
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
@@ -38,7 +44,7 @@ public class RedisExplorerMvpModel {
     private static final int MAX_DATABASE_NUMBER = 64;
     private static final int DEFAULT_KEY_COUNT = 50;
     private static final long DEFAULT_RANGE_START = 0;
-    private static final int DEFAULT_VAL_COUNT = 500;
+    public static final int DEFAULT_VAL_COUNT = 500;
 
     private RedisExplorerMvpModel() {
     }
@@ -117,6 +123,63 @@ public class RedisExplorerMvpModel {
         }
     }
 
+    /**
+     * Get the type, size and TTL of a page of keys. The TYPE and TTL of every key are pipelined in a single round
+     * trip, followed by one more pipelined round trip for the type-specific size command, so the cost does not grow
+     * with the number of keys.
+     * 
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param keys
+     *            names of the keys, usually one page of a Scan Result
+     * @return metadata of the keys, in the order of the given keys
+     * @throws Exception
+     */
+    public Map<String, RedisKeyMetadata> getKeyMetadata(String sid, String id, int db, List<String> keys)
+            throws Exception {
+        Map<String, RedisKeyMetadata> metadata = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return metadata;
+        }
+        try (Jedis jedis = RedisConnectionPools.getInstance().getJedis(sid, id)) {
+            jedis.select(db);
+            Pipeline pipeline = jedis.pipelined();
+            Map<String, Response<String>> types = new LinkedHashMap<>();
+            Map<String, Response<Long>> ttls = new LinkedHashMap<>();
+            for (String key : keys) {
+                types.put(key, pipeline.type(key));
+                ttls.put(key, pipeline.ttl(key));
+            }
+            pipeline.sync();
+
+            Map<String, RedisKeyType> keyTypes = new LinkedHashMap<>();
+            Map<String, Response<Long>> sizes = new LinkedHashMap<>();
+            for (Entry<String, Response<String>> type : types.entrySet()) {
+                RedisKeyType keyType = toKeyType(type.getValue().get());
+                keyTypes.put(type.getKey(), keyType);
+                Response<Long> size = requestKeySize(pipeline, type.getKey(), keyType);
+                if (size != null) {
+                    sizes.put(type.getKey(), size);
+                }
+            }
+            if (!sizes.isEmpty()) {
+                pipeline.sync();
+            }
+
+            for (Entry<String, RedisKeyType> keyType : keyTypes.entrySet()) {
+                String key = keyType.getKey();
+                Long ttl = ttls.get(key).get();
+                metadata.put(key, new RedisKeyMetadata(key, keyType.getValue(), getKeySize(sizes.get(key)),
+                        ttl == null ? RedisKeyMetadata.NO_EXPIRY : ttl));
+            }
+            return metadata;
+        }
+    }
+
     /**
      * Get the type of the given key.
      * 
@@ -170,15 +233,33 @@ public class RedisExplorerMvpModel {
      *            index of Redis Cache database
      * @param key
      *            name of the key
-     * @return the value of a list type key
+     * @return the first page of the value of a list type key
      * @throws Exception
      */
     public List<String> getListValue(String sid, String id, int db, String key) throws Exception {
+        return getListValue(sid, id, db, key, DEFAULT_RANGE_START);
+    }
+
+    /**
+     * Get a page of at most DEFAULT_VAL_COUNT items of a list type key.
+     * 
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param key
+     *            name of the key
+     * @param start
+     *            index of the first item of the page
+     * @return the items of the page, fewer than DEFAULT_VAL_COUNT on the last page
+     * @throws Exception
+     */
+    public List<String> getListValue(String sid, String id, int db, String key, long start) throws Exception {
         try (Jedis jedis = RedisConnectionPools.getInstance().getJedis(sid, id)) {
             jedis.select(db);
-            long listLength = jedis.llen(key);
-            return jedis.lrange(key, DEFAULT_RANGE_START,
-                    listLength < DEFAULT_VAL_COUNT ? listLength : DEFAULT_VAL_COUNT);
+            return jedis.lrange(key, start, start + DEFAULT_VAL_COUNT - 1);
         }
     }
 
@@ -216,15 +297,33 @@ public class RedisExplorerMvpModel {
      *            index of Redis Cache database
      * @param key
      *            name of the key
-     * @return the value of a zset type key
+     * @return the first page of the value of a zset type key
      * @throws Exception
      */
     public Set<Tuple> getZSetValue(String sid, String id, int db, String key) throws Exception {
+        return getZSetValue(sid, id, db, key, DEFAULT_RANGE_START);
+    }
+
+    /**
+     * Get a page of at most DEFAULT_VAL_COUNT members of a zset type key, ordered by score.
+     * 
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param key
+     *            name of the key
+     * @param start
+     *            rank of the first member of the page
+     * @return the members of the page, fewer than DEFAULT_VAL_COUNT on the last page
+     * @throws Exception
+     */
+    public Set<Tuple> getZSetValue(String sid, String id, int db, String key, long start) throws Exception {
         try (Jedis jedis = RedisConnectionPools.getInstance().getJedis(sid, id)) {
             jedis.select(db);
-            long zsetLength = jedis.zcard(key);
-            return jedis.zrangeWithScores(key, DEFAULT_RANGE_START,
-                    zsetLength < DEFAULT_VAL_COUNT ? zsetLength : DEFAULT_VAL_COUNT);
+            return jedis.zrangeWithScores(key, start, start + DEFAULT_VAL_COUNT - 1);
         }
     }
 
@@ -252,6 +351,44 @@ public class RedisExplorerMvpModel {
         }
     }
     
+    private static RedisKeyType toKeyType(String type) {
+        try {
+            return RedisKeyType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return RedisKeyType.NONE;
+        }
+    }
+
+    private static Response<Long> requestKeySize(Pipeline pipeline, String key, RedisKeyType keyType) {
+        switch (keyType) {
+            case STRING:
+                return pipeline.strlen(key);
+            case LIST:
+                return pipeline.llen(key);
+            case SET:
+                return pipeline.scard(key);
+            case ZSET:
+                return pipeline.zcard(key);
+            case HASH:
+                return pipeline.hlen(key);
+            default:
+                return null;
+        }
+    }
+
+    private static long getKeySize(Response<Long> size) {
+        if (size == null) {
+            return RedisKeyMetadata.UNKNOWN_SIZE;
+        }
+        try {
+            Long value = size.get();
+            return value == null ? RedisKeyMetadata.UNKNOWN_SIZE : value;
+        } catch (JedisException e) {
+            // The key was replaced by one of another type between the two round trips.
+            return RedisKeyMetadata.UNKNOWN_SIZE;
+        }
+    }
+
     private boolean canConnect(Jedis jedis, int index) {
         try {
             jedis.select(index);
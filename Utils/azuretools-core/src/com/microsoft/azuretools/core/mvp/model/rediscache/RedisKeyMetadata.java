@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * 
+ * All rights reserved.
+ * 
+ * MIT License
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.rediscache;
+
+import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
+
+public class RedisKeyMetadata {
+
+    public static final long UNKNOWN_SIZE = -1;
+    public static final long NO_EXPIRY = -1;
+
+    private static final String SIZE_UNIT_STRING = "bytes";
+    private static final String SIZE_UNIT_COLLECTION = "items";
+
+    private final String key;
+    private final RedisKeyType keyType;
+    private final long size;
+    private final long ttl;
+
+    /**
+     * Constructor for RedisKeyMetadata class.
+     * 
+     * @param key
+     *            name of the key
+     * @param keyType
+     *            the Redis Cache's key type
+     * @param size
+     *            length of a string, or number of members of a collection
+     * @param ttl
+     *            remaining time to live in seconds, or NO_EXPIRY
+     */
+    public RedisKeyMetadata(String key, RedisKeyType keyType, long size, long ttl) {
+        this.key = key;
+        this.keyType = keyType;
+        this.size = size;
+        this.ttl = ttl;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public RedisKeyType getKeyType() {
+        return keyType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Get a short summary such as "LIST, 12 items, TTL 30s" for the key list.
+     */
+    public String getSummary() {
+        StringBuilder builder = new StringBuilder(keyType.toString());
+        if (size != UNKNOWN_SIZE) {
+            builder.append(", ").append(size).append(' ')
+                    .append(keyType == RedisKeyType.STRING ? SIZE_UNIT_STRING : SIZE_UNIT_COLLECTION);
+        }
+        if (ttl >= 0) {
+            builder.append(", TTL ").append(ttl).append('s');
+        }
+        return builder.toString();
+    }
+}
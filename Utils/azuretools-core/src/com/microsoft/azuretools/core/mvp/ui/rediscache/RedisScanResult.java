@@ -22,7 +22,11 @@
 
 package com.microsoft.azuretools.core.mvp.ui.rediscache;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+
+import com.microsoft.azuretools.core.mvp.model.rediscache.RedisKeyMetadata;
 
 import redis.clients.jedis.ScanResult;
 
@@ -30,11 +34,25 @@ public class RedisScanResult {
     
     private List<String> keys;
     private String nextCursor;
+    private Map<String, RedisKeyMetadata> keyMetadata;
     
     
     public RedisScanResult(ScanResult<String> result) {
+        this(result, Collections.emptyMap());
+    }
+
+    /**
+     * Constructor for RedisScanResult class.
+     * 
+     * @param result
+     *            the Scan Result returned from Jedis
+     * @param keyMetadata
+     *            type, size and TTL of the scanned keys
+     */
+    public RedisScanResult(ScanResult<String> result, Map<String, RedisKeyMetadata> keyMetadata) {
         this.keys = result.getResult();
         this.nextCursor = result.getStringCursor();
+        this.keyMetadata = keyMetadata;
     }
 
     public String getNextCursor() {
@@ -44,4 +62,11 @@ public class RedisScanResult {
     public List<String> getKeys() {
         return keys;
     }
+
+    /**
+     * Get the metadata of a scanned key, or null if it was not loaded.
+     */
+    public RedisKeyMetadata getKeyMetadata(String key) {
+        return keyMetadata.get(key);
+    }
 }
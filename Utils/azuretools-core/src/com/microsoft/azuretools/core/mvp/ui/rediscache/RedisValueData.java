@@ -22,6 +22,8 @@
 
 package com.microsoft.azuretools.core.mvp.ui.rediscache;
 
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
 import java.util.ArrayList;
 
 import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
@@ -30,6 +32,7 @@ public class RedisValueData {
 
     private ArrayList<String[]> rowData;
     private RedisKeyType keyType;
+    private String nextCursor;
 
     /**
      * Constructor for RedisValueData class.
@@ -42,8 +45,23 @@ public class RedisValueData {
      *            the Redis Cache's key type
      */
     public RedisValueData(ArrayList<String[]> rowData, RedisKeyType keyType) {
+        this(rowData, keyType, SCAN_POINTER_START);
+    }
+
+    /**
+     * Constructor for one page of a collection value.
+     * 
+     * @param rowData
+     *            the data for each table row of the page
+     * @param keyType
+     *            the Redis Cache's key type
+     * @param nextCursor
+     *            the scan cursor, or the list/zset offset, of the next page; SCAN_POINTER_START after the last page
+     */
+    public RedisValueData(ArrayList<String[]> rowData, RedisKeyType keyType, String nextCursor) {
         this.rowData = rowData;
         this.keyType = keyType;
+        this.nextCursor = nextCursor;
     }
 
     public ArrayList<String[]> getRowData() {
@@ -53,4 +71,12 @@ public class RedisValueData {
     public RedisKeyType getKeyType() {
         return keyType;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null && !nextCursor.equals(SCAN_POINTER_START);
+    }
 }
@@ -22,6 +22,9 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -42,6 +45,7 @@ import com.microsoft.azuretools.core.mvp.model.AzureMvpModelHelper;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({
@@ -108,4 +112,43 @@ public class RedisConnectionPoolsTest {
         RedisConnectionPools.getInstance().releasePool(MOCK_REDIS_ID);
         verify(jedisPoolMock, times(0)).destroy();
     }
+
+    @Test
+    public void testLeastRecentlyUsedPoolReleased() throws Exception {
+        for (int i = 0; i <= RedisConnectionPools.MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(1)).destroy();
+
+        for (int i = 0; i <= RedisConnectionPools.MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().releasePool(MOCK_REDIS_ID + i);
+        }
+        verify(jedisPoolMock, times(RedisConnectionPools.MAX_POOLS + 1)).destroy();
+    }
+
+    @Test
+    public void testNewPoolNotReleasedWhenFull() throws Exception {
+        for (int i = 0; i <= RedisConnectionPools.MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + i);
+        }
+        // the pools are opened within the same millisecond, the last one must still be open
+        RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, MOCK_REDIS_ID + RedisConnectionPools.MAX_POOLS);
+        PowerMockito.verifyNew(JedisPool.class, times(RedisConnectionPools.MAX_POOLS + 1)).withArguments(
+                any(JedisPoolConfig.class), anyString(), anyInt(), anyInt(), anyString(), anyBoolean());
+
+        for (int i = 0; i <= RedisConnectionPools.MAX_POOLS; i++) {
+            RedisConnectionPools.getInstance().releasePool(MOCK_REDIS_ID + i);
+        }
+    }
+
+    @Test
+    public void testRedisSettingsKeptAfterRelease() throws Exception {
+        String id = MOCK_REDIS_ID + "-settings";
+        RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, id);
+        RedisConnectionPools.getInstance().releasePool(id);
+        RedisConnectionPools.getInstance().getJedis(MOCK_SUBSCRIPTION, id);
+        RedisConnectionPools.getInstance().releasePool(id);
+        verify(azureMvpModelHelperMock, times(1)).getRedisCache(MOCK_SUBSCRIPTION, id);
+        verify(jedisPoolMock, times(2)).getResource();
+    }
 }
@@ -22,11 +22,15 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Map;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -37,7 +41,11 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
+
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 
 @RunWith(PowerMockRunner.class)
@@ -52,13 +60,25 @@ public class RedisExplorerMvpModelTest {
     @Mock
     private Jedis jedisMock;
     
+    @Mock
+    private Pipeline pipelineMock;
+    
+    @Mock
+    private Response<String> typeResponseMock;
+    
+    @Mock
+    private Response<Long> longResponseMock;
+    
     private static final String MOCK_SUBSCRIPTION = "00000000-0000-0000-0000-000000000000";
     private static final String MOCK_REDIS_ID = "test-id";
     private static final int MOCK_DB = 0;
     private static final String MOCK_CURSOR = "0";
     private static final String MOCK_PATTERN = "*";
     private static final String MOCK_KEY = "key";
+    private static final String MOCK_OTHER_KEY = "other";
+    private static final String TYPE_LIST = "list";
     private static final long MOCK_LEN = 10L;
+    private static final long MOCK_PAGE_END = RedisExplorerMvpModel.DEFAULT_VAL_COUNT - 1;
     private static final String DATABASE_COMMAND = "databases";
     
     
@@ -104,11 +124,17 @@ public class RedisExplorerMvpModelTest {
     
     @Test
     public void testGetListValue() throws Exception {
-        when(jedisMock.llen(anyString())).thenReturn(MOCK_LEN);
-        
         RedisExplorerMvpModel.getInstance().getListValue(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_KEY);
         verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
-        verify(jedisMock, times(1)).lrange(Mockito.eq(MOCK_KEY), Mockito.eq(0L), Mockito.eq(MOCK_LEN));
+        verify(jedisMock, times(1)).lrange(Mockito.eq(MOCK_KEY), Mockito.eq(0L), Mockito.eq(MOCK_PAGE_END));
+    }
+    
+    @Test
+    public void testGetListValuePage() throws Exception {
+        RedisExplorerMvpModel.getInstance().getListValue(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_KEY, MOCK_LEN);
+        verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
+        verify(jedisMock, times(1)).lrange(Mockito.eq(MOCK_KEY), Mockito.eq(MOCK_LEN),
+                Mockito.eq(MOCK_LEN + MOCK_PAGE_END));
     }
     
     @Test
@@ -120,11 +146,17 @@ public class RedisExplorerMvpModelTest {
     
     @Test
     public void testGetZSetValue() throws Exception {
-        when(jedisMock.zcard(anyString())).thenReturn(MOCK_LEN);
-        
         RedisExplorerMvpModel.getInstance().getZSetValue(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_KEY);
         verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
-        verify(jedisMock, times(1)).zrangeWithScores(Mockito.eq(MOCK_KEY), Mockito.eq(0L), Mockito.eq(MOCK_LEN));
+        verify(jedisMock, times(1)).zrangeWithScores(Mockito.eq(MOCK_KEY), Mockito.eq(0L), Mockito.eq(MOCK_PAGE_END));
+    }
+    
+    @Test
+    public void testGetZSetValuePage() throws Exception {
+        RedisExplorerMvpModel.getInstance().getZSetValue(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_KEY, MOCK_LEN);
+        verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
+        verify(jedisMock, times(1)).zrangeWithScores(Mockito.eq(MOCK_KEY), Mockito.eq(MOCK_LEN),
+                Mockito.eq(MOCK_LEN + MOCK_PAGE_END));
     }
     
     @Test
@@ -140,4 +172,26 @@ public class RedisExplorerMvpModelTest {
         verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
         verify(jedisMock, times(1)).exists(Mockito.eq(MOCK_KEY));
     }
+
+    @Test
+    public void testGetKeyMetadata() throws Exception {
+        when(jedisMock.pipelined()).thenReturn(pipelineMock);
+        when(pipelineMock.type(anyString())).thenReturn(typeResponseMock);
+        when(pipelineMock.ttl(anyString())).thenReturn(longResponseMock);
+        when(pipelineMock.llen(anyString())).thenReturn(longResponseMock);
+        when(typeResponseMock.get()).thenReturn(TYPE_LIST);
+        when(longResponseMock.get()).thenReturn(MOCK_LEN);
+
+        Map<String, RedisKeyMetadata> metadata = RedisExplorerMvpModel.getInstance().getKeyMetadata(
+                MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, Arrays.asList(MOCK_KEY, MOCK_OTHER_KEY));
+        verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
+        verify(jedisMock, times(1)).pipelined();
+        verify(pipelineMock, times(2)).sync();
+        verify(pipelineMock, times(1)).llen(Mockito.eq(MOCK_KEY));
+        verify(pipelineMock, times(1)).llen(Mockito.eq(MOCK_OTHER_KEY));
+        assertEquals(2, metadata.size());
+        assertEquals(RedisKeyType.LIST, metadata.get(MOCK_KEY).getKeyType());
+        assertEquals(MOCK_LEN, metadata.get(MOCK_KEY).getSize());
+        assertEquals(MOCK_LEN, metadata.get(MOCK_KEY).getTtl());
+    }
 }
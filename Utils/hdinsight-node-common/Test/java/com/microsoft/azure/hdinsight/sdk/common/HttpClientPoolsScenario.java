@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import cucumber.api.java.After;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.http.HttpStatus;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientPoolsScenario {
+    private WireMockServer httpServerMock;
+    private String authorization;
+
+    @After
+    public void cleanUp() {
+        HttpClientPools.getInstance().releaseAll();
+
+        if (httpServerMock != null) {
+            httpServerMock.stop();
+            httpServerMock = null;
+        }
+    }
+
+    @Given("^a mock cluster gateway '(.+)' accepting user '(.+)' with password '(.+)'$")
+    public void mockClusterGateway(String connectUrl, String user, String password) throws Throwable {
+        URI mockUri = new URI(connectUrl);
+        httpServerMock = new WireMockServer(wireMockConfig().bindAddress(mockUri.getHost()).port(mockUri.getPort()));
+        httpServerMock.start();
+
+        // challenge the requests without the right credentials, as the cluster gateway does
+        httpServerMock.stubFor(any(anyUrl())
+                .atPriority(10)
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_UNAUTHORIZED)
+                        .withHeader("WWW-Authenticate", "Basic realm=\"cluster\"")));
+
+        authorization = "Basic " + Base64.getEncoder().encodeToString(
+                String.format("%s:%s", user, password).getBytes(StandardCharsets.UTF_8));
+        mockAuthorizedResponse(0);
+    }
+
+    @Given("^the mock cluster gateway answers in (\\d+) milliseconds$")
+    public void mockAuthorizedResponse(int delayMillis) {
+        httpServerMock.stubFor(any(anyUrl())
+                .atPriority(1)
+                .withHeader("Authorization", equalTo(authorization))
+                .willReturn(aResponse()
+                        .withStatus(HttpStatus.SC_OK)
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(delayMillis)
+                        .withBody("{}")));
+    }
+
+    @Then("^sending (\\d+) requests? to '(.+)' as '(.+)' with password '(.+)' should use (\\d+) connections? and be challenged (\\d+) times?$")
+    public void checkSequentialRequests(int requestCount,
+                                        String url,
+                                        String user,
+                                        String password,
+                                        int expectedConnections,
+                                        int expectedChallenges) throws Throwable {
+        httpServerMock.resetRequests();
+
+        Set<String> connectionIds = new HashSet<>();
+        for (int i = 0; i < requestCount; i++) {
+            connectionIds.add(sendRequest(url, user, password, HttpStatus.SC_OK));
+        }
+
+        long challenges = httpServerMock.findAll(anyRequestedFor(anyUrl())).stream()
+                .filter(request -> !request.containsHeader("Authorization"))
+                .count();
+
+        assertEquals(expectedConnections, connectionIds.size());
+        assertEquals(expectedChallenges, challenges);
+    }
+
+    @Then("^sending a request to '(.+)' as '(.+)' with password '(.+)' should get status code (\\d+)$")
+    public void checkRequestStatus(String url, String user, String password, int expectedStatusCode) throws Throwable {
+        sendRequest(url, user, password, expectedStatusCode);
+    }
+
+    @Then("^sending (\\d+) concurrent requests to '(.+)' as '(.+)' with password '(.+)' should use at most (\\d+) connections$")
+    public void checkConcurrentRequests(int requestCount,
+                                        String url,
+                                        String user,
+                                        String password,
+                                        int maxConnections) throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(requestCount);
+        try {
+            List<Future<String>> connectionIds = new ArrayList<>();
+            for (int i = 0; i < requestCount; i++) {
+                connectionIds.add(executor.submit(() -> sendRequest(url, user, password, HttpStatus.SC_OK)));
+            }
+
+            Set<String> usedConnections = new HashSet<>();
+            for (Future<String> connectionId : connectionIds) {
+                usedConnections.add(connectionId.get(30, TimeUnit.SECONDS));
+            }
+
+            assertTrue(String.format("%d requests used %d connections", requestCount, usedConnections.size()),
+                    usedConnections.size() <= maxConnections);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Then("^the connection pool of '(.+)' as '(.+)' should have (\\d+) leased, (\\d+) pending and (\\d+) available connections?$")
+    public void checkPoolStats(String url, String user, int expectedLeased, int expectedPending, int expectedAvailable) throws Throwable {
+        PoolStats stats = HttpClientPools.getInstance().getPoolStats(url, new UsernamePasswordCredentials(user, ""));
+
+        assertNotNull(stats);
+        assertEquals(expectedLeased, stats.getLeased());
+        assertEquals(expectedPending, stats.getPending());
+        assertEquals(expectedAvailable, stats.getAvailable());
+    }
+
+    @Then("^the clients of '(.+)' as '(.+)' and '(.+)' as '(.+)' should be (the same|different)$")
+    public void checkClientsShared(String url, String user, String otherUrl, String otherUser, String expected) throws Throwable {
+        CloseableHttpClient client = HttpClientPools.getInstance()
+                .getClient(url, new UsernamePasswordCredentials(user, "password"));
+        CloseableHttpClient otherClient = HttpClientPools.getInstance()
+                .getClient(otherUrl, new UsernamePasswordCredentials(otherUser, "password"));
+
+        if (expected.equals("the same")) {
+            assertSame(client, otherClient);
+        } else {
+            assertNotSame(client, otherClient);
+        }
+    }
+
+    @Then("^a request to '(.+)' as '(.+)' with password '(.+)' should succeed while (\\d+) other users open clients$")
+    public void checkRequestDuringEviction(String url, String user, String password, int otherUsers) throws Throwable {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> inFlight = executor.submit(() -> sendRequest(url, user, password, HttpStatus.SC_OK));
+
+            // wait until the request holds a connection, so its client is evicted while in use
+            UsernamePasswordCredentials credentials = new UsernamePasswordCredentials(user, password);
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            PoolStats stats = HttpClientPools.getInstance().getPoolStats(url, credentials);
+            while ((stats == null || stats.getLeased() == 0) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                stats = HttpClientPools.getInstance().getPoolStats(url, credentials);
+            }
+            assertNotNull(stats);
+            assertEquals(1, stats.getLeased());
+
+            for (int i = 0; i < otherUsers; i++) {
+                HttpClientPools.getInstance().getClient(url, new UsernamePasswordCredentials("user" + i, password));
+            }
+            assertNull(HttpClientPools.getInstance().getPoolStats(url, credentials));
+
+            assertNotNull(inFlight.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String sendRequest(String url, String user, String password, int expectedStatusCode) throws IOException {
+        CloseableHttpClient client = HttpClientPools.getInstance()
+                .getClient(url, new UsernamePasswordCredentials(user, password));
+        HttpClientContext context = HttpClientContext.create();
+
+        try (CloseableHttpResponse response = client.execute(new HttpGet(url), context)) {
+            assertEquals(expectedStatusCode, response.getStatusLine().getStatusCode());
+            String connectionId = context.getConnection(ManagedHttpClientConnection.class).getId();
+            EntityUtils.consume(response.getEntity());
+
+            return connectionId;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.google.gson.Gson;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.http.HttpStatus;
+import rx.Observable;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SparkBatchLogTailerScenario {
+    private static final int MAX_LOG_LINES = 10000;
+
+    private SparkBatchSubmission submissionMock;
+    private WireMockServer httpServerMock;
+    private LivyBatchTransformer livyBatch;
+    private Thread appender;
+    private SparkBatchLogTailer tailer;
+    private List<String> tailedLines;
+
+    /**
+     * A stub Livy batch, whose log grows while the tailer reads it
+     */
+    static class LivyBatchTransformer extends ResponseDefinitionTransformer {
+        private final Gson gson = new Gson();
+        private final int batchId;
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final AtomicIntegerArray servedTimes = new AtomicIntegerArray(MAX_LOG_LINES);
+        final AtomicInteger logRequests = new AtomicInteger();
+        final AtomicInteger stateRequests = new AtomicInteger();
+        volatile String state;
+
+        LivyBatchTransformer(int batchId, String state) {
+            this.batchId = batchId;
+            this.state = state;
+        }
+
+        @Override
+        public ResponseDefinition transform(Request request,
+                                            ResponseDefinition responseDefinition,
+                                            FileSource files,
+                                            Parameters parameters) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("id", batchId);
+
+            if (request.getUrl().contains("/log?")) {
+                logRequests.incrementAndGet();
+
+                int from = Integer.parseInt(request.queryParameter("from").firstValue());
+                int size = Integer.parseInt(request.queryParameter("size").firstValue());
+                List<String> snapshot = new ArrayList<>(lines);
+                List<String> slice = from < snapshot.size() ?
+                        snapshot.subList(from, Math.min(snapshot.size(), from + size)) :
+                        new ArrayList<>();
+
+                for (int i = 0; i < slice.size(); i++) {
+                    servedTimes.incrementAndGet(from + i);
+                }
+
+                body.put("from", from);
+                body.put("total", snapshot.size());
+                body.put("log", slice);
+            } else {
+                stateRequests.incrementAndGet();
+
+                body.put("state", state);
+                body.put("appId", null);
+                body.put("appInfo", new HashMap<>());
+                body.put("log", new ArrayList<>());
+            }
+
+            return aResponse()
+                    .withStatus(HttpStatus.SC_OK)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody(gson.toJson(body))
+                    .build();
+        }
+
+        @Override
+        public String getName() {
+            return "livy-batch";
+        }
+    }
+
+    @Before
+    public void setUp() throws Throwable {
+        submissionMock = mock(SparkBatchSubmission.class);
+        when(submissionMock.getBatchSparkJobStatus(anyString(), anyInt())).thenCallRealMethod();
+        when(submissionMock.getBatchJobLog(anyString(), anyInt(), anyInt(), anyInt())).thenCallRealMethod();
+        when(submissionMock.getHttpResponseViaGet(anyString())).thenCallRealMethod();
+    }
+
+    @After
+    public void cleanUp() throws Throwable {
+        if (appender != null) {
+            appender.interrupt();
+            appender.join();
+            appender = null;
+        }
+
+        if (httpServerMock != null) {
+            httpServerMock.stop();
+            httpServerMock = null;
+        }
+    }
+
+    @Given("^a mock Livy batch (\\d+) on '(.+)' with (\\d+) log lines and state '(.+)'$")
+    public void mockLivyBatch(int batchId, String connectUrl, int lineCount, String state) throws Throwable {
+        livyBatch = new LivyBatchTransformer(batchId, state);
+        appendLines(lineCount);
+
+        URI mockUri = new URI(connectUrl);
+        httpServerMock = new WireMockServer(wireMockConfig()
+                .bindAddress(mockUri.getHost())
+                .port(mockUri.getPort())
+                .extensions(livyBatch));
+        httpServerMock.start();
+        httpServerMock.stubFor(any(anyUrl()).willReturn(aResponse().withStatus(HttpStatus.SC_OK)));
+    }
+
+    @Given("^the mock Livy batch appends (\\d+) log lines every (\\d+) milliseconds and then turns '(.+)'$")
+    public void appendLinesOverTime(int lineCount, int intervalMillis, String finalState) {
+        appender = new Thread(() -> {
+            try {
+                for (int i = 0; i < lineCount; i++) {
+                    TimeUnit.MILLISECONDS.sleep(intervalMillis);
+                    appendLines(1);
+                }
+
+                livyBatch.state = finalState;
+            } catch (InterruptedException ignore) {
+            }
+        });
+        appender.start();
+    }
+
+    @Then("^tailing the batch (\\d+) log of '(.+)' with page size (\\d+) and intervals from (\\d+) to (\\d+) milliseconds should get (\\d+) lines in order$")
+    public void checkTailedLines(int batchId,
+                                 String connectUrl,
+                                 int pageSize,
+                                 int minIntervalMillis,
+                                 int maxIntervalMillis,
+                                 int expectedLineCount) throws Throwable {
+        tailer = new SparkBatchLogTailer(
+                submissionMock, connectUrl, batchId, minIntervalMillis, maxIntervalMillis, pageSize);
+        // one line more than expected is enough to catch lines read again
+        tailedLines = tailer.tail()
+                .take(expectedLineCount + 1)
+                .timeout(30, TimeUnit.SECONDS)
+                .toList()
+                .toBlocking()
+                .single();
+
+        assertEquals(expectedLineCount, tailedLines.size());
+        assertEquals(livyBatch.lines, tailedLines);
+        assertEquals(expectedLineCount, tailer.getOffset());
+    }
+
+    @Then("^tailing the batch (\\d+) log of '(.+)' for (\\d+) milliseconds with intervals from (\\d+) to (\\d+) milliseconds should get (\\d+) lines$")
+    public void checkTailingForAWhile(int batchId,
+                                      String connectUrl,
+                                      int tailingMillis,
+                                      int minIntervalMillis,
+                                      int maxIntervalMillis,
+                                      int expectedLineCount) throws Throwable {
+        tailer = new SparkBatchLogTailer(submissionMock, connectUrl, batchId, minIntervalMillis, maxIntervalMillis,
+                SparkBatchLogTailer.DEFAULT_PAGE_SIZE);
+        tailedLines = tailer.tail()
+                .takeUntil(Observable.timer(tailingMillis, TimeUnit.MILLISECONDS))
+                .toList()
+                .toBlocking()
+                .single();
+
+        assertEquals(expectedLineCount, tailedLines.size());
+    }
+
+    @Then("^every log line should be served once$")
+    public void checkLinesServedOnce() {
+        for (int i = 0; i < livyBatch.lines.size(); i++) {
+            assertEquals("Times of serving line " + i, 1, livyBatch.servedTimes.get(i));
+        }
+    }
+
+    @Then("^the mock Livy batch should get (\\d+) log requests$")
+    public void checkLogRequests(int expectedRequests) {
+        assertEquals(expectedRequests, livyBatch.logRequests.get());
+    }
+
+    @Then("^the mock Livy batch should get at most (\\d+) state requests$")
+    public void checkStateRequests(int maxRequests) {
+        assertTrue(String.format("Got %d state requests", livyBatch.stateRequests.get()),
+                livyBatch.stateRequests.get() <= maxRequests);
+    }
+
+    @Then("^the tailed batch state should be '(.+)'$")
+    public void checkTailedState(String expectedState) {
+        assertEquals(expectedState, tailer.getState());
+    }
+
+    private void appendLines(int count) {
+        for (int i = 0; i < count; i++) {
+            livyBatch.lines.add(String.format("17/04/19 02:36:%02d INFO Client: log line %d",
+                    livyBatch.lines.size() % 60, livyBatch.lines.size()));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobEndEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.TaskEndEventLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SparkEventLogParser#parse(InputStream)} over a synthetic log of task end events, once with a
+ * consumer for every event and once with every event skipped for lack of a consumer.
+ * <p/>
+ * Not a unit test: run the main method with the test classpath, the benchmarks are generated at test compilation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SparkEventLogParserBenchmark {
+    @Param({"10000"})
+    private int eventCount;
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(SparkEventLogParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Benchmark
+    public long dispatched(Blackhole blackhole) throws IOException {
+        SparkEventLogParser parser = new SparkEventLogParser().on(TaskEndEventLog.class, blackhole::consume);
+
+        try (InputStream inputStream = new SyntheticSparkEventLog(eventCount)) {
+            return parser.parse(inputStream);
+        }
+    }
+
+    @Benchmark
+    public long skipped(Blackhole blackhole) throws IOException {
+        SparkEventLogParser parser = new SparkEventLogParser().on(JobEndEventLog.class, blackhole::consume);
+
+        try (InputStream inputStream = new SyntheticSparkEventLog(eventCount)) {
+            return parser.parse(inputStream);
+        }
+    }
+}
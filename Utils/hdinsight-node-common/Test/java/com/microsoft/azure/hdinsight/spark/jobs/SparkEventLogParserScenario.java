@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorAddedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorRemovedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobEndEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.StageCompletedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.StageSubmittedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.TaskEndEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.TaskStartEventLog;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SparkEventLogParserScenario {
+    private static final List<Class<?>> EVENT_TYPES = Arrays.asList(
+            JobStartEventLog.class, JobEndEventLog.class,
+            StageSubmittedEventLog.class, StageCompletedEventLog.class,
+            TaskStartEventLog.class, TaskEndEventLog.class,
+            ExecutorAddedEventLog.class, ExecutorRemovedEventLog.class);
+
+    private Supplier<InputStream> eventLog;
+    private Map<String, List<Object>> parsedEvents;
+
+    @Before
+    public void setUp() throws Throwable {
+        parsedEvents = new HashMap<>();
+    }
+
+    @Given("^a Spark event log$")
+    public void createEventLog(String content) throws Throwable {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        eventLog = () -> new ByteArrayInputStream(bytes);
+    }
+
+    @Given("^a synthetic Spark event log of (\\d+) task end events$")
+    public void createSyntheticEventLog(int eventCount) throws Throwable {
+        eventLog = () -> new SyntheticSparkEventLog(eventCount);
+    }
+
+    @Then("^parsing the Spark event log should read (\\d+) events and dispatch$")
+    public void checkParsedEvents(long expectedEventCount, Map<String, Integer> expectedDispatched) throws Throwable {
+        SparkEventLogParser parser = new SparkEventLogParser();
+        EVENT_TYPES.forEach(eventType -> collectEvents(parser, eventType));
+
+        try (InputStream inputStream = eventLog.get()) {
+            assertEquals(expectedEventCount, parser.parse(inputStream));
+        }
+
+        expectedDispatched.forEach((eventType, expectedCount) ->
+                assertEquals(eventType, expectedCount.intValue(), getParsedEvents(eventType).size()));
+    }
+
+    @Then("^the parsed job (\\d+) should end with '(.+)'$")
+    public void checkJobEnd(int jobId, String expectedResult) throws Throwable {
+        JobEndEventLog jobEnd = (JobEndEventLog) getParsedEvents("JobEndEventLog").stream()
+                .filter(event -> ((JobEndEventLog) event).getJobId() == jobId)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No end event of job " + jobId));
+
+        assertEquals(expectedResult, jobEnd.getJobResult().get("Result"));
+    }
+
+    @Then("^the parsed task (\\d+) should end with '(.+)' on executor '(.+)' of host '(.+)'$")
+    public void checkTaskEnd(long taskId, String expectedReason, String expectedExecutorId, String expectedHost) throws Throwable {
+        TaskEndEventLog taskEnd = (TaskEndEventLog) getParsedEvents("TaskEndEventLog").stream()
+                .filter(event -> ((TaskEndEventLog) event).getTaskInfo().getTaskId() == taskId)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No end event of task " + taskId));
+
+        assertEquals(expectedReason, taskEnd.getTaskEndReason().get("Reason"));
+        assertEquals(expectedExecutorId, taskEnd.getTaskInfo().getExecutorId());
+        assertEquals(expectedHost, taskEnd.getTaskInfo().getHost());
+    }
+
+    @Then("^the parsed stage (\\d+) should complete with (\\d+) tasks$")
+    public void checkStageCompleted(int stageId, int expectedTaskCount) throws Throwable {
+        StageCompletedEventLog stageCompleted = (StageCompletedEventLog) getParsedEvents("StageCompletedEventLog").stream()
+                .filter(event -> ((StageCompletedEventLog) event).getStageInfo().getStageId() == stageId)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No completed event of stage " + stageId));
+
+        assertEquals(expectedTaskCount, stageCompleted.getStageInfo().getNumberOfTasks());
+    }
+
+    @Then("^parsing the Spark event log should fail$")
+    public void checkParseFailure() throws Throwable {
+        try (InputStream inputStream = eventLog.get()) {
+            new SparkEventLogParser().on(JobStartEventLog.class, event -> {}).parse(inputStream);
+            fail("The malformed Spark event log should fail the parsing");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Then("^parsing the Spark event log should dispatch (\\d+) task end events in a heap smaller than the log$")
+    public void checkParseInBoundedHeap(long expectedEventCount) throws Throwable {
+        AtomicLong dispatched = new AtomicLong();
+        parseInBoundedHeap(new SparkEventLogParser().on(TaskEndEventLog.class, taskEnd -> dispatched.incrementAndGet()),
+                expectedEventCount);
+
+        assertEquals(expectedEventCount, dispatched.get());
+    }
+
+    @Then("^parsing the Spark event log without a task end consumer should skip (\\d+) events in a heap smaller than the log$")
+    public void checkSkipInBoundedHeap(long expectedEventCount) throws Throwable {
+        AtomicLong dispatched = new AtomicLong();
+        parseInBoundedHeap(new SparkEventLogParser().on(JobEndEventLog.class, jobEnd -> dispatched.incrementAndGet()),
+                expectedEventCount);
+
+        assertEquals(0, dispatched.get());
+    }
+
+    private void parseInBoundedHeap(SparkEventLogParser parser, long expectedEventCount) throws IOException {
+        try (SyntheticSparkEventLog inputStream = (SyntheticSparkEventLog) eventLog.get()) {
+            assertEquals(expectedEventCount, parser.parse(inputStream));
+
+            // Holding the log or the events read would have run out of heap before the end of the stream
+            long maxHeap = Runtime.getRuntime().maxMemory();
+            assertTrue(String.format("The %d byte Spark event log should be larger than the %d byte heap, run with a smaller -Xmx",
+                    inputStream.getBytesRead(), maxHeap), inputStream.getBytesRead() > maxHeap);
+        }
+    }
+
+    private <T> void collectEvents(SparkEventLogParser parser, Class<T> eventType) {
+        parser.on(eventType, event -> getParsedEvents(eventType.getSimpleName()).add(event));
+    }
+
+    private List<Object> getParsedEvents(String eventType) {
+        return parsedEvents.computeIfAbsent(eventType, type -> new ArrayList<>());
+    }
+}
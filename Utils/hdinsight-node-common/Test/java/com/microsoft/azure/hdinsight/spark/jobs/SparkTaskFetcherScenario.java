@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SparkTaskFetcherScenario {
+    private static final String APP_ID = "application_1492415936046_0015";
+    private static final String APP_ATTEMPT_ID = "1";
+
+    private WireMockServer httpServerMock;
+    private InFlightCounter inFlightCounter;
+    private IClusterDetail clusterDetailMock;
+    private List<Stage> stages;
+
+    @Before
+    public void setUp() throws Throwable {
+        stages = new ArrayList<>();
+    }
+
+    @After
+    public void cleanUp() {
+        if (httpServerMock != null) {
+            httpServerMock.stop();
+            httpServerMock = null;
+        }
+    }
+
+    @Given("^a mock Spark history server '(.+)' with (\\d+) stages answering (\\d+) tasks each in (\\d+) milliseconds$")
+    public void mockSparkHistoryServer(String connectUrl, int stageCount, int taskCount, int delayMillis) throws Throwable {
+        URI mockUri = new URI(connectUrl);
+        inFlightCounter = new InFlightCounter();
+        // enough server threads that the server never limits the requests in flight
+        httpServerMock = new WireMockServer(wireMockConfig()
+                .bindAddress(mockUri.getHost())
+                .port(mockUri.getPort())
+                .containerThreads(32)
+                .extensions(inFlightCounter));
+        httpServerMock.start();
+
+        clusterDetailMock = mock(IClusterDetail.class);
+        when(clusterDetailMock.getConnectionUrl()).thenReturn(connectUrl);
+        when(clusterDetailMock.getHttpUserName()).thenReturn("user");
+        when(clusterDetailMock.getHttpPassword()).thenReturn("password");
+
+        StringBuilder tasks = new StringBuilder("[");
+        for (int i = 0; i < taskCount; i++) {
+            tasks.append(i == 0 ? "" : ",").append(String.format("{\"taskId\":\"%d\"}", i));
+        }
+        tasks.append("]");
+
+        for (int stageId = 0; stageId < stageCount; stageId++) {
+            Stage stage = new Stage();
+            stage.setStageId(stageId);
+            stage.setAttemptId(0);
+            stages.add(stage);
+
+            mockStageTaskList(stageId, 200, tasks.toString(), delayMillis);
+        }
+    }
+
+    @Given("^the mock Spark history server answers stage (\\d+) with status code (\\d+) in (\\d+) milliseconds$")
+    public void mockStageResponse(int stageId, int statusCode, int delayMillis) throws Throwable {
+        mockStageTaskList(stageId, statusCode, "[]", delayMillis);
+    }
+
+    @Then("^fetching the tasks with parallelism (\\d+) and request timeout (\\d+) milliseconds should get (\\d+) tasks and (\\d+) failed stages?$")
+    public void checkFetchResult(int parallelism, int timeoutMillis, int expectedTasks, int expectedFailedStages) throws Throwable {
+        SparkTaskFetcher.Result result = new SparkTaskFetcher(parallelism, timeoutMillis, TimeUnit.MILLISECONDS)
+                .fetch(clusterDetailMock, APP_ID, APP_ATTEMPT_ID, stages);
+
+        assertEquals(expectedTasks, result.getTasks().size());
+        assertEquals(expectedFailedStages, result.getFailedStages().size());
+    }
+
+    @Then("^fetching the tasks with parallelism (\\d+) should have between (\\d+) and (\\d+) requests in flight at once$")
+    public void checkFetchConcurrency(int parallelism, int expectedMin, int expectedMax) throws Throwable {
+        inFlightCounter.reset();
+        SparkTaskFetcher.Result result = new SparkTaskFetcher(parallelism, SparkTaskFetcher.DEFAULT_REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .fetch(clusterDetailMock, APP_ID, APP_ATTEMPT_ID, stages);
+        assertTrue(result.isComplete());
+
+        int maxInFlight = inFlightCounter.getMaxInFlight();
+        assertTrue(String.format("%d requests were in flight at once with parallelism %d", maxInFlight, parallelism),
+                maxInFlight >= expectedMin && maxInFlight <= expectedMax);
+    }
+
+    private void mockStageTaskList(int stageId, int statusCode, String body, int delayMillis) {
+        httpServerMock.stubFor(get(urlMatching(String.format(".*/%s/%s/stages/%d/0/taskList", APP_ID, APP_ATTEMPT_ID, stageId)))
+                .willReturn(aResponse()
+                        .withStatus(statusCode)
+                        .withHeader("Content-Type", "application/json")
+                        .withFixedDelay(delayMillis)
+                        .withBody(body)));
+    }
+
+    /**
+     * Counts the requests the mock server is serving at once. Each request is held for a while, so the requests
+     * sent together overlap regardless of how loaded the machine is.
+     */
+    private static class InFlightCounter extends ResponseDefinitionTransformer {
+        private static final long HOLD_MILLIS = 100;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition,
+                                            FileSource files, Parameters parameters) {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(HOLD_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+
+            return responseDefinition;
+        }
+
+        @Override
+        public String getName() {
+            return "in-flight-counter";
+        }
+
+        void reset() {
+            maxInFlight.set(0);
+        }
+
+        int getMaxInFlight() {
+            return maxInFlight.get();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ */
+
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A Spark event log of task end events, generated on the fly so the log never exists in memory as a whole.
+ */
+class SyntheticSparkEventLog extends InputStream {
+    private static final String TASK_END_EVENT = "{\"Event\":\"SparkListenerTaskEnd\",\"Stage ID\":1,\"Stage Attempt ID\":0," +
+            "\"Task Type\":\"ResultTask\",\"Task End Reason\":{\"Reason\":\"Success\"}," +
+            "\"Task Info\":{\"Task ID\":%d,\"Index\":%<d,\"Attempt\":0,\"Launch Time\":1492416000000," +
+            "\"Executor ID\":\"1\",\"Host\":\"wn0-spark\",\"Locality\":\"PROCESS_LOCAL\",\"Speculative\":false," +
+            "\"Getting Result Time\":0,\"Finish Time\":1492416000500,\"Failed\":false,\"Killed\":false," +
+            "\"Accumulables\":[{\"ID\":1,\"Name\":\"internal.metrics.executorRunTime\",\"Update\":480,\"Value\":480," +
+            "\"Internal\":true,\"Count Failed Values\":true}]}," +
+            "\"Task Metrics\":{\"Executor Deserialize Time\":12,\"Executor Deserialize CPU Time\":10200000," +
+            "\"Executor Run Time\":480,\"Executor CPU Time\":401000000,\"Result Size\":1523,\"JVM GC Time\":20," +
+            "\"Result Serialization Time\":1,\"Memory Bytes Spilled\":0,\"Disk Bytes Spilled\":0," +
+            "\"Shuffle Read Metrics\":{\"Remote Blocks Fetched\":4,\"Local Blocks Fetched\":4,\"Fetch Wait Time\":3," +
+            "\"Remote Bytes Read\":2048,\"Local Bytes Read\":2048,\"Total Records Read\":100}," +
+            "\"Shuffle Write Metrics\":{\"Shuffle Bytes Written\":0,\"Shuffle Write Time\":0,\"Shuffle Records Written\":0}," +
+            "\"Input Metrics\":{\"Bytes Read\":65536,\"Records Read\":1000}," +
+            "\"Output Metrics\":{\"Bytes Written\":0,\"Records Written\":0},\"Updated Blocks\":[]}}\n";
+
+    private final int eventCount;
+    private int nextEvent = 0;
+    private byte[] line = new byte[0];
+    private int position = 0;
+    private long bytesRead = 0;
+
+    SyntheticSparkEventLog(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() {
+        if (!hasRemaining()) {
+            return -1;
+        }
+
+        bytesRead++;
+        return line[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!hasRemaining()) {
+            return -1;
+        }
+
+        int count = Math.min(length, line.length - position);
+        System.arraycopy(line, position, buffer, offset, count);
+        position += count;
+        bytesRead += count;
+
+        return count;
+    }
+
+    private boolean hasRemaining() {
+        if (position < line.length) {
+            return true;
+        }
+
+        if (nextEvent == eventCount) {
+            return false;
+        }
+
+        line = String.format(TASK_END_EVENT, nextEvent++).getBytes(StandardCharsets.UTF_8);
+        position = 0;
+
+        return true;
+    }
+}
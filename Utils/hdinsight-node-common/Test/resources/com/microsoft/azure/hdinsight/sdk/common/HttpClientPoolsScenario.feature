@@ -0,0 +1,26 @@
+Feature: HDInsight Http Client Pools Testing
+
+  Background:
+    Given a mock cluster gateway 'http://127.0.0.1:9878' accepting user 'admin' with password 'password'
+
+  Scenario: sequential requests to a cluster reuse one connection and answer one challenge
+    Then sending 5 requests to 'http://127.0.0.1:9878/livy/batches' as 'admin' with password 'password' should use 1 connection and be challenged 1 time
+    And the connection pool of 'http://127.0.0.1:9878' as 'admin' should have 0 leased, 0 pending and 1 available connection
+
+  Scenario: a changed password replaces the cached one
+    Then sending a request to 'http://127.0.0.1:9878/livy/batches' as 'admin' with password 'wrong' should get status code 401
+    Then sending 3 requests to 'http://127.0.0.1:9878/livy/batches' as 'admin' with password 'password' should use 1 connection and be challenged 1 time
+
+  Scenario: concurrent requests to a cluster are limited by the pool
+    Given the mock cluster gateway answers in 200 milliseconds
+    Then sending 30 concurrent requests to 'http://127.0.0.1:9878/sparkhistory/api/v1/applications' as 'admin' with password 'password' should use at most 10 connections
+    And the connection pool of 'http://127.0.0.1:9878' as 'admin' should have 0 leased, 0 pending and 10 available connections
+
+  Scenario: each cluster endpoint and user has its own client
+    Then the clients of 'http://127.0.0.1:9878/livy/batches' as 'admin' and 'http://127.0.0.1:9878/yarnui/ws/v1/cluster/apps' as 'admin' should be the same
+    And the clients of 'http://127.0.0.1:9878/livy/batches' as 'admin' and 'http://127.0.0.1:9878/livy/batches' as 'guest' should be different
+    And the clients of 'http://127.0.0.1:9878/livy/batches' as 'admin' and 'http://localhost:9878/livy/batches' as 'admin' should be different
+
+  Scenario: a client evicted during a request is not closed under it
+    Given the mock cluster gateway answers in 1000 milliseconds
+    Then a request to 'http://127.0.0.1:9878/livy/batches' as 'admin' with password 'password' should succeed while 16 other users open clients
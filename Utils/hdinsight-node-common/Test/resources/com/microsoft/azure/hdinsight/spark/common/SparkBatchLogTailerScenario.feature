@@ -0,0 +1,21 @@
+Feature: Spark Batch Log Tailer Testing
+
+  Scenario: Tailing a growing Livy batch log
+    Given a mock Livy batch 7 on 'http://127.0.0.1:9879/batches' with 5 log lines and state 'running'
+    And the mock Livy batch appends 45 log lines every 20 milliseconds and then turns 'success'
+    Then tailing the batch 7 log of 'http://127.0.0.1:9879/batches' with page size 10 and intervals from 10 to 80 milliseconds should get 50 lines in order
+    Then every log line should be served once
+    Then the tailed batch state should be 'success'
+
+  Scenario: Reading a large Livy batch log backlog in pages
+    Given a mock Livy batch 8 on 'http://127.0.0.1:9879/batches' with 2500 log lines and state 'dead'
+    Then tailing the batch 8 log of 'http://127.0.0.1:9879/batches' with page size 1000 and intervals from 10 to 80 milliseconds should get 2500 lines in order
+    Then every log line should be served once
+    Then the mock Livy batch should get 5 log requests
+    Then the tailed batch state should be 'dead'
+
+  Scenario: Backing off while a Livy batch log is quiet
+    Given a mock Livy batch 9 on 'http://127.0.0.1:9879/batches' with 0 log lines and state 'running'
+    Then tailing the batch 9 log of 'http://127.0.0.1:9879/batches' for 1000 milliseconds with intervals from 10 to 80 milliseconds should get 0 lines
+    Then the mock Livy batch should get at most 20 state requests
+    Then the tailed batch state should be 'running'
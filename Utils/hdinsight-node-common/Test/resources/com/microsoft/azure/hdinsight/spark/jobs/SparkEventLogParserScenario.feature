@@ -0,0 +1,48 @@
+Feature: Spark Event Log Parser Testing
+
+  Scenario: parse dispatches the typed Spark listener events to their consumers
+    Given a Spark event log
+      """
+      {"Event":"SparkListenerLogStart","Spark Version":"2.1.0"}
+      {"Event":"SparkListenerExecutorAdded","Timestamp":1492416000000,"Executor ID":"1","Executor Info":{"Host":"wn0-spark","Total Cores":4,"Log Urls":{"stdout":"http://wn0-spark:30060/stdout"}}}
+      {"Event":"SparkListenerApplicationStart","App Name":"SparkPi","App ID":"application_1492415936046_0015","Timestamp":1492416000000,"User":"spark"}
+      {"Event":"SparkListenerJobStart","Job ID":0,"Submission Time":1492416000100,"Stage Infos":[{"Stage ID":0,"Stage Attempt ID":0,"Stage Name":"reduce at SparkPi.scala:38","Number of Tasks":2,"RDD Info":[],"Parent IDs":[],"Details":"","Accumulables":[]}],"Stage IDs":[0],"Properties":{"spark.job.description":"SparkPi"}}
+      {"Event":"SparkListenerStageSubmitted","Stage Info":{"Stage ID":0,"Stage Attempt ID":0,"Stage Name":"reduce at SparkPi.scala:38","Number of Tasks":2,"RDD Info":[],"Parent IDs":[],"Details":"","Submission Time":1492416000120,"Accumulables":[]},"Properties":{}}
+      {"Event":"SparkListenerTaskStart","Stage ID":0,"Stage Attempt ID":0,"Task Info":{"Task ID":6,"Index":0,"Attempt":0,"Launch Time":1492416000130,"Executor ID":"1","Host":"wn0-spark","Locality":"PROCESS_LOCAL","Speculative":false,"Getting Result Time":0,"Finish Time":0,"Failed":false,"Killed":false,"Accumulables":[]}}
+      {"Event":"SparkListenerTaskStart","Stage ID":0,"Stage Attempt ID":0,"Task Info":{"Task ID":7,"Index":1,"Attempt":0,"Launch Time":1492416000131,"Executor ID":"1","Host":"wn0-spark","Locality":"PROCESS_LOCAL","Speculative":false,"Getting Result Time":0,"Finish Time":0,"Failed":false,"Killed":false,"Accumulables":[]}}
+      {"Event":"SparkListenerTaskEnd","Stage ID":0,"Stage Attempt ID":0,"Task Type":"ResultTask","Task End Reason":{"Reason":"Success"},"Task Info":{"Task ID":6,"Index":0,"Attempt":0,"Launch Time":1492416000130,"Executor ID":"1","Host":"wn0-spark","Locality":"PROCESS_LOCAL","Speculative":false,"Getting Result Time":0,"Finish Time":1492416000400,"Failed":false,"Killed":false,"Accumulables":[{"ID":1,"Name":"internal.metrics.executorRunTime","Update":250,"Value":250,"Internal":true,"Count Failed Values":true}]},"Task Metrics":{"Executor Run Time":250,"Result Size":1523}}
+      {"Event":"SparkListenerTaskEnd","Stage ID":0,"Stage Attempt ID":0,"Task Type":"ResultTask","Task End Reason":{"Reason":"Success"},"Task Info":{"Task ID":7,"Index":1,"Attempt":0,"Launch Time":1492416000131,"Executor ID":"1","Host":"wn0-spark","Locality":"PROCESS_LOCAL","Speculative":false,"Getting Result Time":0,"Finish Time":1492416000410,"Failed":false,"Killed":false,"Accumulables":[]},"Task Metrics":{"Executor Run Time":260,"Result Size":1523}}
+      {"Event":"SparkListenerStageCompleted","Stage Info":{"Stage ID":0,"Stage Attempt ID":0,"Stage Name":"reduce at SparkPi.scala:38","Number of Tasks":2,"RDD Info":[],"Parent IDs":[],"Details":"","Submission Time":1492416000120,"Completion Time":1492416000420,"Accumulables":[{"ID":1,"Name":"internal.metrics.executorRunTime","Value":510,"Internal":true,"Count Failed Values":true}]}}
+      {"Event":"SparkListenerJobEnd","Job ID":0,"Completion Time":1492416000430,"Job Result":{"Result":"JobSucceeded"}}
+      {"Event":"SparkListenerExecutorRemoved","Timestamp":1492416001000,"Executor ID":"1","Removed Reason":"Container killed by YARN"}
+      {"Event":"SparkListenerApplicationEnd","Timestamp":1492416001000}
+      """
+    Then parsing the Spark event log should read 13 events and dispatch
+      | JobStartEventLog        | 1 |
+      | JobEndEventLog          | 1 |
+      | StageSubmittedEventLog  | 1 |
+      | StageCompletedEventLog  | 1 |
+      | TaskStartEventLog       | 2 |
+      | TaskEndEventLog         | 2 |
+      | ExecutorAddedEventLog   | 1 |
+      | ExecutorRemovedEventLog | 1 |
+    And the parsed job 0 should end with 'JobSucceeded'
+    And the parsed task 7 should end with 'Success' on executor '1' of host 'wn0-spark'
+    And the parsed stage 0 should complete with 2 tasks
+
+  Scenario: parse fails on a malformed Spark event log
+    Given a Spark event log
+      """
+      {"Event":"SparkListenerJobStart","Job ID":0,
+      """
+    Then parsing the Spark event log should fail
+
+  @bounded-heap
+  Scenario: parse a Spark event log larger than the heap
+    Given a synthetic Spark event log of 200000 task end events
+    Then parsing the Spark event log should dispatch 200000 task end events in a heap smaller than the log
+
+  @bounded-heap
+  Scenario: parse skips the events without a consumer in a heap smaller than the log
+    Given a synthetic Spark event log of 200000 task end events
+    Then parsing the Spark event log without a task end consumer should skip 200000 events in a heap smaller than the log
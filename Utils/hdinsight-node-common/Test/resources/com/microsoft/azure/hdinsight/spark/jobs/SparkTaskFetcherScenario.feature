@@ -0,0 +1,19 @@
+Feature: Spark Task Fetcher Testing
+
+  Background:
+    Given a mock Spark history server 'http://127.0.0.1:9877' with 16 stages answering 2 tasks each in 200 milliseconds
+
+  Scenario: fetch integration test with all stages answered
+    Then fetching the tasks with parallelism 4 and request timeout 5000 milliseconds should get 32 tasks and 0 failed stages
+
+  Scenario: fetch integration test with partial results for a failed stage
+    Given the mock Spark history server answers stage 5 with status code 500 in 0 milliseconds
+    Then fetching the tasks with parallelism 4 and request timeout 5000 milliseconds should get 30 tasks and 1 failed stage
+
+  Scenario: fetch integration test with partial results for a timed out stage
+    Given the mock Spark history server answers stage 3 with status code 200 in 3000 milliseconds
+    Then fetching the tasks with parallelism 4 and request timeout 1000 milliseconds should get 30 tasks and 1 failed stage
+
+  Scenario: fetch keeps the requests in flight within the parallelism
+    Then fetching the tasks with parallelism 1 should have between 1 and 1 requests in flight at once
+    And fetching the tasks with parallelism 8 should have between 2 and 8 requests in flight at once
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the pooled HTTP clients for the REST calls to HDInsight clusters, such as Livy, Spark history and Yarn.
+ * <p/>
+ * There is one client per cluster endpoint and user. It keeps connections alive between requests, opens at most
+ * {@link #MAX_CONNECTIONS_PER_CLIENT} connections, closes the connections idle for
+ * {@link #CONNECTION_IDLE_TIMEOUT_SECONDS}, and remembers the Basic authentication accepted by the cluster, so only
+ * the first request of a client answers a 401 challenge. Up to {@link #MAX_CLIENTS} clients are kept; opening one
+ * more retires the least recently used client, and a client unused for {@link #CLIENT_IDLE_TIMEOUT_MS} is retired the
+ * next time the registry is used. A retired client is no longer handed out, but other threads may still be sending
+ * requests with it, such as a long Livy poll. It is only closed once none of its connections is leased or awaited
+ * and it has not been handed out for {@link #RETIRED_CLIENT_GRACE_MS}.
+ * <p/>
+ * The clients are shared: close the responses, but never the clients.
+ */
+public class HttpClientPools {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientPools.class);
+
+    static final int MAX_CLIENTS = 16;
+    static final long CLIENT_IDLE_TIMEOUT_MS = 30 * 60 * 1000;
+    // the gateway serves Livy, Spark history and Yarn on the same route, and the task lists are fetched 8 at once
+    static final int MAX_CONNECTIONS_PER_CLIENT = 10;
+    static final long CONNECTION_IDLE_TIMEOUT_SECONDS = 60;
+    // covers the time between getting a client and leasing a connection for its request
+    static final long RETIRED_CLIENT_GRACE_MS = 60 * 1000;
+
+    private static final class ClientEntry {
+        private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        private final BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        private final AuthCache authCache = new BasicAuthCache();
+        private final CloseableHttpClient client;
+        private Credentials credentials;
+        private volatile long lastAccess;
+
+        private ClientEntry() {
+            connectionManager.setMaxTotal(MAX_CONNECTIONS_PER_CLIENT);
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_CLIENT);
+
+            client = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultCredentialsProvider(credentialsProvider)
+                    // share the authentication of the previous requests, the cluster then isn't asked to challenge again
+                    .addInterceptorFirst((HttpRequestInterceptor) (request, context) -> {
+                        HttpClientContext clientContext = HttpClientContext.adapt(context);
+                        if (clientContext.getAuthCache() == null) {
+                            clientContext.setAuthCache(authCache);
+                        }
+                    })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(CONNECTION_IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .build();
+        }
+
+        private synchronized void setCredentials(@Nullable Credentials newCredentials) {
+            if (newCredentials == null
+                    || (credentials != null && Objects.equals(credentials.getPassword(), newCredentials.getPassword()))) {
+                return;
+            }
+
+            credentialsProvider.setCredentials(AuthScope.ANY, newCredentials);
+            authCache.clear();
+            credentials = newCredentials;
+        }
+
+        private boolean isInUse() {
+            PoolStats stats = connectionManager.getTotalStats();
+            return stats.getLeased() > 0 || stats.getPending() > 0
+                    || lastAccess > System.currentTimeMillis() - RETIRED_CLIENT_GRACE_MS;
+        }
+
+        private void close() {
+            try {
+                client.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close the HTTP client", e);
+            }
+        }
+    }
+
+    // in access order, so the first client is the least recently used one
+    private final LinkedHashMap<String, ClientEntry> clients = new LinkedHashMap<>(MAX_CLIENTS, 0.75f, true);
+    // clients no longer handed out, closed once their last request is done
+    private final List<ClientEntry> retiredClients = new ArrayList<>();
+
+    private HttpClientPools() {
+    }
+
+    private static final class HttpClientPoolsHolder {
+        private static final HttpClientPools INSTANCE = new HttpClientPools();
+    }
+
+    public static HttpClientPools getInstance() {
+        return HttpClientPoolsHolder.INSTANCE;
+    }
+
+    /**
+     * Get the pooled client of a cluster, signed in with the cluster's HTTP credentials.
+     *
+     * @param clusterDetail the cluster
+     * @param url any URL of the cluster endpoint the client is for
+     * @return the shared client, which shouldn't be closed
+     * @throws HDIException the cluster credentials can't be got
+     */
+    public CloseableHttpClient getClient(@NotNull IClusterDetail clusterDetail, @NotNull String url) throws HDIException {
+        return getClient(url, new UsernamePasswordCredentials(clusterDetail.getHttpUserName(), clusterDetail.getHttpPassword()));
+    }
+
+    /**
+     * Get the pooled client of an endpoint and user. A changed password replaces the one cached for the user.
+     *
+     * @param url any URL of the endpoint the client is for
+     * @param credentials the credentials of the requests, or null for anonymous requests
+     * @return the shared client, which shouldn't be closed
+     */
+    public CloseableHttpClient getClient(@NotNull String url, @Nullable Credentials credentials) {
+        ClientEntry entry;
+        synchronized (clients) {
+            releaseIdleClients();
+            closeRetiredClients();
+
+            String key = getKey(url, credentials);
+            entry = clients.get(key);
+            if (entry == null) {
+                entry = new ClientEntry();
+                clients.put(key, entry);
+                releaseLeastRecentlyUsedClients();
+            }
+
+            entry.lastAccess = System.currentTimeMillis();
+        }
+
+        entry.setCredentials(credentials);
+        return entry.client;
+    }
+
+    /**
+     * Get the connection pool statistics of an endpoint and user.
+     *
+     * @return the leased, pending and available connections, or null if there is no client for them
+     */
+    @Nullable
+    public PoolStats getPoolStats(@NotNull String url, @Nullable Credentials credentials) {
+        synchronized (clients) {
+            ClientEntry entry = clients.get(getKey(url, credentials));
+            return entry == null ? null : entry.connectionManager.getTotalStats();
+        }
+    }
+
+    /**
+     * Get the connection pool statistics of all clients.
+     *
+     * @return the statistics keyed by the endpoint and user name, such as {@code https://mycluster.azurehdinsight.net#admin}
+     */
+    public Map<String, PoolStats> getAllPoolStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        synchronized (clients) {
+            clients.forEach((key, entry) -> stats.put(key, entry.connectionManager.getTotalStats()));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Close all clients, their connections included.
+     */
+    public void releaseAll() {
+        List<ClientEntry> released;
+        synchronized (clients) {
+            released = new ArrayList<>(clients.values());
+            released.addAll(retiredClients);
+            clients.clear();
+            retiredClients.clear();
+        }
+
+        released.forEach(ClientEntry::close);
+    }
+
+    private void releaseLeastRecentlyUsedClients() {
+        Iterator<ClientEntry> entries = clients.values().iterator();
+        while (clients.size() > MAX_CLIENTS && entries.hasNext()) {
+            ClientEntry entry = entries.next();
+            entries.remove();
+            retiredClients.add(entry);
+        }
+    }
+
+    private void releaseIdleClients() {
+        long idleSince = System.currentTimeMillis() - CLIENT_IDLE_TIMEOUT_MS;
+        Iterator<ClientEntry> entries = clients.values().iterator();
+        while (entries.hasNext()) {
+            ClientEntry entry = entries.next();
+            if (entry.lastAccess < idleSince) {
+                entries.remove();
+                retiredClients.add(entry);
+            }
+        }
+    }
+
+    private void closeRetiredClients() {
+        Iterator<ClientEntry> entries = retiredClients.iterator();
+        while (entries.hasNext()) {
+            ClientEntry entry = entries.next();
+            if (!entry.isInUse()) {
+                entries.remove();
+                entry.close();
+            }
+        }
+    }
+
+    private static String getKey(@NotNull String url, @Nullable Credentials credentials) {
+        HttpHost target = URIUtils.extractHost(URI.create(url));
+        if (target == null) {
+            throw new IllegalArgumentException("No host found in URL " + url);
+        }
+
+        String userName = credentials == null || credentials.getUserPrincipal() == null
+                ? ""
+                : credentials.getUserPrincipal().getName();
+        return target.toURI() + "#" + userName;
+    }
+}
@@ -64,6 +64,8 @@ public final class ObjectConvertUtils {
             case "application/xml" :
                 return convertXmlToObject(EntityUtils.toString(entity), tClass);
         }
+        // release the pooled connection of the unexpected content
+        EntityUtils.consumeQuietly(entity);
         return Optional.empty();
     }
 
@@ -75,6 +77,8 @@ public final class ObjectConvertUtils {
             case "application/xml" :
                 return convertJsonToList(EntityUtils.toString(entity), tClass);
         }
+        // release the pooled connection of the unexpected content
+        EntityUtils.consumeQuietly(entity);
         return Optional.empty();
     }
 
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.Subscriber;
+import rx.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.net.UnknownServiceException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tails the log of a Livy batch job.
+ *
+ * Only the lines after the last read offset are requested from Livy, in pages of at most {@code pageSize} lines.
+ * While the log is quiet, the polling interval doubles up to {@code maxIntervalMs}, and the batch state is checked
+ * to find out when to stop; any new line resets the interval to {@code minIntervalMs}.
+ */
+public class SparkBatchLogTailer {
+    public static final long DEFAULT_MIN_INTERVAL_MS = 1000;
+    public static final long DEFAULT_MAX_INTERVAL_MS = 5000;
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private static final Gson GSON = new Gson();
+    private static final List<String> FINAL_STATES = Arrays.asList("error", "success", "dead");
+
+    @NotNull
+    private final SparkBatchSubmission submission;
+    @NotNull
+    private final String connectUrl;
+    private final int batchId;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final int pageSize;
+
+    private volatile int from = 0;
+    @Nullable
+    private volatile String state;
+
+    public SparkBatchLogTailer(@NotNull SparkBatchSubmission submission, @NotNull String connectUrl, int batchId) {
+        this(submission, connectUrl, batchId, DEFAULT_MIN_INTERVAL_MS, DEFAULT_MAX_INTERVAL_MS, DEFAULT_PAGE_SIZE);
+    }
+
+    public SparkBatchLogTailer(@NotNull SparkBatchSubmission submission,
+                               @NotNull String connectUrl,
+                               int batchId,
+                               long minIntervalMs,
+                               long maxIntervalMs,
+                               int pageSize) {
+        this.submission = submission;
+        this.connectUrl = connectUrl;
+        this.batchId = batchId;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Get the log lines stream, which completes once the batch job reaches a final state and its remaining lines
+     * are emitted. Unsubscribing stops the polling.
+     *
+     * @return the log lines, in order, each emitted once
+     */
+    public Observable<String> tail() {
+        return Observable.create((Subscriber<? super String> ob) -> {
+            try {
+                long interval = minIntervalMs;
+
+                while (!ob.isUnsubscribed()) {
+                    if (readNewLines(ob) > 0) {
+                        interval = minIntervalMs;
+                    } else {
+                        state = getBatchState();
+
+                        if (isFinalState(state)) {
+                            // Get the lines written between the last read and the state change
+                            readNewLines(ob);
+                            break;
+                        }
+
+                        interval = Math.min(interval * 2, maxIntervalMs);
+                    }
+
+                    Thread.sleep(interval);
+                }
+
+                ob.onCompleted();
+            } catch (IOException | InterruptedException e) {
+                if (!ob.isUnsubscribed()) {
+                    ob.onError(e);
+                }
+            }
+        }).subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * @return the last batch state got, null if it hasn't been checked yet
+     */
+    @Nullable
+    public String getState() {
+        return state;
+    }
+
+    /**
+     * @return the offset of the next log line to read
+     */
+    public int getOffset() {
+        return from;
+    }
+
+    public static boolean isFinalState(@Nullable String state) {
+        return state != null && FINAL_STATES.contains(state.toLowerCase());
+    }
+
+    public static boolean isFailedState(@Nullable String state) {
+        return "error".equalsIgnoreCase(state) || "dead".equalsIgnoreCase(state);
+    }
+
+    private int readNewLines(@NotNull Subscriber<? super String> ob) throws IOException {
+        int count = 0;
+
+        while (!ob.isUnsubscribed()) {
+            HttpResponse httpResponse = submission.getBatchJobLog(connectUrl, batchId, from, pageSize);
+            SparkJobLog page = convertResponse(httpResponse, SparkJobLog.class);
+            List<String> lines = page.getLog();
+
+            if (lines == null || lines.isEmpty()) {
+                break;
+            }
+
+            for (String line : lines) {
+                ob.onNext(line);
+            }
+
+            from += lines.size();
+            count += lines.size();
+
+            if (lines.size() < pageSize) {
+                break;
+            }
+        }
+
+        return count;
+    }
+
+    @Nullable
+    private String getBatchState() throws IOException {
+        HttpResponse httpResponse = submission.getBatchSparkJobStatus(connectUrl, batchId);
+
+        return convertResponse(httpResponse, SparkSubmitResponse.class).getState();
+    }
+
+    private static <T> T convertResponse(@NotNull HttpResponse httpResponse, @NotNull Class<T> tClass)
+            throws IOException {
+        if (httpResponse.getCode() < 200 || httpResponse.getCode() >= 300) {
+            throw new UnknownServiceException(String.format(
+                    "Failed to get Livy batch response, status code %d: %s",
+                    httpResponse.getCode(), httpResponse.getMessage()));
+        }
+
+        T result = null;
+        try {
+            result = GSON.fromJson(httpResponse.getMessage(), tClass);
+        } catch (JsonParseException ignore) {
+        }
+
+        if (result == null) {
+            throw new UnknownServiceException("Bad Livy batch response: " + httpResponse.getMessage());
+        }
+
+        return result;
+    }
+}
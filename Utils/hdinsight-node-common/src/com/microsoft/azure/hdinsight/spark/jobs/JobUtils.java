@@ -31,6 +31,7 @@ import com.google.gson.reflect.TypeToken;
 import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
+import com.microsoft.azure.hdinsight.sdk.common.HttpClientPools;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.spark.jobs.livy.LivyBatchesInformation;
@@ -46,9 +47,10 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
@@ -68,8 +70,6 @@ public class JobUtils {
 
     private static String sparkUIHistoryFormat = "%s/sparkhistory/history/%s/%s/jobs";
 
-    private static CredentialsProvider provider = new BasicCredentialsProvider();
-
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message) {
         setResponse(httpExchange, message, 200);
     }
@@ -291,15 +291,23 @@ public class JobUtils {
     }
 
     public static HttpEntity getEntity(@NotNull final IClusterDetail clusterDetail, @NotNull final String url) throws IOException, HDIException {
-        provider.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(clusterDetail.getHttpUserName(), clusterDetail.getHttpPassword()));
-        final HttpClient client = HttpClients.custom().setDefaultCredentialsProvider(provider).build();
+        return getEntity(clusterDetail, url, RequestConfig.DEFAULT);
+    }
+
+    public static HttpEntity getEntity(@NotNull final IClusterDetail clusterDetail,
+                                       @NotNull final String url,
+                                       @NotNull final RequestConfig requestConfig) throws IOException, HDIException {
+        final HttpClient client = HttpClientPools.getInstance().getClient(clusterDetail, url);
 
         final HttpGet get = new HttpGet(url);
+        get.setConfig(requestConfig);
         final HttpResponse response = client.execute(get);
         int code = response.getStatusLine().getStatusCode();
         if (code == HttpStatus.SC_OK || code == HttpStatus.SC_CREATED) {
             return response.getEntity();
         } else {
+            // release the pooled connection, nobody reads the body of the failed request
+            EntityUtils.consumeQuietly(response.getEntity());
             throw new HDIException(response.getStatusLine().getReasonPhrase(), response.getStatusLine().getStatusCode());
         }
     }
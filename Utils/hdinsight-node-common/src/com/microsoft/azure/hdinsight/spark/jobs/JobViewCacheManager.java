@@ -21,11 +21,20 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.AttemptWithAppId;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
@@ -35,100 +44,265 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Caches the REST results shown in the Spark JobView.
+ *
+ * Each cache loads a key only once at a time, and refreshes it in the background after its own interval, so a
+ * stale value is returned while the new one is fetched. Once an application has finished, its values can't change
+ * any more and are kept without refreshing. The same goes for the task lists of finished stages, so a refresh of a
+ * running application only fetches the tasks of its active and pending stages. Values not read for
+ * {@link #EXPIRE_AFTER_ACCESS_MINUTES} are dropped.
+ */
 public class JobViewCacheManager {
-    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Job>>() {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobViewCacheManager.class);
+
+    private static final int MAXIMUM_SIZE = 100;
+    private static final int INITIAL_CAPACITY = 20;
+    private static final long EXPIRE_AFTER_ACCESS_MINUTES = 30;
+
+    // Refresh intervals, in seconds, of the values of running applications
+    private static final long APPLICATIONS_REFRESH_SECONDS = 30;
+    private static final long YARN_APP_REFRESH_SECONDS = 10;
+    private static final long JOBS_REFRESH_SECONDS = 15;
+    private static final long STAGES_REFRESH_SECONDS = 15;
+    private static final long EXECUTORS_REFRESH_SECONDS = 30;
+    private static final long TASKS_REFRESH_SECONDS = 60;
+    private static final long YARN_LOGS_REFRESH_SECONDS = 30;
+    private static final long EVENT_LOGS_REFRESH_SECONDS = 60;
+
+    private static final ExecutorService refreshExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("JobViewCache-refresh-%d").build());
+
+    private static volatile SparkTaskFetcher sparkTaskFetcher = new SparkTaskFetcher();
+
+    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = buildApplicationCache(
+            JOBS_REFRESH_SECONDS,
+            new ApplicationCacheLoader<List<Job>>() {
                 @Override
-                public List<Job> load(ApplicationKey key) throws Exception {
+                protected List<Job> loadValue(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getLastAttemptJobsFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Stage>>() {
+    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = buildApplicationCache(
+            STAGES_REFRESH_SECONDS,
+            new ApplicationCacheLoader<List<Stage>>() {
                 @Override
-                public List<Stage> load(ApplicationKey key) throws Exception {
+                protected List<Stage> loadValue(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllStageFromApp(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Executor>>() {
+    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = buildApplicationCache(
+            EXECUTORS_REFRESH_SECONDS,
+            new ApplicationCacheLoader<List<Executor>>() {
                 @Override
-                public List<Executor> load(ApplicationKey key) throws Exception {
+                protected List<Executor> loadValue(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllExecutorFromApp(key);
                 }
             });
 
     private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<String, List<Application>>() {
+            .maximumSize(MAXIMUM_SIZE)
+            .initialCapacity(INITIAL_CAPACITY)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+            .refreshAfterWrite(APPLICATIONS_REFRESH_SECONDS, TimeUnit.SECONDS)
+            .build(CacheLoader.asyncReloading(new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
                     return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
                 }
-            });
+            }, refreshExecutor));
+
+    // Task lists of the finished stages of each application, by stage id and attempt; they don't change any more
+    private static final Cache<ApplicationKey, Map<String, List<Task>>> finishedStageTasksCache = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .initialCapacity(INITIAL_CAPACITY)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+            .build();
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
+    private static final LoadingCache<ApplicationKey, SparkTaskFetcher.Result> sparkTasksSummaryLocalCache = buildApplicationCache(
+            TASKS_REFRESH_SECONDS,
+            new ApplicationCacheLoader<SparkTaskFetcher.Result>() {
                 @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
+                protected SparkTaskFetcher.Result loadValue(ApplicationKey key) throws Exception {
                     List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
+                    Map<String, List<Task>> finishedStageTasks = finishedStageTasksCache.get(key, ConcurrentHashMap::new);
+
+                    // Only the active and pending stages, and the finished ones not fetched yet, are requested
+                    List<Stage> stagesToFetch = new ArrayList<>();
+                    for (Stage stage : stages) {
+                        if (!isStageFinished(stage) || !finishedStageTasks.containsKey(getStageKey(stage))) {
+                            stagesToFetch.add(stage);
+                        }
+                    }
+
+                    AttemptWithAppId attempt = SparkRestUtil.getLastAttemptFromLocalCache(key);
+                    SparkTaskFetcher.Result fetched = sparkTaskFetcher.fetch(
+                            key.getClusterDetails(), attempt.getAppId(), attempt.getAttemptId(), stagesToFetch);
+                    if (!fetched.isComplete()) {
+                        LOGGER.warn(String.format("Failed to get the tasks of %d of %d stages of application %s",
+                                fetched.getFailedStages().size(), stagesToFetch.size(), key.getAppId()));
+                    }
+
+                    for (Map.Entry<Stage, List<Task>> stageTasks : fetched.getTasksOfStages().entrySet()) {
+                        if (isStageFinished(stageTasks.getKey())) {
+                            finishedStageTasks.put(getStageKey(stageTasks.getKey()), stageTasks.getValue());
+                        }
                     }
-                    return allTasks;
+
+                    Map<Stage, List<Task>> tasksOfStages = new LinkedHashMap<>();
+                    for (Stage stage : stages) {
+                        List<Task> tasks = fetched.getTasksOfStages().get(stage);
+                        if (tasks == null && isStageFinished(stage)) {
+                            tasks = finishedStageTasks.get(getStageKey(stage));
+                        }
+
+                        if (tasks != null) {
+                            tasksOfStages.put(stage, tasks);
+                        }
+                    }
+
+                    return new SparkTaskFetcher.Result(tasksOfStages, fetched.getFailedStages());
+                }
+
+                @Override
+                protected boolean isFinal(boolean finishedBeforeLoad, SparkTaskFetcher.Result value) {
+                    // Retry the failed stages on the next refresh
+                    return finishedBeforeLoad && value.isComplete();
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
+    private static boolean isStageFinished(@NotNull Stage stage) {
+        return "COMPLETE".equalsIgnoreCase(stage.getStatus())
+                || "FAILED".equalsIgnoreCase(stage.getStatus())
+                || "SKIPPED".equalsIgnoreCase(stage.getStatus());
+    }
+
+    @NotNull
+    private static String getStageKey(@NotNull Stage stage) {
+        return stage.getStageId() + "." + stage.getAttemptId();
+    }
+
+    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = buildApplicationCache(
+            YARN_LOGS_REFRESH_SECONDS,
+            new ApplicationCacheLoader<ApplicationMasterLogs>() {
                 @Override
-                public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
+                protected ApplicationMasterLogs loadValue(ApplicationKey key) throws Exception {
                     return JobUtils.getYarnLogs(key);
                 }
             });
 
-    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, App>() {
+    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = buildApplicationCache(
+            YARN_APP_REFRESH_SECONDS,
+            new ApplicationCacheLoader<App>() {
                 @Override
-                public App load(ApplicationKey key) throws Exception {
+                protected App loadValue(ApplicationKey key) throws Exception {
                     return YarnRestUtil.getApp(key);
                 }
+
+                @Override
+                protected boolean isFinishedBeforeLoad(ApplicationKey key) {
+                    // This cache is what the other caches ask, so decide by the loaded value instead
+                    return false;
+                }
+
+                @Override
+                protected boolean isFinal(boolean finishedBeforeLoad, App value) {
+                    return value != null && value.getState() != null && value.isFinished();
+                }
             });
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
+    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = buildApplicationCache(
+            EVENT_LOGS_REFRESH_SECONDS,
+            new ApplicationCacheLoader<List<JobStartEventLog>>() {
                 @Override
-                public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
+                protected List<JobStartEventLog> loadValue(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getSparkEventLogs(key);
                 }
             });
 
+    private static <V> LoadingCache<ApplicationKey, V> buildApplicationCache(long refreshSeconds,
+                                                                             @NotNull ApplicationCacheLoader<V> loader) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .initialCapacity(INITIAL_CAPACITY)
+                .expireAfterAccess(EXPIRE_AFTER_ACCESS_MINUTES, TimeUnit.MINUTES)
+                .refreshAfterWrite(refreshSeconds, TimeUnit.SECONDS)
+                .removalListener(loader::onRemoval)
+                .build(loader);
+    }
+
+    private static boolean isApplicationFinished(@NotNull ApplicationKey key) {
+        try {
+            App app = yarnApplicationLocalCache.get(key);
+            return app != null && app.getState() != null && app.isFinished();
+        } catch (ExecutionException | UncheckedExecutionException ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Loader of the values of one application. A value loaded after the application finished is final and won't be
+     * reloaded; other values are reloaded on the refresh executor.
+     */
+    private abstract static class ApplicationCacheLoader<V> extends CacheLoader<ApplicationKey, V> {
+        private final Set<ApplicationKey> finalKeys = ConcurrentHashMap.newKeySet();
+
+        protected abstract V loadValue(ApplicationKey key) throws Exception;
+
+        protected boolean isFinishedBeforeLoad(ApplicationKey key) {
+            return isApplicationFinished(key);
+        }
+
+        protected boolean isFinal(boolean finishedBeforeLoad, V value) {
+            return finishedBeforeLoad;
+        }
+
+        @Override
+        public V load(ApplicationKey key) throws Exception {
+            // Check before loading, otherwise the value could be from just before the application finished
+            boolean finishedBeforeLoad = isFinishedBeforeLoad(key);
+            V value = loadValue(key);
+            if (isFinal(finishedBeforeLoad, value)) {
+                finalKeys.add(key);
+            }
+
+            return value;
+        }
+
+        @Override
+        public ListenableFuture<V> reload(ApplicationKey key, V oldValue) throws Exception {
+            if (finalKeys.contains(key)) {
+                return Futures.immediateFuture(oldValue);
+            }
+
+            ListenableFutureTask<V> task = ListenableFutureTask.create(() -> load(key));
+            refreshExecutor.execute(task);
+            return task;
+        }
+
+        void onRemoval(RemovalNotification<ApplicationKey, V> notification) {
+            if (notification.getCause() != RemovalCause.REPLACED) {
+                finalKeys.remove(notification.getKey());
+            }
+        }
+    }
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkJobStartEventLogCache.get(key);
     }
@@ -164,7 +338,15 @@ public class JobViewCacheManager {
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        return sparkTasksSummaryLocalCache.get(key).getTasks();
+    }
+
+    /**
+     * Set the fetcher used to load the tasks of all the stages of an application, to change its parallelism or
+     * request timeout.
+     */
+    public static void setSparkTaskFetcher(@NotNull SparkTaskFetcher fetcher) {
+        sparkTaskFetcher = fetcher;
     }
     
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
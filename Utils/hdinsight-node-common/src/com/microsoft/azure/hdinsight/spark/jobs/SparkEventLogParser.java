@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorAddedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorRemovedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobEndEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.StageCompletedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.StageSubmittedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.TaskEndEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.TaskStartEventLog;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads a Spark event log, one JSON event per line, as a stream and hands every event to the consumers registered
+ * for its type. Only the event being read is held in memory, and events without a consumer are skipped unread.
+ */
+public class SparkEventLogParser {
+    private static final String EVENT_FIELD = "Event";
+
+    private static final Map<Class<?>, String> EVENT_NAMES = new HashMap<>();
+    static {
+        EVENT_NAMES.put(JobStartEventLog.class, "SparkListenerJobStart");
+        EVENT_NAMES.put(JobEndEventLog.class, "SparkListenerJobEnd");
+        EVENT_NAMES.put(StageSubmittedEventLog.class, "SparkListenerStageSubmitted");
+        EVENT_NAMES.put(StageCompletedEventLog.class, "SparkListenerStageCompleted");
+        EVENT_NAMES.put(TaskStartEventLog.class, "SparkListenerTaskStart");
+        EVENT_NAMES.put(TaskEndEventLog.class, "SparkListenerTaskEnd");
+        EVENT_NAMES.put(ExecutorAddedEventLog.class, "SparkListenerExecutorAdded");
+        EVENT_NAMES.put(ExecutorRemovedEventLog.class, "SparkListenerExecutorRemoved");
+    }
+
+    // Spark adds fields to its events from version to version, only the mapped ones are read
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Map<String, EventHandler<?>> handlers = new HashMap<>();
+
+    /**
+     * Registers a consumer for one type of event, such as {@link JobStartEventLog} or {@link TaskEndEventLog}.
+     *
+     * @return this parser
+     */
+    public <T> SparkEventLogParser on(@NotNull Class<T> eventType, @NotNull Consumer<? super T> consumer) {
+        String eventName = EVENT_NAMES.get(eventType);
+        if (eventName == null) {
+            throw new IllegalArgumentException("Unsupported Spark event type " + eventType.getName());
+        }
+
+        @SuppressWarnings("unchecked")
+        EventHandler<T> handler = (EventHandler<T>) handlers.get(eventName);
+        if (handler == null) {
+            handlers.put(eventName, new EventHandler<>(eventType, consumer));
+        } else {
+            handler.add(consumer);
+        }
+
+        return this;
+    }
+
+    /**
+     * Reads the events from the stream until its end and dispatches them to the registered consumers. An event
+     * that can't be converted to its type is skipped, while malformed JSON fails the parsing.
+     *
+     * @return the count of events read, including the ones without a consumer
+     */
+    public long parse(@NotNull InputStream inputStream) throws IOException {
+        long eventCount = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Spark event should be a JSON object, but got " + token);
+                }
+
+                readEvent(parser);
+                eventCount++;
+            }
+        }
+
+        return eventCount;
+    }
+
+    private void readEvent(@NotNull JsonParser parser) throws IOException {
+        ObjectNode event = objectMapper.createObjectNode();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+
+            // Spark writes the event name first, so the body of an event nobody listens to is never built
+            if (event.size() == 0 && fieldName.equals(EVENT_FIELD) && !handlers.containsKey(parser.getText())) {
+                skipRemainingFields(parser);
+                return;
+            }
+
+            event.set(fieldName, objectMapper.readTree(parser));
+        }
+
+        JsonNode eventName = event.get(EVENT_FIELD);
+        EventHandler<?> handler = eventName == null ? null : handlers.get(eventName.asText());
+        if (handler != null) {
+            handler.handle(event);
+        }
+    }
+
+    private static void skipRemainingFields(@NotNull JsonParser parser) throws IOException {
+        parser.skipChildren();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            parser.skipChildren();
+        }
+    }
+
+    private static class EventHandler<T> {
+        private final Class<T> eventType;
+        private Consumer<? super T> consumer;
+
+        EventHandler(@NotNull Class<T> eventType, @NotNull Consumer<? super T> consumer) {
+            this.eventType = eventType;
+            this.consumer = consumer;
+        }
+
+        void add(@NotNull Consumer<? super T> next) {
+            Consumer<? super T> previous = consumer;
+            consumer = event -> {
+                previous.accept(event);
+                next.accept(event);
+            };
+        }
+
+        void handle(@NotNull ObjectNode event) {
+            T value;
+            try {
+                value = objectMapper.treeToValue(event, eventType);
+            } catch (JsonProcessingException ignored) {
+                // skip the event as the line by line conversion did
+                return;
+            }
+
+            consumer.accept(value);
+        }
+    }
+}
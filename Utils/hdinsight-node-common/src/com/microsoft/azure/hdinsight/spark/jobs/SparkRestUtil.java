@@ -37,13 +37,12 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
-import org.json.JSONObject;
+import org.apache.http.client.config.RequestConfig;
 
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
@@ -92,49 +91,62 @@ public class SparkRestUtil {
 
     public static List<Task> getSparkTasks(@NotNull ApplicationKey key, @NotNull int stage, int attemptId) throws IOException, ExecutionException, HDIException {
         AttemptWithAppId attemptWithAppId = getLastAttemptFromLocalCache(key);
-        String url = String.format("/%s/%s/stages/%s/%s/taskList", attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(),stage, attemptId);
-        HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
+        return getSparkTasks(key.getClusterDetails(), attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(), stage, attemptId, RequestConfig.DEFAULT);
+    }
+
+    public static List<Task> getSparkTasks(@NotNull IClusterDetail clusterDetail,
+                                           @NotNull String appId,
+                                           @NotNull String appAttemptId,
+                                           int stage,
+                                           int attemptId,
+                                           @NotNull RequestConfig requestConfig) throws IOException, HDIException {
+        String url = String.format("/%s/%s/stages/%s/%s/taskList", appId, appAttemptId, stage, attemptId);
+        HttpEntity entity = getSparkRestEntity(clusterDetail, url, requestConfig);
 
         Optional<List<Task>> tasks = ObjectConvertUtils.convertEntityToList(entity, Task.class);
         return tasks.orElse(RestUtil.getEmptyList(Task.class));
     }
     
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
+        List<JobStartEventLog> jobStartEvents = new ArrayList<>();
+        parseSparkEventLogs(key, new SparkEventLogParser().on(JobStartEventLog.class, jobStartEvents::add));
+
+        return jobStartEvents;
+    }
+
+    /**
+     * Downloads the event logs of the application and streams the events of its last attempt to the parser,
+     * so that the memory used doesn't grow with the size of the log.
+     */
+    public static void parseSparkEventLogs(@NotNull ApplicationKey key, @NotNull SparkEventLogParser parser) throws HDIException, IOException {
         String url = String.format("%s/logs", key.getAppId());
         String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
         File file = new File(eventLogsPath);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
         InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
-
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
-        // every application has an attempt in event log
-        // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
-            throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+        try {
+            FileUtils.copyInputStreamToFile(inputStream, file);
+        } finally {
+            IOUtils.closeQuietly(inputStream);
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    JSONObject jsonObject = new JSONObject(line);
-                    String eventName = jsonObject.getString("Event");
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
-        return jobStartEvents;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            List<? extends ZipEntry> entities = Collections.list(zipFile.entries());
+            // every application has an attempt in event log
+            // and the entity name should be in formation "{appId}_{attemptId}"
+            String entityName = String.format("%s_%s", key.getAppId(), entities.size());
+            ZipEntry lastEntity = zipFile.getEntry(entityName);
+            if (lastEntity == null) {
+                throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+            }
+
+            try (InputStream zipFileInputStream = zipFile.getInputStream(lastEntity)) {
+                parser.parse(zipFileInputStream);
+            }
+        }
     }
 
-    private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
+    static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
         List<Application> sparkApplications = JobViewCacheManager.getSparkApplications(key.getClusterDetails());
         Optional<Application> selectedApplication = sparkApplications.stream().filter(application -> application.getId().equalsIgnoreCase(key.getAppId())
         ).findFirst();
@@ -142,7 +154,11 @@ public class SparkRestUtil {
     }
 
     private static HttpEntity getSparkRestEntity(@NotNull IClusterDetail clusterDetail, @NotNull String restUrl) throws HDIException, IOException {
+        return getSparkRestEntity(clusterDetail, restUrl, RequestConfig.DEFAULT);
+    }
+
+    private static HttpEntity getSparkRestEntity(@NotNull IClusterDetail clusterDetail, @NotNull String restUrl, @NotNull RequestConfig requestConfig) throws HDIException, IOException {
         final String url = String.format(SPARK_REST_API_ENDPOINT, clusterDetail.getConnectionUrl(), restUrl);
-        return JobUtils.getEntity(clusterDetail, url);
+        return JobUtils.getEntity(clusterDetail, url, requestConfig);
     }
 }
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.http.client.config.RequestConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches the task lists of many stages in parallel, with at most {@code parallelism} requests in flight per fetch.
+ * The workers run on an executor shared by all fetches. A stage whose request fails or times out is reported in
+ * {@link Result#getFailedStages()}, and the tasks of the other stages are still returned.
+ */
+public class SparkTaskFetcher {
+    public static final int DEFAULT_PARALLELISM = 8;
+    public static final int DEFAULT_REQUEST_TIMEOUT_SECONDS = 60;
+
+    private static final ExecutorService sharedExecutor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("SparkTaskFetcher-%d").build());
+
+    private final int parallelism;
+    private final RequestConfig requestConfig;
+
+    public SparkTaskFetcher() {
+        this(DEFAULT_PARALLELISM, DEFAULT_REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param parallelism the most task list requests in flight at once for one fetch
+     * @param requestTimeout the connect and read timeout of each request
+     * @param unit the unit of requestTimeout
+     */
+    public SparkTaskFetcher(int parallelism, long requestTimeout, @NotNull TimeUnit unit) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be at least 1, but got " + parallelism);
+        }
+
+        int timeoutMillis = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(requestTimeout));
+        this.parallelism = parallelism;
+        this.requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeoutMillis)
+                .setConnectionRequestTimeout(timeoutMillis)
+                .setSocketTimeout(timeoutMillis)
+                .build();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Fetch the tasks of the stages of an application attempt.
+     *
+     * @param clusterDetail the cluster running the application
+     * @param appId the application id
+     * @param attemptId the application attempt id
+     * @param stages the stages to fetch the tasks of
+     * @return the tasks, in the order of the stages, and the stages failed to fetch
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    @NotNull
+    public Result fetch(@NotNull IClusterDetail clusterDetail,
+                        @NotNull String appId,
+                        @NotNull String attemptId,
+                        @NotNull List<Stage> stages) throws InterruptedException {
+        List<List<Task>> tasksOfStages = new ArrayList<>(Collections.nCopies(stages.size(), null));
+        Map<Stage, Exception> failedStages = Collections.synchronizedMap(new LinkedHashMap<>());
+        AtomicInteger nextStage = new AtomicInteger();
+
+        int workers = Math.min(parallelism, stages.size());
+        CountDownLatch done = new CountDownLatch(workers);
+        for (int i = 0; i < workers; i++) {
+            sharedExecutor.execute(() -> {
+                try {
+                    for (int index = nextStage.getAndIncrement();
+                         index < stages.size();
+                         index = nextStage.getAndIncrement()) {
+                        Stage stage = stages.get(index);
+                        try {
+                            List<Task> tasks = SparkRestUtil.getSparkTasks(clusterDetail, appId, attemptId,
+                                    stage.getStageId(), stage.getAttemptId(), requestConfig);
+                            synchronized (tasksOfStages) {
+                                tasksOfStages.set(index, tasks);
+                            }
+                        } catch (Exception e) {
+                            failedStages.put(stage, e);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        try {
+            done.await();
+        } finally {
+            // Let running workers stop after their current request
+            nextStage.set(stages.size());
+        }
+
+        Map<Stage, List<Task>> fetchedStages = new LinkedHashMap<>();
+        synchronized (tasksOfStages) {
+            for (int index = 0; index < stages.size(); index++) {
+                List<Task> tasks = tasksOfStages.get(index);
+                if (tasks != null) {
+                    fetchedStages.put(stages.get(index), tasks);
+                }
+            }
+        }
+
+        return new Result(fetchedStages, failedStages);
+    }
+
+    public static class Result {
+        private final Map<Stage, List<Task>> tasksOfStages;
+        private final List<Task> tasks;
+        private final Map<Stage, Exception> failedStages;
+
+        /**
+         * @param tasksOfStages the tasks of each stage fetched, in the order of the stages
+         * @param failedStages the stages failed to fetch, with their errors
+         */
+        public Result(@NotNull Map<Stage, List<Task>> tasksOfStages, @NotNull Map<Stage, Exception> failedStages) {
+            List<Task> allTasks = new ArrayList<>();
+            for (List<Task> stageTasks : tasksOfStages.values()) {
+                allTasks.addAll(stageTasks);
+            }
+
+            this.tasksOfStages = Collections.unmodifiableMap(new LinkedHashMap<>(tasksOfStages));
+            this.tasks = Collections.unmodifiableList(allTasks);
+            this.failedStages = Collections.unmodifiableMap(new LinkedHashMap<>(failedStages));
+        }
+
+        @NotNull
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        @NotNull
+        public Map<Stage, List<Task>> getTasksOfStages() {
+            return tasksOfStages;
+        }
+
+        @NotNull
+        public Map<Stage, Exception> getFailedStages() {
+            return failedStages;
+        }
+
+        public boolean isComplete() {
+            return failedStages.isEmpty();
+        }
+    }
+}